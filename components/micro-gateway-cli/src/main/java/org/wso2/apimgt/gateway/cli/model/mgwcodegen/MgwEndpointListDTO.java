@@ -3,7 +3,10 @@ package org.wso2.apimgt.gateway.cli.model.mgwcodegen;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import org.wso2.apimgt.gateway.cli.model.rest.APIEndpointSecurityDTO;
 import org.wso2.apimgt.gateway.cli.model.rest.EndpointUrlTypeEnum;
+import org.wso2.apimgt.gateway.cli.model.route.EndpointCircuitBreakerDTO;
+import org.wso2.apimgt.gateway.cli.model.route.EndpointConnectionPoolDTO;
 import org.wso2.apimgt.gateway.cli.model.route.EndpointType;
+import org.wso2.apimgt.gateway.cli.model.route.LoadBalanceAlgorithm;
 
 import java.util.List;
 
@@ -20,6 +23,11 @@ import java.util.List;
  *        x-wso2-production-endpoints:
  *          urls:
  *            - http://www.mocky.io/v2/5cd28b9a310000bf293397f9
+ *          connectionPool:
+ *            maxActiveConnections: 200
+ *          algorithm: adaptive
+ *          circuitBreaker:
+ *            failureThreshold: 0.5
  * </p>
  */
 public class MgwEndpointListDTO {
@@ -29,6 +37,12 @@ public class MgwEndpointListDTO {
     private List<MgwEndpointDTO> endpoints = null;
     private EndpointUrlTypeEnum endpointUrlType = null;
     private String name = null;
+    // Tells the endpoints of the resources of an API apart in the key of the connection pool metrics and the adaptive
+    // load balancer state. Not set for the API level endpoints.
+    private String resourceKey = null;
+    private EndpointConnectionPoolDTO connectionPool = null;
+    private LoadBalanceAlgorithm algorithm = null;
+    private EndpointCircuitBreakerDTO circuitBreaker = null;
 
     @SuppressFBWarnings(value = "URF_UNREAD_FIELD")
     private boolean endpointListEtcdEnabled = false;
@@ -73,6 +87,38 @@ public class MgwEndpointListDTO {
         this.name = name;
     }
 
+    public String getResourceKey() {
+        return resourceKey;
+    }
+
+    public void setResourceKey(String resourceKey) {
+        this.resourceKey = resourceKey;
+    }
+
+    public EndpointConnectionPoolDTO getConnectionPool() {
+        return connectionPool;
+    }
+
+    public void setConnectionPool(EndpointConnectionPoolDTO connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    public LoadBalanceAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(LoadBalanceAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    public EndpointCircuitBreakerDTO getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(EndpointCircuitBreakerDTO circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
     public void setEndpointListEtcdEnabled(boolean endpointListEtcdEnabled) {
         this.endpointListEtcdEnabled = endpointListEtcdEnabled;
     }
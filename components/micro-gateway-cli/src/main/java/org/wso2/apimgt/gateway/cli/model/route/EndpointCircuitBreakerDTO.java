@@ -0,0 +1,112 @@
+package org.wso2.apimgt.gateway.cli.model.route;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class holds the circuit breaker configuration of an endpoint (circuitBreaker of
+ * x-wso2-production-endpoints and x-wso2-sandbox-endpoints). The circuit opens when the failed requests of the
+ * rolling window exceed the failure threshold, and a single request is let through after the reset time to probe
+ * whether the endpoint recovered. Load balanced and failover endpoints get a circuit per target, so a target whose
+ * circuit is open is skipped until the probe succeeds.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EndpointCircuitBreakerDTO {
+
+    private double failureThreshold = 0.5;
+    private int resetTimeInMillis = 30000;
+    private int timeWindowInMillis = 60000;
+    private int bucketSizeInMillis = 10000;
+    private int requestVolumeThreshold = 10;
+    private List<Integer> statusCodes = Arrays.asList(500, 502, 503, 504);
+    private Integer timeoutInMillis = null;
+
+    /**
+     * Ratio of failed requests in the rolling window above which the circuit opens.
+     *
+     * @return failure ratio from 0 to 1
+     */
+    @JsonProperty("failureThreshold")
+    public double getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(double failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    @JsonProperty("resetTimeInMillis")
+    public int getResetTimeInMillis() {
+        return resetTimeInMillis;
+    }
+
+    public void setResetTimeInMillis(int resetTimeInMillis) {
+        this.resetTimeInMillis = resetTimeInMillis;
+    }
+
+    @JsonProperty("timeWindowInMillis")
+    public int getTimeWindowInMillis() {
+        return timeWindowInMillis;
+    }
+
+    public void setTimeWindowInMillis(int timeWindowInMillis) {
+        this.timeWindowInMillis = timeWindowInMillis;
+    }
+
+    @JsonProperty("bucketSizeInMillis")
+    public int getBucketSizeInMillis() {
+        return bucketSizeInMillis;
+    }
+
+    public void setBucketSizeInMillis(int bucketSizeInMillis) {
+        this.bucketSizeInMillis = bucketSizeInMillis;
+    }
+
+    /**
+     * Minimum number of requests in the rolling window before the circuit can open.
+     *
+     * @return request count
+     */
+    @JsonProperty("requestVolumeThreshold")
+    public int getRequestVolumeThreshold() {
+        return requestVolumeThreshold;
+    }
+
+    public void setRequestVolumeThreshold(int requestVolumeThreshold) {
+        this.requestVolumeThreshold = requestVolumeThreshold;
+    }
+
+    /**
+     * Response status codes which are counted as failures, in addition to the requests which fail to connect.
+     *
+     * @return status codes
+     */
+    @JsonProperty("statusCodes")
+    public List<Integer> getStatusCodes() {
+        return statusCodes;
+    }
+
+    public void setStatusCodes(List<Integer> statusCodes) {
+        this.statusCodes = statusCodes;
+    }
+
+    /**
+     * Time after which a request which is not answered fails and is counted as a failure. It replaces the
+     * idleTimeoutInMillis of the connection pool, as both are the timeout of the ballerina http client.
+     *
+     * @return timeout in milliseconds, or null to keep the client timeout
+     */
+    @JsonProperty("timeoutInMillis")
+    public Integer getTimeoutInMillis() {
+        return timeoutInMillis;
+    }
+
+    public void setTimeoutInMillis(Integer timeoutInMillis) {
+        this.timeoutInMillis = timeoutInMillis;
+    }
+}
@@ -0,0 +1,89 @@
+package org.wso2.apimgt.gateway.cli.model.route;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * This class holds the connection pool configuration of an endpoint (connectionPool of
+ * x-wso2-production-endpoints and x-wso2-sandbox-endpoints). Settings which are not given keep the defaults of the
+ * ballerina http client.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class EndpointConnectionPoolDTO {
+
+    /**
+     * Keep-alive behaviours of the ballerina http client.
+     */
+    public enum KeepAliveEnum {
+        AUTO, ALWAYS, NEVER
+    }
+
+    private int maxActiveConnections = -1;
+    private int maxIdleConnections = 100;
+    private int waitTimeInMillis = 30000;
+    private int maxActiveStreamsPerConnection = 50;
+    private Integer idleTimeoutInMillis = null;
+    private KeepAliveEnum keepAlive = null;
+
+    @JsonProperty("maxActiveConnections")
+    public int getMaxActiveConnections() {
+        return maxActiveConnections;
+    }
+
+    public void setMaxActiveConnections(int maxActiveConnections) {
+        this.maxActiveConnections = maxActiveConnections;
+    }
+
+    @JsonProperty("maxIdleConnections")
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    @JsonProperty("waitTimeInMillis")
+    public int getWaitTimeInMillis() {
+        return waitTimeInMillis;
+    }
+
+    public void setWaitTimeInMillis(int waitTimeInMillis) {
+        this.waitTimeInMillis = waitTimeInMillis;
+    }
+
+    @JsonProperty("maxActiveStreamsPerConnection")
+    public int getMaxActiveStreamsPerConnection() {
+        return maxActiveStreamsPerConnection;
+    }
+
+    public void setMaxActiveStreamsPerConnection(int maxActiveStreamsPerConnection) {
+        this.maxActiveStreamsPerConnection = maxActiveStreamsPerConnection;
+    }
+
+    /**
+     * Time after which an idle connection to the endpoint is closed. This is the timeout of the ballerina http
+     * client.
+     *
+     * @return idle timeout in milliseconds, or null to keep the default
+     */
+    @JsonProperty("idleTimeoutInMillis")
+    public Integer getIdleTimeoutInMillis() {
+        return idleTimeoutInMillis;
+    }
+
+    public void setIdleTimeoutInMillis(Integer idleTimeoutInMillis) {
+        this.idleTimeoutInMillis = idleTimeoutInMillis;
+    }
+
+    @JsonProperty("keepAlive")
+    public KeepAliveEnum getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(KeepAliveEnum keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+}
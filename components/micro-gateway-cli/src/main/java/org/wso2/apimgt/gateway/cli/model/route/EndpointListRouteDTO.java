@@ -19,6 +19,9 @@ public class EndpointListRouteDTO {
     private EndpointType type = null;
     private List<String> endpoints = null;
     private String name;
+    private EndpointConnectionPoolDTO connectionPool = null;
+    private LoadBalanceAlgorithm algorithm = null;
+    private EndpointCircuitBreakerDTO circuitBreaker = null;
 
     @JsonProperty("securityConfig")
     public APIEndpointSecurityDTO getSecurityConfig() {
@@ -53,6 +56,33 @@ public class EndpointListRouteDTO {
         this.endpoints = endpoints;
     }
 
+    @JsonProperty("connectionPool")
+    public EndpointConnectionPoolDTO getConnectionPool() {
+        return connectionPool;
+    }
+
+    public void setConnectionPool(EndpointConnectionPoolDTO connectionPool) {
+        this.connectionPool = connectionPool;
+    }
+
+    @JsonProperty("algorithm")
+    public LoadBalanceAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    public void setAlgorithm(LoadBalanceAlgorithm algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    @JsonProperty("circuitBreaker")
+    public EndpointCircuitBreakerDTO getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public void setCircuitBreaker(EndpointCircuitBreakerDTO circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
     public String getName() {
         return name;
     }
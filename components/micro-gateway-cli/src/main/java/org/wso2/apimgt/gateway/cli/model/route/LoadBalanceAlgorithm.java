@@ -0,0 +1,9 @@
+package org.wso2.apimgt.gateway.cli.model.route;
+
+/**
+ * Enum defining the algorithms supported to pick the target of a load balanced endpoint.
+ */
+public enum LoadBalanceAlgorithm {
+    round_robin,
+    adaptive
+}
@@ -200,6 +200,30 @@ public class BallerinaService implements BallerinaOpenAPIObject<BallerinaService
             });
             paths.add(new AbstractMap.SimpleEntry<>(path.getKey(), balPath));
         }
+        setResourceEndpointKeys();
+    }
+
+    /**
+     * Numbers the resource level endpoints of the API, so that each of them gets its own connection pool metrics and
+     * adaptive load balancer state, even if it has no name or shares its name with the endpoints of other resources.
+     */
+    private void setResourceEndpointKeys() {
+        int resourceIndex = 0;
+        for (Map.Entry<String, BallerinaPath> path : paths) {
+            for (Map.Entry<String, BallerinaOperation> operation : path.getValue().getOperations()) {
+                MgwEndpointConfigDTO epConfig = operation.getValue().getEpConfigDTO();
+                if (epConfig == null) {
+                    continue;
+                }
+                String resourceKey = "resource" + resourceIndex++;
+                if (epConfig.getProdEndpointList() != null) {
+                    epConfig.getProdEndpointList().setResourceKey(resourceKey);
+                }
+                if (epConfig.getSandboxEndpointList() != null) {
+                    epConfig.getSandboxEndpointList().setResourceKey(resourceKey);
+                }
+            }
+        }
     }
 
     private String replaceAllNonAlphaNumeric(String value) {
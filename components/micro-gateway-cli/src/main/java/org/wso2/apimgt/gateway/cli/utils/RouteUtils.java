@@ -156,6 +156,9 @@ public final class RouteUtils {
             setEndpointUrls(prodEpListDTO, prod);
             prod.setSecurityConfig(prodEpListDTO.getSecurityConfig());
             prod.setName(prodEpListDTO.getName());
+            prod.setConnectionPool(prodEpListDTO.getConnectionPool());
+            prod.setAlgorithm(prodEpListDTO.getAlgorithm());
+            prod.setCircuitBreaker(prodEpListDTO.getCircuitBreaker());
         }
 
         if (sandEpListDTO != null) {
@@ -165,6 +168,9 @@ public final class RouteUtils {
             setEndpointUrls(sandEpListDTO, sandbox);
             sandbox.setSecurityConfig(sandEpListDTO.getSecurityConfig());
             sandbox.setName(sandEpListDTO.getName());
+            sandbox.setConnectionPool(sandEpListDTO.getConnectionPool());
+            sandbox.setAlgorithm(sandEpListDTO.getAlgorithm());
+            sandbox.setCircuitBreaker(sandEpListDTO.getCircuitBreaker());
         }
 
         endpointConfigDTO.setProdEndpointList(prod);
@@ -30,29 +30,47 @@ int rotatingTime = 0;
 stream<EventDTO> eventStream = new;
 
 
-function setRequestAttributesToContext(http:Request request, http:FilterContext context) returns error? {
+function setRequestAttributesToContext(http:Request request, http:FilterContext context, string protocol)
+        returns error? {
     //ready authentication context to get values
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     printDebug(KEY_THROTTLE_FILTER, "Resource level throttled out: false");
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    // The request data is kept in the record the response event is built from, which is carried in the invocation
+    // context, instead of being copied through the filter context attributes.
+    RequestResponseExecutionDTO analyticsData = {};
     if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
         AuthenticationContext authContext = <AuthenticationContext>invocationContext.attributes[AUTHENTICATION_CONTEXT];
-        context.attributes[APPLICATION_OWNER_PROPERTY] = authContext.subscriber;
-        context.attributes[API_TIER_PROPERTY] = authContext.apiTier;
-        context.attributes[CONTINUE_ON_TROTTLE_PROPERTY] = !authContext.stopOnQuotaReach;
+        analyticsData.applicationOwner = authContext.subscriber;
+        analyticsData.apiTier = authContext.apiTier;
+        analyticsData.throttledOut = !authContext.stopOnQuotaReach;
     } else {
-        context.attributes[APPLICATION_OWNER_PROPERTY] = ANONYMOUS_APP_OWNER;
-        context.attributes[API_TIER_PROPERTY] = UNAUTHENTICATED_TIER;
-        context.attributes[CONTINUE_ON_TROTTLE_PROPERTY] = <boolean>context.attributes[ALLOWED_ON_QUOTA_REACHED];
+        analyticsData.applicationOwner = ANONYMOUS_APP_OWNER;
+        analyticsData.apiTier = UNAUTHENTICATED_TIER;
+        analyticsData.throttledOut = <boolean>context.attributes[ALLOWED_ON_QUOTA_REACHED];
     }
-    context.attributes[USER_AGENT_PROPERTY] = request.userAgent;
-    context.attributes[USER_IP_PROPERTY] = <string>context.attributes[REMOTE_ADDRESS];
-    context.attributes[API_CREATOR_TENANT_DOMAIN_PROPERTY] = getTenantDomain(context);
-    context.attributes[API_METHOD_PROPERTY] = request.method;
+    analyticsData.protocol = protocol;
+    analyticsData.userAgent = request.userAgent;
+    analyticsData.userIp = <string>context.attributes[REMOTE_ADDRESS];
+    analyticsData.apiCreatorTenantDomain = getTenantDomain(context);
+    analyticsData.apiMethod = request.method;
 
     time:Time time = time:currentTime();
-    int currentTimeMills = time.time;
-    context.attributes[REQUEST_TIME_PROPERTY] = currentTimeMills;
+    analyticsData.requestTimestamp = time.time;
+    invocationContext.attributes[ANALYTICS_EVENT_DATA] = analyticsData;
+}
+
+# Returns the analytics record of the current request, which is filled in by the analytics request filter and
+# completed when the response event is built.
+#
+# + return - Analytics record of the current request
+function getAnalyticsEventData() returns RequestResponseExecutionDTO {
+    any analyticsData = runtime:getInvocationContext().attributes[ANALYTICS_EVENT_DATA];
+    if (analyticsData is RequestResponseExecutionDTO) {
+        return analyticsData;
+    }
+    RequestResponseExecutionDTO emptyData = {};
+    return emptyData;
 }
 
 public function getEventData(EventDTO dto) returns string {
@@ -63,22 +81,12 @@ public function getEventData(EventDTO dto) returns string {
 }
 
 function writeEventToFile(EventDTO eventDTO) {
-    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
-    // errors from 'openWritableFile' will be 'panicked'
-    var writableChannel = <io:WritableByteChannel>io:openWritableFile(fileLocation + API_USAGE_FILE, true);
-    io:WritableCharacterChannel charChannel = new (writableChannel, "UTF-8");
-    var result = charChannel.write(getEventData(eventDTO), 0);
-    if (result is io:GenericError) {
-        closeWC(charChannel);
-        panic result;
-    } else if (result is io:ConnectionTimedOutError) {
-        closeWC(charChannel);
-        panic result;
+    var result = writeAnalyticsEvent(getEventData(eventDTO));
+    if (result is error) {
+        printFullError(KEY_ANALYTICS_FILTER, result);
     } else {
-        closeWC(charChannel);
         printDebug(KEY_ANALYTICS_FILTER, "Event is being written");
     }
-
 }
 
 public function closeWC(io:WritableCharacterChannel charChannel) {
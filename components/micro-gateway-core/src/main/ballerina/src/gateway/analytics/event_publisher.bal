@@ -0,0 +1,135 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/mime;
+import ballerina/task;
+
+int streamBatchSize = DEFAULT_ANALYTICS_STREAM_BATCH_SIZE;
+boolean streamCompression = true;
+int streamRetryInterval = DEFAULT_ANALYTICS_STREAM_RETRY_INTERVAL;
+string streamAuthHeader = "";
+boolean streamPublishInProgress = false;
+// Batches are spooled to the usage data file without trying the receiver until this time, once it was unreachable.
+int streamSuspendedUntil = 0;
+
+function publishEventToStream(EventDTO eventDTO) {
+    var result = publishAnalyticsEvent(getEventData(eventDTO));
+    if (result is error) {
+        printFullError(KEY_ANALYTICS_FILTER, result);
+    } else {
+        printDebug(KEY_ANALYTICS_FILTER, "Event is queued for publishing");
+    }
+}
+
+function publishEventBatches() {
+    boolean receiverAvailable = getCurrentTime() >= streamSuspendedUntil;
+    while (true) {
+        byte[] | error? batch = nextAnalyticsBatch(streamBatchSize, streamCompression);
+        if (batch is byte[]) {
+            if (receiverAvailable) {
+                receiverAvailable = sendEventBatch(batch);
+            }
+            if (receiverAvailable) {
+                acknowledgeAnalyticsBatch();
+            } else {
+                var spoolResult = spoolAnalyticsBatch();
+                if (spoolResult is error) {
+                    // The events which were not spooled are kept in the batch for the next run of the task.
+                    printFullError(KEY_PUBLISH_TASK, spoolResult);
+                    break;
+                }
+            }
+        } else {
+            if (batch is error) {
+                printFullError(KEY_PUBLISH_TASK, batch);
+            }
+            break;
+        }
+    }
+    updateAnalyticsPublisherGauges();
+}
+
+function sendEventBatch(byte[] batch) returns boolean {
+    http:Request request = new;
+    request.setBinaryPayload(batch, contentType = mime:TEXT_PLAIN);
+    if (streamCompression) {
+        request.setHeader(CONTENT_ENCODING_HEADER, GZIP_ENCODING);
+    }
+    request.setHeader(AUTH_HEADER, streamAuthHeader);
+    var response = analyticsStreamingEndpoint->post("", request);
+    if (response is http:Response && response.statusCode >= 200 && response.statusCode < 300) {
+        printDebug(KEY_PUBLISH_TASK, "Analytics event batch of " + batch.length().toString() + " bytes published");
+        return true;
+    }
+    if (response is error) {
+        printError(KEY_PUBLISH_TASK, "Error occurred while publishing analytics events : " + response.reason());
+    } else {
+        printError(KEY_PUBLISH_TASK, "Analytics receiver rejected the events with status code : " +
+            response.statusCode.toString());
+    }
+    printInfo(KEY_PUBLISH_TASK, "Spooling analytics events to the usage data file for " +
+        streamRetryInterval.toString() + " ms.");
+    streamSuspendedUntil = getCurrentTime() + streamRetryInterval;
+    return false;
+}
+
+function streamPublishingTask() {
+    streamBatchSize = getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_BATCH_SIZE, DEFAULT_ANALYTICS_STREAM_BATCH_SIZE);
+    if (streamBatchSize < 1) {
+        streamBatchSize = 1;
+    }
+    streamCompression = getConfigBooleanValue(ANALYTICS, ANALYTICS_STREAM_COMPRESSION, true);
+    streamRetryInterval = getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_RETRY_INTERVAL,
+        DEFAULT_ANALYTICS_STREAM_RETRY_INTERVAL);
+    streamAuthHeader = getBasicAuthHeaderValue(getConfigValue(ANALYTICS, USERNAME, ""),
+        getConfigValue(ANALYTICS, PASSWORD, ""));
+    task:TimerConfiguration timerConfiguration = {
+        intervalInMillis: getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_BATCH_INTERVAL,
+            DEFAULT_ANALYTICS_STREAM_BATCH_INTERVAL),
+        initialDelayInMillis: getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_BATCH_INTERVAL,
+            DEFAULT_ANALYTICS_STREAM_BATCH_INTERVAL)
+    };
+    task:Scheduler timer = new (timerConfiguration);
+    var attachResult = timer.attach(streamPublishing);
+    if (attachResult is error) {
+        printError(KEY_PUBLISH_TASK, attachResult.toString());
+    }
+    var startResult = timer.start();
+    if (startResult is error) {
+        printError(KEY_PUBLISH_TASK, "Starting the publishing task is failed: " + startResult.toString());
+    }
+    printDebug(KEY_PUBLISH_TASK, "Analytics publishing task initialized.");
+}
+
+// Every trigger publishes the events queued since the previous one, in batches of at most streamBatchSize events.
+service streamPublishing = service {
+    resource function onTrigger() {
+        boolean alreadyRunning = false;
+        lock {
+            alreadyRunning = streamPublishInProgress;
+            streamPublishInProgress = true;
+        }
+        if (alreadyRunning) {
+            printDebug(KEY_PUBLISH_TASK, "Previous publishing run is still in progress.");
+            return;
+        }
+        publishEventBatches();
+        lock {
+            streamPublishInProgress = false;
+        }
+    }
+};
@@ -45,33 +45,16 @@ public function generateExecutionTimeEvent(http:FilterContext context) returns E
 
     executionTimeDTO.securityLatency = getSecurityLatency(context);
     executionTimeDTO.eventTime = getCurrentTime();
-    executionTimeDTO.throttlingLatency = <int>context.attributes[THROTTLE_LATENCY];
+    executionTimeDTO.throttlingLatency = getStageLatency(STAGE_THROTTLE);
     executionTimeDTO.requestMediationLatency = 0;
     executionTimeDTO.otherLatency = 0;
     executionTimeDTO.responseMediationLatency = 0;
-    int timeRequestOut = <int>invocationContext.attributes[TS_REQUEST_OUT];
-    int timeResponseIn = <int>invocationContext.attributes[TS_RESPONSE_IN];
-    executionTimeDTO.backEndLatency = timeResponseIn - timeRequestOut;
+    executionTimeDTO.backEndLatency = getStageLatency(STAGE_BACKEND);
     printDebug(KEY_ANALYTICS_FILTER, "Execution time dto : " + executionTimeDTO.toString());
     return executionTimeDTO;
 }
 
 public function getSecurityLatency(http:FilterContext context) returns int {
-    int latency = 0;
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHN)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHN];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHZ)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHZ];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_AUTHZ_RESPONSE)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_AUTHZ_RESPONSE];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_SUBS)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_SUBS];
-    }
-    if (context.attributes.hasKey(SECURITY_LATENCY_VALIDATION)) {
-        latency += <int>context.attributes[SECURITY_LATENCY_VALIDATION];
-    }
-    return latency;
+    return getStageLatency(STAGE_PRE_AUTHN, STAGE_AUTHN_JWT, STAGE_AUTHN_OAUTH2, STAGE_AUTHN_BASIC,
+        STAGE_AUTHN_MUTUAL_SSL, STAGE_AUTHZ, STAGE_SUBSCRIPTION);
 }
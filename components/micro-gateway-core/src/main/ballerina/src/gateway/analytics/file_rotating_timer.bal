@@ -14,7 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/file;
 import ballerina/filepath;
 import ballerina/stringutils;
 import ballerina/task;
@@ -24,18 +23,18 @@ function sendFileRotatingEvent() returns error? {
     string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + filepath:getPathSeparator();
     printDebug(KEY_ROTATE_TASK, "Rotate file location : " + fileLocation);
     string path = fileLocation + API_USAGE_FILE;
-    if (file:exists(path)) {
-        var result = rotateFile(path);
-        if (result is string) {
-            printInfo(KEY_ROTATE_TASK, "File rotated successfully.");
-        } else {
-            printFullError(KEY_ROTATE_TASK, result);
-        }
+    int recovered = compressStagedAnalyticsFiles();
+    if (recovered > 0) {
+        printInfo(KEY_ROTATE_TASK, "Compressed " + recovered.toString() + " rotated files left from earlier rotations.");
+    }
+    // The analytics event writer reports "No files present to rotate." when no event has been written since the
+    // last rotation. The usage data file always exists while the writer is running.
+    var result = rotateFile(path);
+    if (result is string) {
+        printInfo(KEY_ROTATE_TASK, "File rotated successfully.");
         return;
-    } else {
-        error er = error("No files present to rotate.");
-        return er;
     }
+    return <error>result;
 }
 
 function rotatingTask() {
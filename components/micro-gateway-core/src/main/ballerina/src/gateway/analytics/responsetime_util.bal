@@ -57,8 +57,7 @@ public function getRequestReponseExecutionDataPayload(RequestResponseExecutionDT
 }
 
 public function getMetaDataForRequestResponseExecutionData(RequestResponseExecutionDTO dto) returns string {
-    json metaData = {"clientType": dto.metaClientType, "correlationID": dto.correlationId};
-    return metaData.toString();
+    return getAnalyticsMetaData(META_CLIENT_TYPE, dto.metaClientType, dto.correlationId);
 }
 
 function generateEventFromRequestResponseExecutionDTO(RequestResponseExecutionDTO requestResponseExecutionDTO) returns
@@ -76,7 +75,8 @@ EventDTO | error
 public function generateRequestResponseExecutionDataEvent(http:Response response, http:FilterContext context) returns
 @tainted RequestResponseExecutionDTO | error
 {
-    RequestResponseExecutionDTO requestResponseExecutionDTO = {};
+    // Completes the analytics record created in the request path, in place.
+    RequestResponseExecutionDTO requestResponseExecutionDTO = getAnalyticsEventData();
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
     runtime:InvocationContext invocationContext = runtime:getInvocationContext();
     if (isSecured && invocationContext.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
@@ -146,28 +146,13 @@ public function generateRequestResponseExecutionDataEvent(http:Response response
         requestResponseExecutionDTO.apiResourcePath = httpResourceConfig.path;
         requestResponseExecutionDTO.apiResourceTemplate = httpResourceConfig.path;
     }
-    //request method
-    requestResponseExecutionDTO.apiMethod = <string>context.attributes[API_METHOD_PROPERTY];
     int initTime = <int>context.attributes[REQUEST_TIME];
     int timeRequestOut = <int>invocationContext.attributes[TS_REQUEST_OUT];
     int timeResponseIn = <int>invocationContext.attributes[TS_RESPONSE_IN];
     requestResponseExecutionDTO.serviceTime = timeRequestOut - initTime;
     requestResponseExecutionDTO.backendTime = timeResponseIn - timeRequestOut;
     requestResponseExecutionDTO.responseTime = timeResponseIn - initTime;
-    //dummy values for protocol and destination for now
-    requestResponseExecutionDTO.protocol = <string>context.attributes[PROTOCOL_PROPERTY];
     requestResponseExecutionDTO.destination = <string>invocationContext.attributes[DESTINATION];
-
-    //Set data which were set to context in the Request path
-    requestResponseExecutionDTO.applicationOwner = <string>context.attributes[APPLICATION_OWNER_PROPERTY];
-    requestResponseExecutionDTO.apiCreatorTenantDomain = <string>context.attributes[API_CREATOR_TENANT_DOMAIN_PROPERTY];
-    requestResponseExecutionDTO.apiTier = <string>context.attributes[API_TIER_PROPERTY];
-
-    requestResponseExecutionDTO.throttledOut = <boolean>context.attributes[CONTINUE_ON_TROTTLE_PROPERTY];
-
-    requestResponseExecutionDTO.userAgent = <string>context.attributes[USER_AGENT_PROPERTY];
-    requestResponseExecutionDTO.userIp = <string>context.attributes[USER_IP_PROPERTY];
-    requestResponseExecutionDTO.requestTimestamp = <int>context.attributes[REQUEST_TIME_PROPERTY];
     requestResponseExecutionDTO.gatewayType = GATEWAY_TYPE;
     requestResponseExecutionDTO.label = GATEWAY_TYPE;
 
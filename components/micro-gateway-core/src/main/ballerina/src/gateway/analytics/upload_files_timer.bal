@@ -17,16 +17,22 @@
 import ballerina/file;
 import ballerina/filepath;
 import ballerina/http;
+import ballerina/io;
 import ballerina/stringutils;
 import ballerina/task;
 
 string uploadingUrl = "";
 string analyticsUsername = "";
 string analyticsPassword = "";
+int uploadParallelism = DEFAULT_UPLOAD_PARALLELISM;
+int uploadRetryInitialDelay = DEFAULT_UPLOAD_RETRY_INITIAL_DELAY;
+int uploadRetryMaxDelay = DEFAULT_UPLOAD_RETRY_MAX_DELAY;
+boolean uploadInProgress = false;
+// Files which failed to upload, keyed by file name. They are skipped until their back off delay has elapsed.
+map<UploadRetryDTO> uploadRetries = {};
 
 
 function searchFilesToUpload() returns (error?) {
-    int cnt = 0;
     string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR);
 
     if (!file:exists(fileLocation)) {
@@ -39,30 +45,185 @@ function searchFilesToUpload() returns (error?) {
     if (pathList is error) {
         printError(KEY_UPLOAD_TASK, "Error occured in getting path lists");
         return pathList;
-    } else {
-        foreach var pathEntry in pathList {
-            string fileName = pathEntry.getName();
-
-            if (contains(fileName, ZIP_EXTENSION)) {
-                http:Response response = multipartSender(fileLocation, pathEntry.getName(),
-                analyticsUsername, analyticsPassword);
-                if (response.statusCode == 201) {
-                    printInfo(KEY_UPLOAD_TASK, "Successfully uploaded the file: " + fileName);
-                    var result = file:remove(fileLocation + filepath:getPathSeparator() + fileName);
-                } else {
-                    printError(KEY_UPLOAD_TASK, "Error occurred while uploading the file. Upload request returned" +
-                    "with status code : " + response.statusCode.toString());
+    }
+    file:FileInfo[] fileList = <file:FileInfo[]>pathList;
+    // Files uploaded by an earlier run but not deleted yet are only deleted, never sent again.
+    string manifestPath = fileLocation + filepath:getPathSeparator() + UPLOAD_MANIFEST_FILE;
+    string[] uploadedFiles = removeUploadedFiles(fileLocation, readUploadManifest(manifestPath));
+    writeUploadManifest(manifestPath, uploadedFiles);
+
+    int currentTime = getCurrentTime();
+    file:FileInfo[] pendingFiles = [];
+    foreach var pathEntry in fileList {
+        string fileName = pathEntry.getName();
+        if (!contains(fileName, ZIP_EXTENSION) || uploadedFiles.indexOf(fileName) != ()) {
+            continue;
+        }
+        UploadRetryDTO? retry = uploadRetries[fileName];
+        if (retry is UploadRetryDTO && retry.nextAttemptTime > currentTime) {
+            printDebug(KEY_UPLOAD_TASK, "Upload of the file " + fileName + " is backed off until " +
+                retry.nextAttemptTime.toString());
+            continue;
+        }
+        pendingFiles.push(pathEntry);
+    }
+    if (pendingFiles.length() == 0) {
+        error er = error("No files present to upload.");
+        return er;
+    }
+
+    int uploadedCount = 0;
+    int uploadedBytes = 0;
+    int failedCount = 0;
+    int index = 0;
+    while (index < pendingFiles.length()) {
+        future<UploadResultDTO>[] uploads = [];
+        while (index < pendingFiles.length() && uploads.length() < uploadParallelism) {
+            file:FileInfo pathEntry = pendingFiles[index];
+            uploads.push(start uploadUsageFile(fileLocation, pathEntry.getName(), pathEntry.getSize()));
+            index = index + 1;
+        }
+        string[] completedFiles = [];
+        foreach var upload in uploads {
+            UploadResultDTO result = wait upload;
+            if (result.uploaded) {
+                completedFiles.push(result.fileName);
+                uploadedBytes = uploadedBytes + result.size;
+                if (uploadRetries.hasKey(result.fileName)) {
+                    _ = uploadRetries.remove(result.fileName);
                 }
-                cnt = cnt + 1;
+            } else {
+                failedCount = failedCount + 1;
+                scheduleUploadRetry(result.fileName);
             }
         }
-        if (cnt == 0) {
-            error er = error("No files present to upload.");
-            return er;
+        if (completedFiles.length() == 0) {
+            printError(KEY_UPLOAD_TASK, "All uploads in the batch failed. Remaining files will be uploaded in the " +
+                "next run.");
+            break;
+        }
+        uploadedCount = uploadedCount + completedFiles.length();
+        // Record the uploaded files before deleting them, so that they are not sent again if the deletion fails.
+        foreach var fileName in completedFiles {
+            uploadedFiles.push(fileName);
+        }
+        writeUploadManifest(manifestPath, uploadedFiles);
+        uploadedFiles = removeUploadedFiles(fileLocation, uploadedFiles);
+        writeUploadManifest(manifestPath, uploadedFiles);
+    }
+
+    int elapsedTime = getCurrentTime() - currentTime;
+    float throughput = elapsedTime > 0 ? <float>uploadedBytes * 1000.0 / <float>elapsedTime : 0.0;
+    printInfo(KEY_UPLOAD_TASK, "Uploaded " + uploadedCount.toString() + " files (" + uploadedBytes.toString() +
+        " bytes) in " + elapsedTime.toString() + " ms. Failed uploads : " + failedCount.toString());
+    updateAnalyticsUploadGauges(uploadedCount, uploadedBytes, failedCount, throughput);
+    return ();
+}
+
+function uploadUsageFile(string fileLocation, string fileName, int size) returns UploadResultDTO {
+    // Files written in the binary record format are converted first, as the analytics server only reads text records.
+    var convertedSize = convertAnalyticsArchiveToText(fileLocation + filepath:getPathSeparator() + fileName);
+    if (convertedSize is error) {
+        printFullError(KEY_UPLOAD_TASK, convertedSize);
+        return {fileName: fileName, size: size, uploaded: false};
+    }
+    http:Response response = multipartSender(fileLocation, fileName, analyticsUsername, analyticsPassword);
+    boolean uploaded = response.statusCode == 201;
+    if (uploaded) {
+        printInfo(KEY_UPLOAD_TASK, "Successfully uploaded the file: " + fileName);
+    } else {
+        printError(KEY_UPLOAD_TASK, "Error occurred while uploading the file " + fileName + ". Upload request " +
+        "returned with status code : " + response.statusCode.toString());
+    }
+    return {fileName: fileName, size: convertedSize, uploaded: uploaded};
+}
+
+# Backs off the next upload attempt of a file exponentially, starting from `uploadRetryInitialDelayInMillis` and
+# capped at `uploadRetryMaxDelayInMillis`.
+#
+# + fileName - name of the file which failed to upload
+function scheduleUploadRetry(string fileName) {
+    UploadRetryDTO retry = uploadRetries[fileName] ?: {};
+    retry.attempts = retry.attempts + 1;
+    int delay = uploadRetryInitialDelay;
+    int attempt = 1;
+    while (attempt < retry.attempts && delay < uploadRetryMaxDelay) {
+        delay = delay * 2;
+        attempt = attempt + 1;
+    }
+    if (delay > uploadRetryMaxDelay) {
+        delay = uploadRetryMaxDelay;
+    }
+    retry.nextAttemptTime = getCurrentTime() + delay;
+    uploadRetries[fileName] = retry;
+}
+
+# Deletes uploaded files.
+#
+# + fileLocation - usage data directory
+# + fileNames - names of the uploaded files
+# + return - names of the files which could not be deleted
+function removeUploadedFiles(string fileLocation, string[] fileNames) returns string[] {
+    string[] remainingFiles = [];
+    foreach var fileName in fileNames {
+        string filePath = fileLocation + filepath:getPathSeparator() + fileName;
+        if (!file:exists(filePath)) {
+            continue;
+        }
+        var result = file:remove(filePath);
+        if (result is error) {
+            printFullError(KEY_UPLOAD_TASK, result);
+            remainingFiles.push(fileName);
         } else {
-            return ();
+            printDebug(KEY_UPLOAD_TASK, "Uploaded file deleted : " + fileName);
         }
     }
+    return remainingFiles;
+}
+
+function readUploadManifest(string manifestPath) returns @tainted string[] {
+    string[] fileNames = [];
+    if (!file:exists(manifestPath)) {
+        return fileNames;
+    }
+    var byteChannel = io:openReadableFile(manifestPath);
+    if (byteChannel is error) {
+        printFullError(KEY_UPLOAD_TASK, byteChannel);
+        return fileNames;
+    }
+    io:ReadableCharacterChannel charChannel = new (<io:ReadableByteChannel>byteChannel, "UTF-8");
+    var manifest = charChannel.readJson();
+    if (manifest is json[]) {
+        foreach var fileName in manifest {
+            if (fileName is string) {
+                fileNames.push(fileName);
+            }
+        }
+    } else if (manifest is error) {
+        printFullError(KEY_UPLOAD_TASK, manifest);
+    }
+    var closeResult = charChannel.close();
+    if (closeResult is error) {
+        printFullError(KEY_UPLOAD_TASK, closeResult);
+    }
+    return fileNames;
+}
+
+function writeUploadManifest(string manifestPath, string[] fileNames) {
+    if (fileNames.length() == 0 && !file:exists(manifestPath)) {
+        return;
+    }
+    var byteChannel = io:openWritableFile(manifestPath);
+    if (byteChannel is error) {
+        printFullError(KEY_UPLOAD_TASK, byteChannel);
+        return;
+    }
+    io:WritableCharacterChannel charChannel = new (<io:WritableByteChannel>byteChannel, "UTF-8");
+    var result = charChannel.writeJson(fileNames);
+    if (result is error) {
+        printFullError(KEY_UPLOAD_TASK, result);
+    }
+    closeWC(charChannel);
 }
 
 function timerTask() {
@@ -70,6 +231,14 @@ function timerTask() {
     boolean uploadFiles = <boolean>vals[FILE_UPLOAD_TASK];
     analyticsUsername = <string>vals[USERNAME];
     analyticsPassword = <string>vals[PASSWORD];
+    uploadParallelism = getConfigIntValue(ANALYTICS, UPLOAD_PARALLELISM, DEFAULT_UPLOAD_PARALLELISM);
+    if (uploadParallelism < 1) {
+        uploadParallelism = 1;
+    }
+    uploadRetryInitialDelay = getConfigIntValue(ANALYTICS, UPLOAD_RETRY_INITIAL_DELAY,
+        DEFAULT_UPLOAD_RETRY_INITIAL_DELAY);
+    uploadRetryMaxDelay = getConfigIntValue(ANALYTICS, UPLOAD_RETRY_MAX_DELAY, DEFAULT_UPLOAD_RETRY_MAX_DELAY);
+    initAnalyticsUploadGauges();
     if (uploadFiles) {
         printInfo(KEY_UPLOAD_TASK, "Enabled file uploading task.");
         int | error timeSpan = <int>vals[UPLOADING_TIME_SPAN];
@@ -89,6 +258,20 @@ function timerTask() {
             if (startResult is error) {
                 printError(KEY_UPLOAD_TASK, "Starting the uploading task is failed.");
             }
+            task:TimerConfiguration listenerConfiguration = {
+                intervalInMillis: getConfigIntValue(ANALYTICS, ROTATION_NOTIFICATION_INTERVAL,
+                    DEFAULT_ROTATION_NOTIFICATION_INTERVAL),
+                initialDelayInMillis: delay
+            };
+            task:Scheduler listenerTimer = new (listenerConfiguration);
+            var listenerResult = listenerTimer.attach(rotatedFilesListener);
+            if (listenerResult is error) {
+                printError(KEY_UPLOAD_TASK, listenerResult.toString());
+            }
+            var listenerStartResult = listenerTimer.start();
+            if (listenerStartResult is error) {
+                printError(KEY_UPLOAD_TASK, "Starting the rotated files listener is failed.");
+            }
         }
     } else {
         printInfo(KEY_UPLOAD_TASK, "Disabled file uploading task.");
@@ -98,14 +281,40 @@ function timerTask() {
 // Creating a service on the task Listener.
 service searchFiles = service {
     resource function onTrigger() {
-        error? onTriggerFunction = searchFilesToUpload();
-        if (onTriggerFunction is error) {
-            if (stringutils:equalsIgnoreCase("No files present to upload.", onTriggerFunction.reason())) {
-                printDebug(KEY_UPLOAD_TASK, "No files present to upload.");
-            } else {
-                printError(KEY_UPLOAD_TASK, "Error occured while searching files to Upload: " + onTriggerFunction.toString());
-            }
+        _ = runUploadTask();
+    }
+};
+
+// Uploads rotated files as soon as they are ready, instead of waiting for the next tick of the upload task.
+service rotatedFilesListener = service {
+    resource function onTrigger() {
+        if (consumeAnalyticsRotationNotification() && !runUploadTask()) {
+            // The running upload may have listed the files before the rotation, so keep the notification.
+            notifyAnalyticsFileRotated();
         }
     }
 };
 
+function runUploadTask() returns boolean {
+    boolean alreadyRunning = false;
+    lock {
+        alreadyRunning = uploadInProgress;
+        uploadInProgress = true;
+    }
+    if (alreadyRunning) {
+        printDebug(KEY_UPLOAD_TASK, "Previous upload run is still in progress.");
+        return false;
+    }
+    error? onTriggerFunction = searchFilesToUpload();
+    lock {
+        uploadInProgress = false;
+    }
+    if (onTriggerFunction is error) {
+        if (stringutils:equalsIgnoreCase("No files present to upload.", onTriggerFunction.reason())) {
+            printDebug(KEY_UPLOAD_TASK, "No files present to upload.");
+        } else {
+            printError(KEY_UPLOAD_TASK, "Error occured while searching files to Upload: " + onTriggerFunction.toString());
+        }
+    }
+    return true;
+}
@@ -15,12 +15,18 @@
 // under the License.
 
 import ballerina/cache;
+import ballerina/crypto;
+import ballerina/system;
 
 // TODO: Refactor the cache
 cache:Cache gatewayTokenCache = new;
 cache:Cache gatewayKeyValidationCache = new;
 cache:Cache invalidTokenCache = new;
 cache:Cache jwtCache = new;
+cache:Cache introspectCache = new;
+cache:Cache basicAuthCache = new;
+// Per process secret used to derive basic auth cache keys, so that raw credentials are never used as cache keys.
+string basicAuthCacheKeySecret = system:uuid();
 
 public function initGatewayCaches() {
     int cacheExpiryTime = getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000);
@@ -30,6 +36,30 @@ public function initGatewayCaches() {
     gatewayKeyValidationCache = new (cacheExpiryTime, cacheSize, evictionFactor);
     invalidTokenCache = new (cacheExpiryTime, cacheSize, evictionFactor);
     jwtCache = new (cacheExpiryTime, cacheSize, evictionFactor);
+    introspectCache = new (cacheExpiryTime, cacheSize, evictionFactor);
+    initBasicAuthCache();
+}
+
+function initBasicAuthCache() {
+    basicAuthCache = new (getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_EXPIRY, 300000),
+        getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_CAPACITY, 1000),
+        getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25));
+}
+
+# Drops all the memoized basic auth results. This needs to be called whenever the user store configuration is
+# reloaded, so that changed or removed credentials are not served from the cache.
+public function invalidateBasicAuthCache() {
+    basicAuthCacheKeySecret = system:uuid();
+    initBasicAuthCache();
+    printDebug(KEY_GW_CACHE, "Invalidated the basic auth cache.");
+}
+
+# Derives the basic auth cache key as a keyed hash of the raw credential.
+#
+# + credential - base64 encoded basic auth credential
+# + return - Returns the cache key
+public function getBasicAuthCacheKey(string credential) returns string {
+    return crypto:hmacSha256(credential.toBytes(), basicAuthCacheKeySecret.toBytes()).toBase64();
 }
 
 public type APIGatewayCache object {
@@ -37,6 +67,7 @@ public type APIGatewayCache object {
     public function authenticateFromGatewayKeyValidationCache(string tokenCacheKey) returns
     (APIKeyValidationDto | ()) {
         var apikeyValidationDto = gatewayKeyValidationCache.get(tokenCacheKey);
+        recordCacheLookup(KEY_VALIDATION_CACHE_NAME, apikeyValidationDto is APIKeyValidationDto);
         if (apikeyValidationDto is APIKeyValidationDto) {
             return apikeyValidationDto;
         } else {
@@ -58,6 +89,7 @@ public type APIGatewayCache object {
 
     public function retrieveFromInvalidTokenCache(string tokenCacheKey) returns (APIKeyValidationDto | ()) {
         var authorize = invalidTokenCache.get(tokenCacheKey);
+        recordCacheLookup(INVALID_TOKEN_CACHE_NAME, authorize is APIKeyValidationDto);
         if (authorize is APIKeyValidationDto) {
             return authorize;
         } else {
@@ -77,6 +109,7 @@ public type APIGatewayCache object {
 
     public function retrieveFromTokenCache(string accessToken) returns (boolean | ()) {
         var authorize = gatewayTokenCache.get(accessToken);
+        recordCacheLookup(TOKEN_CACHE_NAME, authorize is boolean);
         if (authorize is boolean) {
             return authorize;
         } else {
@@ -93,5 +126,44 @@ public type APIGatewayCache object {
         gatewayTokenCache.remove(accessToken);
         printDebug(KEY_GW_CACHE, "Removed from the token cache. key: " + mask(accessToken));
     }
-};
 
+    public function retrieveFromIntrospectCache(string accessToken) returns (IntrospectionCacheEntry | ()) {
+        var introspectionResult = introspectCache.get(accessToken);
+        recordCacheLookup(INTROSPECT_CACHE_NAME, introspectionResult is IntrospectionCacheEntry);
+        if (introspectionResult is IntrospectionCacheEntry) {
+            return introspectionResult;
+        } else {
+            return ();
+        }
+    }
+
+    public function addToIntrospectCache(string accessToken, IntrospectionCacheEntry introspectionResult) {
+        introspectCache.put(accessToken, <@untainted>introspectionResult);
+        printDebug(KEY_GW_CACHE, "Added introspection result to the introspect cache. key: " + mask(accessToken));
+    }
+
+    public function removeFromIntrospectCache(string accessToken) {
+        introspectCache.remove(accessToken);
+        printDebug(KEY_GW_CACHE, "Removed from the introspect cache. key: " + mask(accessToken));
+    }
+
+    public function retrieveFromBasicAuthCache(string cacheKey) returns (BasicAuthCacheEntry | ()) {
+        var basicAuthResult = basicAuthCache.get(cacheKey);
+        recordCacheLookup(BASIC_AUTH_CACHE_NAME, basicAuthResult is BasicAuthCacheEntry);
+        if (basicAuthResult is BasicAuthCacheEntry) {
+            return basicAuthResult;
+        } else {
+            return ();
+        }
+    }
+
+    public function addToBasicAuthCache(string cacheKey, BasicAuthCacheEntry basicAuthResult) {
+        basicAuthCache.put(cacheKey, <@untainted>basicAuthResult);
+        printDebug(KEY_GW_CACHE, "Added basic auth result to the basic auth cache. key: " + mask(cacheKey));
+    }
+
+    public function removeFromBasicAuthCache(string cacheKey) {
+        basicAuthCache.remove(cacheKey);
+        printDebug(KEY_GW_CACHE, "Removed from the basic auth cache. key: " + mask(cacheKey));
+    }
+};
@@ -41,6 +41,7 @@ public const string TEXT_XML = "text/xml";
 public const string SOAP_ACTION = "SOAPAction";
 public const string VALIDATE_KEY_SOAP_ACTION = "urn:validateKey";
 public const string KEY_VALIDATION_SERVICE_CONTEXT = "/services/APIKeyValidationService";
+public const string KEY_VALIDATION_JSON_CONTEXT = "/keymanager/v1/validate";
 public const string UTF_8 = "UTF-8";
 public const string INVALID_COOKIE = "Cookie is Invalid";
 
@@ -67,6 +68,8 @@ public const string MESSAGE_ID = "MESSAGE_ID";
 public const string IS_THROTTLE_OUT = "IS_THROTTLE_OUT";
 public const string ALLOWED_ON_QUOTA_REACHED = "ALLOWED_ON_QUOTA_REACHED";
 public const string IS_SECURED = "IS_SECURED";
+public const string AUTH_SCHEME_ATTR = "AUTH_SCHEME";
+public const string AUTH_SCHEME_COOKIE = "cookie";
 public const string THROTTLE_OUT_REASON = "THROTTLE_REASON";
 public const string JWT_HEADER_NAME = "X-JWT-Assertion";
 public const string PRODUCTION_KEY_TYPE = "PRODUCTION";
@@ -102,16 +105,10 @@ public const string RESOURCE_NAME_ATTR = "RESOURCE_NAME";
 public const string ACCESS_TOKEN_ATTR = "ACCESS_TOKEN";
 public const string HOST_HEADER_NAME = "Host";
 public const string HOSTNAME_PROPERTY = "hostname";
-public const string PROTOCOL_PROPERTY = "protocol";
-public const string APPLICATION_OWNER_PROPERTY = "applicationOwner";
-public const string API_CREATOR_TENANT_DOMAIN_PROPERTY = "apiCreatorTenantDomain";
-public const string API_TIER_PROPERTY = "apiTier";
-public const string API_METHOD_PROPERTY = "apiMethod";
-public const string CONTINUE_ON_TROTTLE_PROPERTY = "throttledOut";
-public const string USER_AGENT_PROPERTY = "userAgent";
-public const string USER_IP_PROPERTY = "userIp";
-public const string REQUEST_TIME_PROPERTY = "requestTimestamp";
 public const string GATEWAY_TYPE_PROPERTY = "gatewayType";
+public const string ANALYTICS_EVENT_DATA = "ANALYTICS_EVENT_DATA";
+public const string META_CLIENT_TYPE = "clientType";
+public const string META_KEY_TYPE = "keyType";
 public const string GATEWAY_TYPE = "MICRO";
 
 public const string ERROR_RESPONSE = "error_response";
@@ -131,6 +128,14 @@ public const string ACCEPT = "Accept";
 public const string ANALYTICS = "analytics";
 public const string UPLOADING_TIME_SPAN = "uploadingTimeSpanInMillis";
 public const string ROTATING_TIME = "rotatingPeriod";
+public const string ROTATING_SIZE = "rotatingSizeInBytes";
+public const int DEFAULT_ROTATING_SIZE = 104857600;
+public const string ROTATION_NOTIFICATION_INTERVAL = "rotationNotificationIntervalInMillis";
+public const int DEFAULT_ROTATION_NOTIFICATION_INTERVAL = 1000;
+public const string COMPRESSION_LEVEL = "compressionLevel";
+public const string COMPRESSION_THREADS = "compressionThreads";
+public const int DEFAULT_COMPRESSION_LEVEL = -1;
+public const int DEFAULT_COMPRESSION_THREADS = 4;
 public const string UPLOADING_EP = "uploadingEndpoint";
 public const string REQUEST_TIME = "REQUEST_TIME";
 public const string DATACENTER_ID = "datacenterId";
@@ -146,8 +151,51 @@ public const string TS_RESPONSE_IN = "timeStampResponseIn";
 public const string API_USAGE_PATH = "api.usage.data.path";
 public const string API_USAGE_DIR = "api-usage-data";
 public const string FILE_UPLOAD_TASK = "taskUploadFiles";
+public const string UPLOAD_PARALLELISM = "uploadParallelism";
+public const string UPLOAD_RETRY_INITIAL_DELAY = "uploadRetryInitialDelayInMillis";
+public const string UPLOAD_RETRY_MAX_DELAY = "uploadRetryMaxDelayInMillis";
+public const int DEFAULT_UPLOAD_PARALLELISM = 4;
+public const int DEFAULT_UPLOAD_RETRY_INITIAL_DELAY = 30000;
+public const int DEFAULT_UPLOAD_RETRY_MAX_DELAY = 600000;
+public const string UPLOAD_MANIFEST_FILE = "uploaded-files.manifest";
 public const string INITIAL_DELAY = "initialDelayInMillis";
 public const string DESTINATION = "destination";
+public const string ANALYTICS_WRITER_BUFFER_SIZE = "writerBufferSizeInBytes";
+public const string ANALYTICS_WRITER_FLUSH_INTERVAL = "writerFlushIntervalInMillis";
+public const int DEFAULT_ANALYTICS_WRITER_BUFFER_SIZE = 65536;
+public const int DEFAULT_ANALYTICS_WRITER_FLUSH_INTERVAL = 1000;
+public const string ANALYTICS_WRITER_QUEUE_CAPACITY = "writerQueueCapacity";
+public const string ANALYTICS_WRITER_OVERFLOW_POLICY = "writerOverflowPolicy";
+public const string ANALYTICS_WRITER_SAMPLE_RATE = "writerSampleRate";
+public const int DEFAULT_ANALYTICS_WRITER_QUEUE_CAPACITY = 65536;
+public const string DEFAULT_ANALYTICS_WRITER_OVERFLOW_POLICY = "drop";
+public const int DEFAULT_ANALYTICS_WRITER_SAMPLE_RATE = 10;
+public const string ANALYTICS_WRITER_STREAMING_COMPRESSION = "writerStreamingCompression";
+public const string ANALYTICS_WRITER_RECORD_FORMAT = "writerRecordFormat";
+public const string DEFAULT_ANALYTICS_WRITER_RECORD_FORMAT = "text";
+public const string ANALYTICS_PUBLISHER_MODE = "publisherMode";
+public const string ANALYTICS_PUBLISHER_MODE_FILE = "file";
+public const string ANALYTICS_PUBLISHER_MODE_STREAM = "stream";
+public const string ANALYTICS_STREAMING_EP = "streamingEndpoint";
+public const string ANALYTICS_STREAM_BATCH_SIZE = "streamBatchSize";
+public const string ANALYTICS_STREAM_BATCH_INTERVAL = "streamBatchIntervalInMillis";
+public const string ANALYTICS_STREAM_QUEUE_CAPACITY = "streamQueueCapacity";
+public const string ANALYTICS_STREAM_COMPRESSION = "streamCompression";
+public const string ANALYTICS_STREAM_ENABLE_HTTP2 = "streamEnableHttp2";
+public const string ANALYTICS_STREAM_TIMEOUT = "streamTimeoutInMillis";
+public const string ANALYTICS_STREAM_RETRY_INTERVAL = "streamRetryIntervalInMillis";
+public const int DEFAULT_ANALYTICS_STREAM_BATCH_SIZE = 500;
+public const int DEFAULT_ANALYTICS_STREAM_BATCH_INTERVAL = 1000;
+public const int DEFAULT_ANALYTICS_STREAM_QUEUE_CAPACITY = 65536;
+public const int DEFAULT_ANALYTICS_STREAM_TIMEOUT = 10000;
+public const int DEFAULT_ANALYTICS_STREAM_RETRY_INTERVAL = 30000;
+public const string ANALYTICS_AGGREGATION_ENABLED = "aggregationEnabled";
+public const string ANALYTICS_AGGREGATION_FLUSH_INTERVAL = "aggregationFlushIntervalInMillis";
+public const string ANALYTICS_RAW_EVENT_SAMPLE_RATE = "rawEventSampleRate";
+public const int DEFAULT_ANALYTICS_AGGREGATION_FLUSH_INTERVAL = 10000;
+public const string ANALYTICS_EVENT_SAMPLED = "ANALYTICS_EVENT_SAMPLED";
+public const string CONTENT_ENCODING_HEADER = "Content-Encoding";
+public const string GZIP_ENCODING = "gzip";
 
 //validation_filter related constatnts
 public const string PATHS = "paths";
@@ -188,6 +236,17 @@ public const string KM_SERVER_URL = "serverUrl";
 public const string KM_TOKEN_CONTEXT = "tokenContext";
 public const string TIMESTAMP_SKEW = "timestampSkew";
 public const string EXTERNAL = "external";
+public const string KM_KEY_VALIDATION_TRANSPORT = "keyValidationTransport";
+public const string KM_KEY_VALIDATION_JSON_CONTEXT = "keyValidationJsonContext";
+public const string KEY_VALIDATION_TRANSPORT_SOAP = "soap";
+public const string KEY_VALIDATION_TRANSPORT_JSON = "json";
+public const string KM_ENABLE_HTTP2 = "enableHttp2";
+public const string KM_KEEP_ALIVE = "keepAlive";
+public const string KM_TIMEOUT = "timeoutInMillis";
+public const string KM_POOL_MAX_ACTIVE_CONNECTIONS = "maxActiveConnections";
+public const string KM_POOL_MAX_IDLE_CONNECTIONS = "maxIdleConnections";
+public const string KM_POOL_WAIT_TIME = "waitTimeInMillis";
+public const string KM_POOL_MAX_ACTIVE_STREAMS = "maxActiveStreamsPerConnection";
 public const string KM_CONF_SECURITY_BASIC_INSTANCE_ID = "keymanager.security.basic";
 public const string KM_CONF_SECURITY_OAUTH2_INSTANCE_ID = "keymanager.security.oauth2";
 public const string KM_CONF_SECURITY_OAUTH2_CLIENT_CREDENTIAL_INSTANCE_ID = "keymanager.security.oauth2.clientCredential";
@@ -206,6 +265,11 @@ public const string CREDENTIAL_BEARER = "credentialBearer";
 
 public const string HTTP_CLIENTS_INSTANCE_ID = "httpClients";
 public const string ENABLE_HOSTNAME_VERIFICATION = "verifyHostname";
+public const string LOAD_BALANCER_DECAY_TIME = "loadBalancerDecayTimeInMillis";
+public const string LOAD_BALANCER_FAILURE_PENALTY = "loadBalancerFailurePenaltyInMillis";
+public const string LOAD_BALANCER_SELECTION = "LOAD_BALANCER_SELECTION";
+// Start of the message of the error returned by a circuit breaker client while its circuit is open.
+const string OPEN_CIRCUIT_ERROR_MESSAGE = "Upstream service unavailable";
 
 public const string BLOCKING_CONDITION_STATE = "state";
 public const string BLOCKING_CONDITION_KEY = "blockingCondition";
@@ -243,6 +307,11 @@ public const string TOKEN_CACHE_ENABLED = "enabled";
 public const string TOKEN_CACHE_EXPIRY = "tokenCacheExpiryTime";
 public const string TOKEN_CACHE_CAPACITY = "tokenCacheCapacity";
 public const string TOKEN_CACHE_EVICTION_FACTOR = "tokenCacheEvictionFactor";
+public const string INVALID_TOKEN_CACHE_EXPIRY = "invalidTokenCacheExpiryTime";
+public const string BASIC_AUTH_CACHE_ENABLED = "basicAuthCacheEnabled";
+public const string BASIC_AUTH_CACHE_EXPIRY = "basicAuthCacheExpiryTime";
+public const string BASIC_AUTH_INVALID_CACHE_EXPIRY = "basicAuthInvalidCacheExpiryTime";
+public const string BASIC_AUTH_CACHE_CAPACITY = "basicAuthCacheCapacity";
 
 public const string JWT_CONFIG_INSTANCE_ID = "jwtConfig";
 public const string JWT_HEADER = "header";
@@ -322,6 +391,8 @@ const string KEY_UTILS = "Utils";
 const string KEY_OAUTH_PROVIDER = "OAuthAuthProvider";
 const string KEY_UPLOAD_TASK = "UploadTimerTask";
 const string KEY_ROTATE_TASK = "RotateTimerTask";
+const string KEY_PUBLISH_TASK = "PublishTimerTask";
+const string KEY_STATE_METRICS_TASK = "StateMetricsTimerTask";
 const string KEY_ETCD_UTIL = "EtcdUtil";
 const string KEY_TOKEN_REVOCATION_ETCD_UTIL = "TokenRevocationETCDUtil";
 const string KEY_TOKEN_REVOCATION_JMS = "TokenRevocationJMS";
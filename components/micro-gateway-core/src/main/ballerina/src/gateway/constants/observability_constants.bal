@@ -16,10 +16,24 @@
 
 public const string MICRO_GATEWAY_METRICS = "b7a.observability.metrics";
 public const string MICRO_GATEWAY_TRACING = "b7a.observability.tracing";
+public const string TRACING_SAMPLE_RATE = "sample_rate";
+public const string TRACING_MAX_TRACES_PER_SECOND = "max_traces_per_second";
+public const string TRACE_SAMPLED = "TRACE_SAMPLED";
 public const string MICRO_GATEWAY_METRICS_PORTS = "b7a.observability.metrics.prometheus";
 public const string PORT = "port";
 public const string JMX_PORT = "jmx_port";
 public const string SECURE_PORT = "secure_port";
+public const string METRICS_CACHE_INTERVAL = "metrics_cache_interval";
+public const string MICRO_GATEWAY_PROFILING = "b7a.observability.profiling";
+public const string PROFILING_MAX_DURATION = "max_duration";
+public const string PROFILING_TOP_REQUESTS = "top_requests";
+public const string PROFILING_STACK_SAMPLE_INTERVAL = "stack_sample_interval";
+public const string PROFILING_DURATION_PARAM = "duration";
+public const string REQUEST_PROFILE = "REQUEST_PROFILE";
+public const string CONTENT_DISPOSITION_HEADER = "Content-Disposition";
+public const string PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+public const string PROMETHEUS_TIME_WINDOW_LABEL = "timeWindow";
+public const string PROMETHEUS_QUANTILE_LABEL = "quantile";
 
 public const string PRE_AUTHN_FILTER_REQUEST = "Pre_Authen_Filter_Request";
 public const string BASICAUTH_PROVIDER = "BasicAuth_Provider";
@@ -53,6 +67,18 @@ public const string VALIDATION_FILTER_REQUEST = "Validation_Filter_Request";
 public const string VALIDATION_FILTER_RESPONSE = "Validation_Filter_Response";
 // public const string GETTTING_PAYLOAD = "Getting_Payload";
 
+// Ids of the filters and auth handlers in the instrumentation table.
+public const string PRE_AUTHN_FILTER_ID = "preAuthn";
+public const string AUTHZ_FILTER_ID = "authz";
+public const string SUBSCRIPTION_FILTER_ID = "subscription";
+public const string THROTTLE_FILTER_ID = "throttle";
+public const string ANALYTICS_FILTER_ID = "analytics";
+public const string EXTENSION_FILTER_ID = "extension";
+public const string JWT_AUTH_HANDLER_ID = "jwt";
+public const string KEY_VALIDATION_HANDLER_ID = "keyValidation";
+public const string BASIC_AUTH_HANDLER_ID = "basic";
+public const string MUTUAL_SSL_HANDLER_ID = "mutualSSL";
+
 public const string FILTER_AUTHENTICATION = "Authentiation";
 public const string FILTER_ANALYTICS = "Analytics";
 public const string FILTER_THROTTLING = "Throttling";
@@ -60,6 +86,51 @@ public const string PER_REQ_DURATION = "Per_Request_Duration";
 public const string REQ_FLTER_DURATION = "Request_Filter_Duration";
 public const string REQ_DURATION_TOTAL = "Request_Duration_Total";
 public const string FILTER_TOTAL_DURATION = "Filter_Total_Duration";
-public const string ANALYTIC_GAUGE_TAGS = "ANALYTIC_GAUGE_TAGS";
 public const string ANALYTIC_REQUEST_TIME = "ANALYTIC_REQUEST_TIME";
+public const string KM_CLIENT_ACTIVE_REQUESTS = "KeyManager_Client_Active_Requests";
+public const string KM_CLIENT_MAX_ACTIVE_CONNECTIONS = "KeyManager_Client_Max_Active_Connections";
+public const string KM_CLIENT_MAX_IDLE_CONNECTIONS = "KeyManager_Client_Max_Idle_Connections";
+public const string BACKEND_IN_FLIGHT_REQUESTS = "Backend_In_Flight_Requests";
+public const string BACKEND_QUEUED_REQUESTS = "Backend_Queued_Requests";
+public const string KM_REQUEST_DURATION = "KeyManager_Request_Duration";
+
+public const string GATEWAY_CACHE_REQUESTS = "Gateway_Cache_Requests";
+public const string GATEWAY_CACHE_SIZE = "Gateway_Cache_Size";
+public const string THROTTLED_KEYS = "Throttled_Keys";
+public const string BLOCK_CONDITIONS = "Throttle_Block_Conditions";
+public const string REVOKED_TOKENS = "Revoked_Tokens";
+public const string STATE_METRICS_INTERVAL = "state_metrics_interval";
+public const string CACHE_HIT = "hit";
+public const string CACHE_MISS = "miss";
+// Names of the gateway caches in the cache metrics.
+public const string TOKEN_CACHE_NAME = "token";
+public const string KEY_VALIDATION_CACHE_NAME = "keyValidation";
+public const string INVALID_TOKEN_CACHE_NAME = "invalidToken";
+public const string JWT_CACHE_NAME = "jwt";
+public const string INTROSPECT_CACHE_NAME = "introspect";
+public const string BASIC_AUTH_CACHE_NAME = "basicAuth";
+
+public const string ANALYTICS_QUEUE_DEPTH = "Analytics_Queue_Depth";
+public const string ANALYTICS_DROPPED_EVENTS = "Analytics_Dropped_Events";
+public const string ANALYTICS_UPLOADED_FILES = "Analytics_Uploaded_Files";
+public const string ANALYTICS_UPLOADED_BYTES = "Analytics_Uploaded_Bytes";
+public const string ANALYTICS_UPLOAD_FAILURES = "Analytics_Upload_Failures";
+public const string ANALYTICS_UPLOAD_THROUGHPUT = "Analytics_Upload_Throughput";
+public const string ANALYTICS_PUBLISHER_QUEUE_DEPTH = "Analytics_Publisher_Queue_Depth";
+public const string ANALYTICS_SPOOLED_EVENTS = "Analytics_Spooled_Events";
 
+// Stages of a request whose durations are recorded in the STAGE_DURATIONS array of the invocation context.
+public const string STAGE_DURATIONS = "STAGE_DURATIONS";
+public const int STAGE_PRE_AUTHN = 0;
+public const int STAGE_AUTHN_JWT = 1;
+public const int STAGE_AUTHN_OAUTH2 = 2;
+public const int STAGE_AUTHN_BASIC = 3;
+public const int STAGE_AUTHN_MUTUAL_SSL = 4;
+public const int STAGE_AUTHZ = 5;
+public const int STAGE_SUBSCRIPTION = 6;
+public const int STAGE_THROTTLE = 7;
+public const int STAGE_BACKEND = 8;
+public const int STAGE_RESPONSE_FILTERS = 9;
+public const int STAGE_COUNT = 10;
+public const string SERVER_TIMING_INSTANCE_ID = "serverTiming";
+public const string SERVER_TIMING_HEADER = "Server-Timing";
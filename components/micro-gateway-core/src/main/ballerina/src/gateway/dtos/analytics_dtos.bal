@@ -99,3 +99,14 @@ public type EventDTO record {
     string correlationData = "";
     string payloadData = "";
 };
+
+public type UploadResultDTO record {
+    string fileName = "";
+    int size = 0;
+    boolean uploaded = false;
+};
+
+public type UploadRetryDTO record {
+    int attempts = 0;
+    int nextAttemptTime = 0;
+};
@@ -14,6 +14,7 @@
 // specific language governing permissions and limitations
 // under the License.
 
+import ballerina/runtime;
 
 public type APIKeyValidationDto record {
     string apiName?;
@@ -74,6 +75,23 @@ public type AuthenticationContext record {
     string apiPublisher = UNKNOWN_VALUE;
 };
 
+public type IntrospectionCacheEntry record {
+    boolean active = false;
+    string username = USER_NAME_UNKNOWN;
+    string[] scopes = [];
+    int expiryTime = 0;
+};
+
+public type BasicAuthCacheEntry record {
+    boolean authenticated = false;
+    string username = "";
+    string[] scopes = [];
+    // Authentication context set by the inbound basic auth provider, which holds the hashed credentials.
+    runtime:AuthenticationContext? authenticationContext = ();
+    int errorCode = API_AUTH_INVALID_BASICAUTH_CREDENTIALS;
+    int expiryTime = 0;
+};
+
 public type KeyManagerConf record {
     string serverUrl = "";
     Credentials credentials?;
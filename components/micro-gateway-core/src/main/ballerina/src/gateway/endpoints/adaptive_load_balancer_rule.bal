@@ -0,0 +1,90 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+import ballerina/runtime;
+
+type LoadBalancerSelection record {|
+    string balancer;
+    int target;
+    int startTime;
+|};
+
+# Load balancer rule of the endpoint lists with the `adaptive` algorithm. Each request goes to the better of two
+# randomly drawn targets, ranked by their EWMA latency and their requests in flight, so that a target which slows
+# down gets less traffic than the others. The picked target is kept in the invocation context until the generated
+# resource reports the outcome of the request with `endBackendRequest`.
+public type AdaptiveLoadBalancerRule object {
+    *http:LoadBalancerRule;
+
+    private string balancer;
+
+    # Creates the rule of a load balanced endpoint.
+    #
+    # + balancer - Key of the endpoint, unique to its client: the service name, the resource key of resource
+    #              level endpoints and `prod` or `sand`
+    public function __init(string balancer) {
+        self.balancer = balancer;
+        initAdaptiveLoadBalancer(getConfigIntValue(HTTP_CLIENTS_INSTANCE_ID, LOAD_BALANCER_DECAY_TIME, 10000),
+            getConfigIntValue(HTTP_CLIENTS_INSTANCE_ID, LOAD_BALANCER_FAILURE_PENALTY, 5000));
+    }
+
+    # Picks the client of the next request.
+    #
+    # + loadBalanceCallerActionsArray - Clients of the targets of the endpoint
+    # + return - The picked client, or an error if the client of the target is not available
+    public function getNextClient(http:Client?[] loadBalanceCallerActionsArray) returns http:Client|http:ClientError {
+        map<any> attributes = runtime:getInvocationContext().attributes;
+        int now = getCurrentTimeNanos();
+        any previous = attributes[LOAD_BALANCER_SELECTION];
+        if (previous is LoadBalancerSelection && previous.balancer == self.balancer) {
+            // The load balance client fails over to another target when the previous one could not be reached.
+            _ = attributes.remove(LOAD_BALANCER_SELECTION);
+            completeAdaptiveTarget(previous.balancer, previous.target, now - previous.startTime, true);
+        }
+        int target = selectAdaptiveTarget(self.balancer, loadBalanceCallerActionsArray.length());
+        http:Client? httpClient = loadBalanceCallerActionsArray[target];
+        if (httpClient is ()) {
+            completeAdaptiveTarget(self.balancer, target, 0, true);
+            http:GenericClientError err = error(http:GENERIC_CLIENT_ERROR,
+                message = "No client available for the target " + target.toString() + " of " + self.balancer);
+            return err;
+        }
+        LoadBalancerSelection selection = {balancer: self.balancer, target: target, startTime: now};
+        attributes[LOAD_BALANCER_SELECTION] = selection;
+        return <http:Client>httpClient;
+    }
+};
+
+# Records the outcome of the request to the target picked by the adaptive load balancer rule of an endpoint, if the
+# rule picked one during the current request.
+#
+# + balancer - Key of the endpoint, unique to its client: the service name, the resource key of resource level
+#              endpoints and `prod` or `sand`
+# + clientResponse - Response of the endpoint. An error and a 5xx response both count as a failure of the target
+function completeLoadBalancerSelection(string balancer, http:Response|error clientResponse) {
+    map<any> attributes = runtime:getInvocationContext().attributes;
+    any selection = attributes[LOAD_BALANCER_SELECTION];
+    if (selection is LoadBalancerSelection && selection.balancer == balancer) {
+        _ = attributes.remove(LOAD_BALANCER_SELECTION);
+        // A target which answers fast with server errors must not draw more traffic than a healthy one.
+        boolean failed = true;
+        if (clientResponse is http:Response) {
+            failed = clientResponse.statusCode >= 500;
+        }
+        completeAdaptiveTarget(balancer, selection.target, getCurrentTimeNanos() - selection.startTime, failed);
+    }
+}
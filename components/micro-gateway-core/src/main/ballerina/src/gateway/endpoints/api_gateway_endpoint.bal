@@ -49,3 +49,7 @@ getConfigValue(ANALYTICS, UPLOADING_EP, "https://localhost:9444/analytics/v1.0/u
 public function getTokenEndpoint() returns http:Client {
     return tokenEndpoint;
 }
+
+http:Client analyticsStreamingEndpoint = new (
+getConfigValue(ANALYTICS, ANALYTICS_STREAMING_EP, "https://localhost:9444/analytics/v1.0/usage/events"),
+getAnalyticsStreamingClientConfig());
@@ -27,14 +27,14 @@ public type AnalyticsRequestFilter object {
         //Filter only if analytics is enabled.
         if (isAnalyticsEnabled) {
             checkOrSetMessageID(context);
-            context.attributes[PROTOCOL_PROPERTY] = caller.protocol;
-            doFilterRequest(request, context);
+            doFilterRequest(request, context, caller.protocol);
         }
         return true;
     }
 
     public function filterResponse(http:Response response, http:FilterContext context) returns boolean {
         if (isAnalyticsEnabled) {
+            int startingTime = getCurrentTimeNanos();
             boolean filterFailed = <boolean>context.attributes[FILTER_FAILED];
             if (context.attributes.hasKey(IS_THROTTLE_OUT)) {
                 boolean isThrottleOut = <boolean>context.attributes[IS_THROTTLE_OUT];
@@ -59,10 +59,10 @@ public type AnalyticsRequestFilter object {
                 }
             } else {
                 if (!filterFailed) {
-                    context.attributes[THROTTLE_LATENCY] = 0;
                     doFilterAll(response, context);
                 }
             }
+            setStageDuration(STAGE_RESPONSE_FILTERS, startingTime);
         }
         return true;
     }
@@ -70,8 +70,10 @@ public type AnalyticsRequestFilter object {
 };
 
 
-function doFilterRequest(http:Request request, http:FilterContext context) {
-    error? result = trap setRequestAttributesToContext(request, context);
+function doFilterRequest(http:Request request, http:FilterContext context, string protocol) {
+    // Head based sampling: whether the raw request event is published is decided when the request comes in.
+    context.attributes[ANALYTICS_EVENT_SAMPLED] = isAnalyticsEventSampled();
+    error? result = trap setRequestAttributesToContext(request, context, protocol);
     if (result is error) {
         printError(KEY_ANALYTICS_FILTER, "Error while setting analytics data in request path");
         printFullError(KEY_ANALYTICS_FILTER, result);
@@ -99,6 +101,15 @@ function doFilterResponseData(http:Response response, http:FilterContext context
     RequestResponseExecutionDTO | error requestResponseExecutionDTO = trap generateRequestResponseExecutionDataEvent(response,
     context);
     if (requestResponseExecutionDTO is RequestResponseExecutionDTO) {
+        if (isAnalyticsAggregationEnabled) {
+            recordAnalyticsAggregate(requestResponseExecutionDTO);
+        }
+        boolean sampled = !context.attributes.hasKey(ANALYTICS_EVENT_SAMPLED) ||
+            <boolean>context.attributes[ANALYTICS_EVENT_SAMPLED];
+        if (!sampled) {
+            printDebug(KEY_ANALYTICS_FILTER, "Raw request event is not sampled");
+            return;
+        }
         EventDTO | error event = trap generateEventFromRequestResponseExecutionDTO(requestResponseExecutionDTO);
         if (event is EventDTO) {
             eventStream.publish(event);
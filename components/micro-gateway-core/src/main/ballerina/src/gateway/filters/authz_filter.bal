@@ -37,7 +37,7 @@ public type OAuthzFilter object {
         string checkAuthentication = getConfigValue(MTSL_CONF_INSTANCE_ID, MTSL_CONF_SSLVERIFYCLIENT, "");
         if (checkAuthentication != "require") {
             //Setting UUID
-            int startingTime = getCurrentTime();
+            int startingTime = getCurrentTimeNanos();
             checkOrSetMessageID(context);
             printDebug(KEY_AUTHZ_FILTER, "Processing request via Authorization filter.");
             runtime:AuthenticationContext? authContext = runtime:getInvocationContext()?.authenticationContext;
@@ -55,7 +55,7 @@ public type OAuthzFilter object {
                 }
             }
             printDebug(KEY_AUTHZ_FILTER, "Returned with value: " + result.toString());
-            setLatency(startingTime, context, SECURITY_LATENCY_AUTHZ);
+            setStageDuration(STAGE_AUTHZ, startingTime);
             return result;
         } else {
             // Skip this filter is mutualSSL is enabled.
@@ -68,9 +68,9 @@ public type OAuthzFilter object {
             printDebug(KEY_AUTHZ_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
-        int startingTime = getCurrentTime();
+        int startingTime = getCurrentTimeNanos();
         boolean result = doAuthzFilterResponse(response, context);
-        setLatency(startingTime, context, SECURITY_LATENCY_AUTHZ_RESPONSE);
+        setStageDuration(STAGE_RESPONSE_FILTERS, startingTime);
         return result;
     }
 
@@ -0,0 +1,136 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file   except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+
+# Runs a sequence of the filters of a listener as a single filter when metrics or tracing is enabled. Each filter is traced and
+# timed once, as listed for it in the instrumentation table, and filters without an entry are run as they are.
+public type ObservableFilterChain object {
+    private http:RequestFilter[] filters;
+    private Instrumentation?[] instrumentations = [];
+
+    public function __init(http:RequestFilter[] filters, string[] filterIds) {
+        self.filters = filters;
+        foreach int i in 0 ..< filters.length() {
+            self.instrumentations[i] = i < filterIds.length() ? getInstrumentation(filterIds[i]) : ();
+        }
+    }
+
+    public function filterRequest(http:Caller caller, http:Request request,@tainted http:FilterContext context)
+    returns boolean {
+        foreach int i in 0 ..< self.filters.length() {
+            http:RequestFilter filter = self.filters[i];
+            Instrumentation? instrumentation = self.instrumentations[i];
+            boolean result;
+            if (instrumentation is Instrumentation) {
+                int | error | () spanId = startSpan(instrumentation.requestSpan);
+                int startingTime = getCurrentTimeNanos();
+                result = filter.filterRequest(caller, request, context);
+                float | () latency = setGaugeDuration(startingTime);
+                string? category = instrumentation.latencyCategory;
+                if (instrumentation.includesResponse) {
+                    setLatencyInvocationContext(ANALYTIC_REQUEST_TIME, latency);
+                } else if (category is string) {
+                    recordFilterLatency(category, context.getServiceName(), context.getResourceName(), latency);
+                }
+                finishSpan(instrumentation.requestSpan, spanId);
+            } else {
+                result = filter.filterRequest(caller, request, context);
+            }
+            if (!result) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public function filterResponse(http:Response response, http:FilterContext context) returns boolean {
+        // The listener runs the response filters in the reverse order of the request filters, hence so does the chain.
+        // Filters which only handle requests let the response through.
+        int i = self.filters.length() - 1;
+        while (i >= 0) {
+            http:RequestFilter filter = self.filters[i];
+            Instrumentation? instrumentation = self.instrumentations[i];
+            i -= 1;
+            if (filter is http:ResponseFilter) {
+                boolean result;
+                if (instrumentation is Instrumentation) {
+                    string? responseSpan = instrumentation.responseSpan;
+                    int | error | () spanId = ();
+                    if (responseSpan is string) {
+                        spanId = startSpan(responseSpan);
+                    }
+                    int startingTime = getCurrentTimeNanos();
+                    result = filter.filterResponse(response, context);
+                    string? category = instrumentation.latencyCategory;
+                    if (instrumentation.includesResponse && category is string) {
+                        float | () latency = calculateLatency(getLatencyInvocationContext(ANALYTIC_REQUEST_TIME),
+                            setGaugeDuration(startingTime));
+                        recordFilterLatency(category, context.getServiceName(), context.getResourceName(), latency);
+                    }
+                    if (responseSpan is string) {
+                        finishSpan(responseSpan, spanId);
+                    }
+                } else {
+                    result = filter.filterResponse(response, context);
+                }
+                if (!result) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+};
+
+# Returns the filters to engage in a listener. When metrics or tracing is enabled, the filters are run by
+# `ObservableFilterChain`s which instrument them. The listener inserts its authentication and authorization filters at
+# the configured auth position, hence the filters before and after that position are run by separate chains.
+#
+# + filters - the filters in the order they are run
+# + filterIds - the *_FILTER_ID of each filter, used to look up its instrumentation
+# + authPosition - the `position` of the auth filters in the listener configuration
+# + return - the filters to engage in the listener
+public function getObservableFilters(http:RequestFilter[] filters, string[] filterIds, int authPosition)
+        returns http:RequestFilter[] {
+    if (!isMetricsEnabled && !isTracingEnabled) {
+        return filters;
+    }
+    http:RequestFilter[] beforeAuth = [];
+    string[] beforeAuthIds = [];
+    http:RequestFilter[] afterAuth = [];
+    string[] afterAuthIds = [];
+    foreach int i in 0 ..< filters.length() {
+        string filterId = i < filterIds.length() ? filterIds[i] : "";
+        if (i < authPosition) {
+            beforeAuth[beforeAuth.length()] = filters[i];
+            beforeAuthIds[beforeAuthIds.length()] = filterId;
+        } else {
+            afterAuth[afterAuth.length()] = filters[i];
+            afterAuthIds[afterAuthIds.length()] = filterId;
+        }
+    }
+    http:RequestFilter[] filterChains = [];
+    if (beforeAuth.length() > 0) {
+        ObservableFilterChain filterChain = new (beforeAuth, beforeAuthIds);
+        filterChains[filterChains.length()] = filterChain;
+    }
+    if (afterAuth.length() > 0) {
+        ObservableFilterChain filterChain = new (afterAuth, afterAuthIds);
+        filterChains[filterChains.length()] = filterChain;
+    }
+    return filterChains;
+}
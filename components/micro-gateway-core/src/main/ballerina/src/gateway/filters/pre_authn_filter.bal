@@ -28,13 +28,15 @@ public type PreAuthnFilter object {
             printDebug(KEY_PRE_AUTHN_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
+        int stageStartingTime = getCurrentTimeNanos();
+        startRequestProfiling();
         //Setting UUID
         int startingTime = getCurrentTime();
         context.attributes[REQUEST_TIME] = startingTime;
         checkOrSetMessageID(context);
         setHostHeaderToFilterContext(request, context);
-        setLatency(startingTime, context, SECURITY_LATENCY_AUTHN);
         boolean result = doAuthnFilterRequest(caller, request, <@untainted>context);
+        setStageDuration(STAGE_PRE_AUTHN, stageStartingTime);
         return result;
     }
 
@@ -53,6 +55,8 @@ public type PreAuthnFilter object {
             }
             sendErrorResponseFromInvocationContext(response);
         }
+        setServerTimingHeader(response);
+        endRequestProfiling(context);
         return true;
     }
 };
@@ -87,8 +91,11 @@ returns boolean {
     string[] authProvidersIds = getAuthProviders(context.getServiceName(), context.getResourceName());
     printDebug(KEY_PRE_AUTHN_FILTER, "Auth providers array  : " + authProvidersIds.toString());
 
+    // The auth scheme is classified once here and reused by the auth handlers via the invocation context.
+    string authScheme = "";
     if (request.hasHeader(authHeaderName)) {
         authHeader = request.getHeader(authHeaderName);
+        authScheme = classifyAuthHeader(authHeader);
     } else if (request.hasHeader(COOKIE_HEADER)) {
         //Authentiction with HTTP cookies
         isCookie = config:contains(COOKIE_HEADER);
@@ -96,22 +103,25 @@ returns boolean {
             authCookie = getAuthCookieIfPresent(request);
             if (authCookie is string) {
                 authHeader = authCookie;
+                invocationContext.attributes[COOKIE_HEADER] = authCookie;
             }
+            authScheme = AUTH_SCHEME_COOKIE;
         }
     }
+    invocationContext.attributes[AUTH_SCHEME_ATTR] = authScheme;
     string providerId;
-    if (!isCookie) {
-        providerId = getAuthenticationProviderType(authHeader);
+    if (isCookie) {
+        providerId = classifyToken(authHeader);
+    } else if (authScheme == AUTHN_SCHEME_BASIC) {
+        providerId = AUTHN_SCHEME_BASIC;
+    } else if (hasPrefix(authHeader, AUTH_SCHEME_BEARER)) {
+        // Any dot selects the JWT provider, as the auth handlers only tell JWTs and opaque tokens apart later.
+        providerId = classifyToken(authHeader);
     } else {
-        providerId = getAuthenticationProviderTypeWithCookie(authHeader);
+        providerId = AUTH_SCHEME_OAUTH2;
     }
     printDebug(KEY_PRE_AUTHN_FILTER, "Provider Id for authentication handler : " + providerId);
-    boolean canHandleAuthentication = false;
-    foreach string provider in authProvidersIds {
-        if (provider == providerId) {
-            canHandleAuthentication = true;
-        }
-    }
+    boolean canHandleAuthentication = authProvidersIds.indexOf(providerId) != ();
 
     if (isSecuredResource) {
         if (!request.hasHeader(authHeaderName) || request.getHeader(authHeaderName).length() == 0) {
@@ -136,25 +146,6 @@ returns boolean {
     return true;
 }
 
-function getAuthenticationProviderType(string authHeader) returns (string) {
-    if (contains(authHeader, AUTH_SCHEME_BASIC)) {
-        return AUTHN_SCHEME_BASIC;
-    } else if (contains(authHeader, AUTH_SCHEME_BEARER) && contains(authHeader, ".")) {
-        return AUTH_SCHEME_JWT;
-    } else {
-        return AUTH_SCHEME_OAUTH2;
-    }
-}
-
-
-function getAuthenticationProviderTypeWithCookie(string authHeader) returns (string) {
-    if (contains(authHeader, ".")) {
-        return AUTH_SCHEME_JWT;
-    } else {
-        return AUTH_SCHEME_OAUTH2;
-    }
-}
-
 function checkAndRemoveAuthHeaders(http:Request request, string authHeaderName) {
     if (getConfigBooleanValue(AUTH_CONF_INSTANCE_ID, REMOVE_AUTH_HEADER_FROM_OUT_MESSAGE, true)) {
         request.removeHeader(authHeaderName);
@@ -32,10 +32,10 @@ public type SubscriptionFilter object {
             printDebug(KEY_SUBSCRIPTION_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
-        int startingTime = getCurrentTime();
+        int startingTime = getCurrentTimeNanos();
         checkOrSetMessageID(filterContext);
         boolean result = doSubscriptionFilterRequest(caller, request, filterContext, self.subsciptionEnabled);
-        setLatency(startingTime, filterContext, SECURITY_LATENCY_SUBS);
+        setStageDuration(STAGE_SUBSCRIPTION, startingTime);
         return result;
     }
 
@@ -69,6 +69,7 @@ function doSubscriptionFilterRequest(http:Caller caller, http:Request request,
         json | error decodedPayload = {};
         if (jwtToken is string) {
             var cachedJwt = trap <jwt:CachedJwt>jwtCache.get(jwtToken);
+            recordCacheLookup(JWT_CACHE_NAME, cachedJwt is jwt:CachedJwt);
             if (cachedJwt is jwt:CachedJwt) {
                 printDebug(KEY_SUBSCRIPTION_FILTER, "jwt found from the jwt cache");
                 jwt:JwtPayload jwtPayload = cachedJwt.jwtPayload;
@@ -29,10 +29,10 @@ public type ThrottleFilter object {
             printDebug(KEY_THROTTLE_FILTER, "Skip all filter annotation set in the service. Skip the filter");
             return true;
         }
-        int startingTime = getCurrentTime();
+        int startingTime = getCurrentTimeNanos();
         checkOrSetMessageID(context);
         boolean result = doThrottleFilterRequest(caller, request, context, self.deployedPolicies);
-        setLatency(startingTime, context, THROTTLE_LATENCY);
+        setStageDuration(STAGE_THROTTLE, startingTime);
         return result;
     }
 
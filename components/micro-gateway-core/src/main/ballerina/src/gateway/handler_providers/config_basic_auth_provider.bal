@@ -23,12 +23,16 @@ import ballerina/runtime;
 # Represents an inbound basic Auth provider, which is a configuration-file-based Auth store provider.
 # + basicAuthConfig - The Basic Auth provider configurations.
 # + inboundBasicAuthProvider - The InboundBasicAUthProvider.
+# + gatewayCache - the `APIGatewayCache instence`
+# + cacheEnabled - whether the results of the credential verification are memoized
 public type BasicAuthProvider object {
 
     *auth:InboundAuthProvider;
 
     public auth:BasicAuthConfig basicAuthConfig;
     public auth:InboundBasicAuthProvider inboundBasicAuthProvider;
+    public APIGatewayCache gatewayCache = new;
+    public boolean cacheEnabled = getConfigBooleanValue(CACHING_ID, BASIC_AUTH_CACHE_ENABLED, true);
 
     # Provides authentication based on the provided configuration.
     #
@@ -47,12 +51,35 @@ public type BasicAuthProvider object {
     # + credential - Credential
     # + return - `true` if authentication is successful, otherwise `false` or `Error` occurred while extracting credentials
     public function authenticate(string credential) returns (boolean | auth:Error) {
-        boolean isAuthenticated;
-        //API authentication info
-        AuthenticationContext authenticationContext = {};
+        int startingTime = getCurrentTimeNanos();
+        boolean | auth:Error result = self.doAuthenticate(credential);
+        setStageDuration(STAGE_AUTHN_BASIC, startingTime);
+        return result;
+    }
+
+    function doAuthenticate(string credential) returns (boolean | auth:Error) {
         printDebug(KEY_AUTHN_FILTER, "Processing request with the Basic authentication provider");
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-        string[] providerIds = [AUTHN_SCHEME_BASIC];
+        string cacheKey = "";
+        if (self.cacheEnabled) {
+            cacheKey = getBasicAuthCacheKey(credential);
+            BasicAuthCacheEntry? cachedResult = self.gatewayCache.retrieveFromBasicAuthCache(cacheKey);
+            if (cachedResult is BasicAuthCacheEntry) {
+                if (cachedResult.expiryTime > getCurrentTime()) {
+                    printDebug(KEY_AUTHN_FILTER, "Basic auth result found in the basic auth cache.");
+                    if (!cachedResult.authenticated) {
+                        setErrorMessageToInvocationContext(cachedResult.errorCode);
+                        return false;
+                    }
+                    invocationContext.principal.userId = cachedResult.username;
+                    invocationContext.principal.username = cachedResult.username;
+                    invocationContext.principal.scopes = cachedResult.scopes;
+                    invocationContext.authenticationContext = cachedResult.authenticationContext.clone();
+                    return setBasicAuthenticationContext(invocationContext, cachedResult.username);
+                }
+                self.gatewayCache.removeFromBasicAuthCache(cacheKey);
+            }
+        }
         //set Username from the request
         string encodedCredentials = credential;
         byte[] | error decodedCredentials = arrays:fromBase64(encodedCredentials);
@@ -64,6 +91,7 @@ public type BasicAuthProvider object {
             string | error decodedCredentialsString = strings:fromBytes(decodedCredentials);
             if (decodedCredentialsString is string) {
                 if (decodedCredentialsString.indexOf(":", 0) == ()) {
+                    self.cacheFailure(cacheKey, API_AUTH_BASICAUTH_INVALID_FORMAT);
                     setErrorMessageToInvocationContext(API_AUTH_BASICAUTH_INVALID_FORMAT);
                     return false;
                 }
@@ -71,6 +99,7 @@ public type BasicAuthProvider object {
                 userName = decodedCred[0];
                 printDebug(KEY_AUTHN_FILTER, "Decoded user name from the header : " + userName);
                 if (decodedCred.length() < 2) {
+                    self.cacheFailure(cacheKey, API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                     setErrorMessageToInvocationContext(API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                     return false;
                 }
@@ -105,37 +134,63 @@ public type BasicAuthProvider object {
         if (isAuthorized is boolean) {
             printDebug(KEY_AUTHN_FILTER, "Basic auth provider returned with value : " + isAuthorized.toString());
             if (!isAuthorized) {
+                self.cacheFailure(cacheKey, API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                 //TODO: Handle the error message properly
                 setErrorMessageToInvocationContext(API_AUTH_INVALID_BASICAUTH_CREDENTIALS);
                 //sendErrorResponse(caller, request, <@untainted> context);
                 return false;
             }
-            int startingTimeReq = getCurrentTime();
-            invocationContext.attributes[REQUEST_TIME] = startingTimeReq;
-            invocationContext.attributes[FILTER_FAILED] = false;
-            //Set authenticationContext data
-            authenticationContext.authenticated = true;
-            //Authentication context data is set to default value bacuase in basic authentication we cannot have informtaion on subscription and applications
-            authenticationContext.tier = DEFAULT_SUBSCRIPTION_TIER;
-            authenticationContext.applicationTier = UNLIMITED_TIER;
-            authenticationContext.apiKey = ANONYMOUS_APP_ID;
-            //Username is extracted from the request
-            authenticationContext.username = userName;
-            authenticationContext.applicationId = ANONYMOUS_APP_ID;
-            authenticationContext.applicationName = ANONYMOUS_APP_NAME;
-            authenticationContext.subscriber = ANONYMOUS_APP_OWNER;
-            authenticationContext.consumerKey = ANONYMOUS_CONSUMER_KEY;
-            authenticationContext.apiTier = UNLIMITED_TIER;
-            authenticationContext.apiPublisher = USER_NAME_UNKNOWN;
-            authenticationContext.subscriberTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
-            authenticationContext.keyType = PRODUCTION_KEY_TYPE;
-            invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
-            invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
-            isAuthenticated = true;
-            return isAuthenticated;
+            if (self.cacheEnabled) {
+                BasicAuthCacheEntry basicAuthResult = {
+                    authenticated: true,
+                    username: userName,
+                    scopes: invocationContext.principal.scopes,
+                    authenticationContext: invocationContext?.authenticationContext,
+                    expiryTime: getCurrentTime() + getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_EXPIRY, 300000)
+                };
+                self.gatewayCache.addToBasicAuthCache(cacheKey, basicAuthResult);
+            }
+            return setBasicAuthenticationContext(invocationContext, userName);
         } else {
             return prepareError("Failed to authenticate with basic auth hanndler.", isAuthorized);
         }
     }
 
+    function cacheFailure(string cacheKey, int errorCode) {
+        if (self.cacheEnabled) {
+            BasicAuthCacheEntry basicAuthResult = {
+                authenticated: false,
+                errorCode: errorCode,
+                expiryTime: getCurrentTime() + getConfigIntValue(CACHING_ID, BASIC_AUTH_INVALID_CACHE_EXPIRY, 30000)
+            };
+            self.gatewayCache.addToBasicAuthCache(cacheKey, basicAuthResult);
+        }
+    }
 };
+
+function setBasicAuthenticationContext(runtime:InvocationContext invocationContext, string userName) returns boolean {
+    //API authentication info
+    AuthenticationContext authenticationContext = {};
+    int startingTimeReq = getCurrentTime();
+    invocationContext.attributes[REQUEST_TIME] = startingTimeReq;
+    invocationContext.attributes[FILTER_FAILED] = false;
+    //Set authenticationContext data
+    authenticationContext.authenticated = true;
+    //Authentication context data is set to default value bacuase in basic authentication we cannot have informtaion on subscription and applications
+    authenticationContext.tier = DEFAULT_SUBSCRIPTION_TIER;
+    authenticationContext.applicationTier = UNLIMITED_TIER;
+    authenticationContext.apiKey = ANONYMOUS_APP_ID;
+    //Username is extracted from the request
+    authenticationContext.username = userName;
+    authenticationContext.applicationId = ANONYMOUS_APP_ID;
+    authenticationContext.applicationName = ANONYMOUS_APP_NAME;
+    authenticationContext.subscriber = ANONYMOUS_APP_OWNER;
+    authenticationContext.consumerKey = ANONYMOUS_CONSUMER_KEY;
+    authenticationContext.apiTier = UNLIMITED_TIER;
+    authenticationContext.apiPublisher = USER_NAME_UNKNOWN;
+    authenticationContext.subscriberTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
+    authenticationContext.keyType = PRODUCTION_KEY_TYPE;
+    invocationContext.attributes[KEY_TYPE_ATTR] = authenticationContext.keyType;
+    invocationContext.attributes[AUTHENTICATION_CONTEXT] = authenticationContext;
+    return true;
+}
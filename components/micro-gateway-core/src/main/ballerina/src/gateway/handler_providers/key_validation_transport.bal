@@ -0,0 +1,246 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+import ballerina/http;
+import ballerina/log;
+import ballerina/stringutils;
+import ballerina/time;
+
+xmlns "http://schemas.xmlsoap.org/soap/envelope/" as soapenv;
+xmlns "http://org.apache.axis2/xsd" as xsd;
+xmlns "http://dto.impl.apimgt.carbon.wso2.org/xsd" as apim;
+
+# Represents the wire format used to call the key validation service of the key manager.
+public type KeyValidationTransport abstract object {
+
+    # Validates the access token in the given request metadata against the key manager.
+    #
+    # + apiRequestMetaDataDto - request metadata which needs to be validated
+    # + return - Returns the `APIKeyValidationDto` received from the key manager or an `error` if the call failed
+    public function validate(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted (APIKeyValidationDto | error);
+};
+
+# Key validation transport which calls the SOAP based `APIKeyValidationService` of the WSO2 Key manager.
+#
+# + keyValidationClient - key validation client endpoint
+public type SoapKeyValidationTransport object {
+
+    *KeyValidationTransport;
+
+    public http:Client keyValidationClient;
+
+    public function __init(http:Client keyValidationClient) {
+        self.keyValidationClient = keyValidationClient;
+    }
+
+    public function validate(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted (APIKeyValidationDto | error) {
+        xml | error keyValidationResponseXML = self.doKeyValidation(apiRequestMetaDataDto);
+        if (keyValidationResponseXML is error) {
+            return keyValidationResponseXML;
+        }
+        xml responseXml = <xml>keyValidationResponseXML;
+        printTrace(KEY_OAUTH_PROVIDER, "key Validation json " + responseXml.getTextValue());
+        xml keyValidationInfoXML = responseXml[soapenv:Body][xsd:validateKeyResponse][xsd:'return];
+        boolean authorized = stringutils:toBoolean(keyValidationInfoXML[apim:authorized].getTextValue());
+        if (authorized) {
+            return convertXmlToKeyValidationObject(keyValidationInfoXML);
+        }
+        APIKeyValidationDto apiKeyValidationDto = {};
+        apiKeyValidationDto.authorized = false;
+        apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
+        return apiKeyValidationDto;
+    }
+
+    function doKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted (xml | error) {
+        http:Request keyValidationRequest = new;
+        xml soapEnvelope = xml `<soapenv:Envelope>
+                                    <soapenv:Body>
+                                        <xsd:validateKey>
+                                            <xsd:context>${apiRequestMetaDataDto.context}</xsd:context>
+                                            <xsd:version>${apiRequestMetaDataDto.apiVersion}</xsd:version>
+                                            <xsd:accessToken>${apiRequestMetaDataDto.accessToken}</xsd:accessToken>
+                                            <xsd:requiredAuthenticationLevel>${apiRequestMetaDataDto.requiredAuthenticationLevel}</xsd:requiredAuthenticationLevel>
+                                            <xsd:clientDomain>${apiRequestMetaDataDto.clientDomain}</xsd:clientDomain>
+                                            <xsd:matchingResource>${apiRequestMetaDataDto.matchingResource}</xsd:matchingResource>
+                                            <xsd:httpVerb>${apiRequestMetaDataDto.httpVerb}</xsd:httpVerb>
+                                        </xsd:validateKey>
+                                    </soapenv:Body>
+                                </soapenv:Envelope>`;
+        keyValidationRequest.setXmlPayload(soapEnvelope, contentType = TEXT_XML);
+        keyValidationRequest.setHeader(SOAP_ACTION, VALIDATE_KEY_SOAP_ACTION);
+        int startTimeMills = time:currentTime().time;
+        int keyManagerRequestTime = startKeyManagerRequest();
+        var result = self.keyValidationClient->post(KEY_VALIDATION_SERVICE_CONTEXT, keyValidationRequest);
+        endKeyManagerRequest(keyManagerRequestTime);
+        int timeDiff = time:currentTime().time - startTimeMills;
+        printDebug(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : " + timeDiff.toString() + "ms");
+        if (result is error) {
+            string message = "Error occurred while reading the key validation response";
+            log:printError(message, err = result);
+            return result;
+        }
+        http:Response keyValidationResponse = <http:Response>result;
+        var responseXml = keyValidationResponse.getXmlPayload();
+        if (responseXml is xml) {
+            printTrace(KEY_OAUTH_PROVIDER, "Key validation response:" + responseXml.getTextValue());
+        } else {
+            string message = "Error occurred while getting the key validation service XML response payload";
+            log:printError(message, err = responseXml);
+        }
+        return responseXml;
+    }
+};
+
+# Key validation transport which calls a JSON/REST key validation endpoint. The request carries the same fields as
+# the SOAP `validateKey` operation and the response is a flat JSON object with the `APIKeyValidationDto` fields.
+#
+# + keyValidationClient - key validation client endpoint
+# + validationContext - resource path of the JSON key validation endpoint
+public type JsonKeyValidationTransport object {
+
+    *KeyValidationTransport;
+
+    public http:Client keyValidationClient;
+    public string validationContext;
+
+    public function __init(http:Client keyValidationClient, string validationContext) {
+        self.keyValidationClient = keyValidationClient;
+        self.validationContext = validationContext;
+    }
+
+    public function validate(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted (APIKeyValidationDto | error) {
+        http:Request keyValidationRequest = new;
+        json payload = {
+            context: apiRequestMetaDataDto.context,
+            'version: apiRequestMetaDataDto.apiVersion,
+            accessToken: apiRequestMetaDataDto.accessToken,
+            requiredAuthenticationLevel: apiRequestMetaDataDto.requiredAuthenticationLevel,
+            clientDomain: apiRequestMetaDataDto.clientDomain,
+            matchingResource: apiRequestMetaDataDto.matchingResource,
+            httpVerb: apiRequestMetaDataDto.httpVerb
+        };
+        keyValidationRequest.setJsonPayload(payload, contentType = APPLICATION_JSON);
+        int startTimeMills = time:currentTime().time;
+        int keyManagerRequestTime = startKeyManagerRequest();
+        var result = self.keyValidationClient->post(self.validationContext, keyValidationRequest);
+        endKeyManagerRequest(keyManagerRequestTime);
+        int timeDiff = time:currentTime().time - startTimeMills;
+        printDebug(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : " + timeDiff.toString() + "ms");
+        if (result is error) {
+            string message = "Error occurred while reading the key validation response";
+            log:printError(message, err = result);
+            return result;
+        }
+        http:Response keyValidationResponse = <http:Response>result;
+        var responseJson = keyValidationResponse.getJsonPayload();
+        if (responseJson is map<json>) {
+            printTrace(KEY_OAUTH_PROVIDER, "Key validation response:" + responseJson.toJsonString());
+            return convertJsonToKeyValidationObject(responseJson);
+        }
+        string message = "Error occurred while getting the key validation service JSON response payload";
+        if (responseJson is error) {
+            log:printError(message, err = responseJson);
+            return responseJson;
+        }
+        log:printError(message);
+        return error(message);
+    }
+};
+
+# Creates the key validation transport configured under `keyManager.keyValidationTransport`. SOAP is used unless
+# `json` is configured.
+#
+# + keyValidationClient - key validation client endpoint shared by the transport
+# + return - Returns the configured `KeyValidationTransport`
+function getKeyValidationTransport(http:Client keyValidationClient) returns KeyValidationTransport {
+    string transport = getConfigValue(KM_CONF_INSTANCE_ID, KM_KEY_VALIDATION_TRANSPORT, KEY_VALIDATION_TRANSPORT_SOAP);
+    if (stringutils:equalsIgnoreCase(transport, KEY_VALIDATION_TRANSPORT_JSON)) {
+        printDebug(KEY_OAUTH_PROVIDER, "Using the JSON key validation transport.");
+        return new JsonKeyValidationTransport(keyValidationClient,
+            getConfigValue(KM_CONF_INSTANCE_ID, KM_KEY_VALIDATION_JSON_CONTEXT, KEY_VALIDATION_JSON_CONTEXT));
+    }
+    printDebug(KEY_OAUTH_PROVIDER, "Using the SOAP key validation transport.");
+    return new SoapKeyValidationTransport(keyValidationClient);
+}
+
+function convertJsonToKeyValidationObject(map<json> keyValidationInfoJson) returns APIKeyValidationDto {
+    APIKeyValidationDto apiKeyValidationDto = {};
+    apiKeyValidationDto.authorized = keyValidationInfoJson["authorized"] == true;
+    apiKeyValidationDto.validationStatus = getJsonStringValue(keyValidationInfoJson, "validationStatus", "");
+    if (!apiKeyValidationDto.authorized) {
+        return apiKeyValidationDto;
+    }
+    apiKeyValidationDto.apiName = getJsonStringValue(keyValidationInfoJson, "apiName", "");
+    apiKeyValidationDto.apiPublisher = getJsonStringValue(keyValidationInfoJson, "apiPublisher", UNKNOWN_VALUE);
+    apiKeyValidationDto.apiTier = getJsonStringValue(keyValidationInfoJson, "apiTier", "");
+    apiKeyValidationDto.applicationId = getJsonStringValue(keyValidationInfoJson, "applicationId", UNKNOWN_VALUE);
+    apiKeyValidationDto.applicationName = getJsonStringValue(keyValidationInfoJson, "applicationName", UNKNOWN_VALUE);
+    apiKeyValidationDto.applicationTier = getJsonStringValue(keyValidationInfoJson, "applicationTier", UNLIMITED_TIER);
+    apiKeyValidationDto.authorizedDomains = getJsonStringValue(keyValidationInfoJson, "authorizedDomains", "");
+    apiKeyValidationDto.consumerKey = getJsonStringValue(keyValidationInfoJson, "consumerKey", UNKNOWN_VALUE);
+    apiKeyValidationDto.contentAware = getJsonStringValue(keyValidationInfoJson, "contentAware", "false");
+    apiKeyValidationDto.endUserName = getJsonStringValue(keyValidationInfoJson, "endUserName", "");
+    apiKeyValidationDto.endUserToken = getJsonStringValue(keyValidationInfoJson, "endUserToken", "");
+    apiKeyValidationDto.issuedTime = getJsonStringValue(keyValidationInfoJson, "issuedTime", "0");
+    apiKeyValidationDto.spikeArrestLimit = getJsonStringValue(keyValidationInfoJson, "spikeArrestLimit", "0");
+    apiKeyValidationDto.spikeArrestUnit = getJsonStringValue(keyValidationInfoJson, "spikeArrestUnit", "");
+    apiKeyValidationDto.stopOnQuotaReach = getJsonStringValue(keyValidationInfoJson, "stopOnQuotaReach", "false");
+    apiKeyValidationDto.subscriber = getJsonStringValue(keyValidationInfoJson, "subscriber", UNKNOWN_VALUE);
+    apiKeyValidationDto.subscriberTenantDomain = getJsonStringValue(keyValidationInfoJson, "subscriberTenantDomain",
+        UNKNOWN_VALUE);
+    apiKeyValidationDto.throttlingDataList = getJsonStringValue(keyValidationInfoJson, "throttlingDataList", "");
+    apiKeyValidationDto.tier = getJsonStringValue(keyValidationInfoJson, "tier", DEFAULT_SUBSCRIPTION_TIER);
+    apiKeyValidationDto.keyType = getJsonStringValue(keyValidationInfoJson, "keyType", PRODUCTION_KEY_TYPE);
+    apiKeyValidationDto.userType = getJsonStringValue(keyValidationInfoJson, "userType", "");
+    apiKeyValidationDto.validityPeriod = getJsonStringValue(keyValidationInfoJson, "validityPeriod", "0");
+    return apiKeyValidationDto;
+}
+
+function getJsonStringValue(map<json> jsonObject, string key, string defaultValue) returns string {
+    json value = jsonObject[key];
+    if (value is ()) {
+        return defaultValue;
+    }
+    return value.toString();
+}
+
+function convertXmlToKeyValidationObject(xml keyValidationInfoXML) returns APIKeyValidationDto {
+    APIKeyValidationDto apiKeyValidationDto = {};
+    apiKeyValidationDto.apiName = keyValidationInfoXML[apim:apiName].getTextValue();
+    apiKeyValidationDto.apiPublisher = keyValidationInfoXML[apim:apiPublisher].getTextValue();
+    apiKeyValidationDto.apiTier = keyValidationInfoXML[apim:apiTier].getTextValue();
+    apiKeyValidationDto.applicationId = keyValidationInfoXML[apim:applicationId].getTextValue();
+    apiKeyValidationDto.applicationName = keyValidationInfoXML[apim:applicationName].getTextValue();
+    apiKeyValidationDto.applicationTier = keyValidationInfoXML[apim:applicationTier].getTextValue();
+    apiKeyValidationDto.authorized = stringutils:toBoolean(keyValidationInfoXML[apim:authorized].getTextValue());
+    apiKeyValidationDto.authorizedDomains = keyValidationInfoXML[apim:authorizedDomains].getTextValue();
+    apiKeyValidationDto.consumerKey = keyValidationInfoXML[apim:consumerKey].getTextValue();
+    apiKeyValidationDto.contentAware = keyValidationInfoXML[apim:contentAware].getTextValue();
+    apiKeyValidationDto.endUserName = keyValidationInfoXML[apim:endUserName].getTextValue();
+    apiKeyValidationDto.endUserToken = keyValidationInfoXML[apim:endUserToken].getTextValue();
+    apiKeyValidationDto.issuedTime = keyValidationInfoXML[apim:issuedTime].getTextValue();
+    apiKeyValidationDto.spikeArrestLimit = keyValidationInfoXML[apim:spikeArrestLimit].getTextValue();
+    apiKeyValidationDto.spikeArrestUnit = keyValidationInfoXML[apim:spikeArrestUnit].getTextValue();
+    apiKeyValidationDto.stopOnQuotaReach = keyValidationInfoXML[apim:stopOnQuotaReach].getTextValue();
+    apiKeyValidationDto.subscriber = keyValidationInfoXML[apim:subscriber].getTextValue();
+    apiKeyValidationDto.subscriberTenantDomain = keyValidationInfoXML[apim:subscriberTenantDomain].getTextValue();
+    apiKeyValidationDto.throttlingDataList = keyValidationInfoXML[apim:throttlingDataList].getTextValue();
+    apiKeyValidationDto.tier = keyValidationInfoXML[apim:tier].getTextValue();
+    apiKeyValidationDto.keyType = keyValidationInfoXML[apim:'type].getTextValue();
+    apiKeyValidationDto.userType = keyValidationInfoXML[apim:userType].getTextValue();
+    apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
+    apiKeyValidationDto.validityPeriod = keyValidationInfoXML[apim:validityPeriod].getTextValue();
+    return apiKeyValidationDto;
+}
@@ -0,0 +1,130 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+import ballerina/auth;
+import ballerina/encoding;
+import ballerina/http;
+import ballerina/log;
+import ballerina/oauth2;
+import ballerina/runtime;
+
+# Represents inbound OAuth2 provider, which calls the introspection endpoint of an external key manager. Results are
+# kept in the gateway introspect cache until the `exp` of the token, and inactive tokens are cached for
+# `caching.invalidTokenCacheExpiryTime`.
+#
+# + introspectionClient - introspection client endpoint
+# + gatewayCache - the `APIGatewayCache instence`
+public type OAuth2IntrospectionProvider object {
+
+    *auth:InboundAuthProvider;
+
+    public http:Client introspectionClient;
+    public APIGatewayCache gatewayCache = new;
+
+    public function __init(oauth2:IntrospectionServerConfig config) {
+        self.introspectionClient = new (config.url, config.clientConfig);
+    }
+
+    public function authenticate(string credential) returns @tainted (boolean | auth:Error) {
+        if (credential == "") {
+            return false;
+        }
+        boolean cacheEnabled = getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true);
+        IntrospectionCacheEntry? cachedResult = ();
+        if (cacheEnabled) {
+            cachedResult = self.gatewayCache.retrieveFromIntrospectCache(credential);
+        }
+        IntrospectionCacheEntry introspectionResult;
+        if (cachedResult is IntrospectionCacheEntry && cachedResult.expiryTime > getCurrentTime()) {
+            printDebug(KEY_OAUTH_PROVIDER, "Introspection result found in the introspect cache.");
+            introspectionResult = cachedResult;
+        } else {
+            if (cachedResult is IntrospectionCacheEntry) {
+                printDebug(KEY_OAUTH_PROVIDER, "Cached introspection result has expired.");
+                self.gatewayCache.removeFromIntrospectCache(credential);
+            }
+            var result = self.doIntrospection(credential);
+            if (result is error) {
+                return prepareError("Failed to introspect the token.", result);
+            }
+            introspectionResult = <IntrospectionCacheEntry>result;
+            if (cacheEnabled) {
+                self.gatewayCache.addToIntrospectCache(credential, introspectionResult);
+            }
+        }
+        if (introspectionResult.active) {
+            runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+            invocationContext.principal.userId = introspectionResult.username;
+            invocationContext.principal.username = introspectionResult.username;
+            invocationContext.principal.scopes = introspectionResult.scopes;
+            runtime:AuthenticationContext authContext = {scheme: AUTH_SCHEME_OAUTH2, authToken: credential};
+            invocationContext.authenticationContext = authContext;
+        }
+        return introspectionResult.active;
+    }
+
+    function doIntrospection(string credential) returns @tainted (IntrospectionCacheEntry | error) {
+        http:Request introspectionRequest = new;
+        string encodedToken = check encoding:encodeUriComponent(credential, "UTF-8");
+        introspectionRequest.setTextPayload("token=" + encodedToken, mediaType = X_WWW_FORM_URLENCODED);
+        int keyManagerRequestTime = startKeyManagerRequest();
+        var response = self.introspectionClient->post("", introspectionRequest);
+        endKeyManagerRequest(keyManagerRequestTime);
+        if (response is error) {
+            log:printError("Error occurred while calling the introspection endpoint", err = response);
+            return response;
+        }
+        http:Response introspectionResponse = <http:Response>response;
+        // Only a successful response tells whether the token is active. Errors of the key manager are not cached.
+        if (introspectionResponse.statusCode < 200 || introspectionResponse.statusCode >= 300) {
+            log:printError("Introspection endpoint responded with status code " +
+                introspectionResponse.statusCode.toString());
+            return error("Introspection endpoint responded with status code " +
+                introspectionResponse.statusCode.toString());
+        }
+        json payload = check introspectionResponse.getJsonPayload();
+        if (!(payload is map<json>)) {
+            return error("Invalid introspection response received");
+        }
+        map<json> introspectionJson = <map<json>>payload;
+        IntrospectionCacheEntry introspectionResult = {};
+        int currentTime = getCurrentTime();
+        if (introspectionJson["active"] != true) {
+            printDebug(KEY_OAUTH_PROVIDER, "Introspection endpoint returned an inactive token.");
+            introspectionResult.expiryTime = currentTime + getConfigIntValue(CACHING_ID, INVALID_TOKEN_CACHE_EXPIRY,
+                60000);
+            return introspectionResult;
+        }
+        introspectionResult.active = true;
+        json username = introspectionJson["username"];
+        if (username is string) {
+            introspectionResult.username = username;
+        }
+        json scope = introspectionJson["scope"];
+        if (scope is string && scope != "") {
+            introspectionResult.scopes = split(scope.trim(), " ");
+        }
+        json exp = introspectionJson["exp"];
+        if (exp is int) {
+            // exp is in seconds since epoch
+            introspectionResult.expiryTime = exp * 1000;
+        } else {
+            introspectionResult.expiryTime = currentTime + getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000);
+        }
+        printDebug(KEY_OAUTH_PROVIDER, "Introspection result will be cached until : " +
+            introspectionResult.expiryTime.toString());
+        return introspectionResult;
+    }
+};
@@ -19,17 +19,13 @@ import ballerina/lang.'int;
 import ballerina/log;
 import ballerina/runtime;
 import ballerina/stringutils;
-import ballerina/time;
 import ballerina/oauth2;
 
 
-xmlns "http://schemas.xmlsoap.org/soap/envelope/" as soapenv;
-xmlns "http://org.apache.axis2/xsd" as xsd;
-xmlns "http://dto.impl.apimgt.carbon.wso2.org/xsd" as apim;
-
 # Represents inbound OAuth2 provider, which calls the key validation service of the WSO2 Key manager
 #
 # + keyValidationClient - key validation client endpoint
+# + keyValidationTransport - transport used to call the key validation service. SOAP is used by default
 # + gatewayCache - the `APIGatewayCache instence`
 # 
 public type OAuth2KeyValidationProvider object {
@@ -37,10 +33,12 @@ public type OAuth2KeyValidationProvider object {
     *auth:InboundAuthProvider;
 
     public http:Client keyValidationClient;
+    public KeyValidationTransport keyValidationTransport;
     public APIGatewayCache gatewayCache = new;
 
     public function __init(oauth2:IntrospectionServerConfig config) {
         self.keyValidationClient = new (config.url, config.clientConfig);
+        self.keyValidationTransport = getKeyValidationTransport(self.keyValidationClient);
     }
 
 
@@ -171,50 +169,6 @@ public type OAuth2KeyValidationProvider object {
         return apiKeyValidationDto;
     }
 
-    public function doKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted (xml | error) {
-        http:Request keyValidationRequest = new;
-        http:Response keyValidationResponse = new;
-        xml soapEnvelope = xml `<soapenv:Envelope>
-                                    <soapenv:Body>
-                                        <xsd:validateKey>
-                                            <xsd:context>${apiRequestMetaDataDto.context}</xsd:context>
-                                            <xsd:version>${apiRequestMetaDataDto.apiVersion}</xsd:version>
-                                            <xsd:accessToken>${apiRequestMetaDataDto.accessToken}</xsd:accessToken>
-                                            <xsd:requiredAuthenticationLevel>${apiRequestMetaDataDto.requiredAuthenticationLevel}</xsd:requiredAuthenticationLevel>
-                                            <xsd:clientDomain>${apiRequestMetaDataDto.clientDomain}</xsd:clientDomain>
-                                            <xsd:matchingResource>${apiRequestMetaDataDto.matchingResource}</xsd:matchingResource>
-                                            <xsd:httpVerb>${apiRequestMetaDataDto.httpVerb}</xsd:httpVerb>
-                                        </xsd:validateKey>
-                                    </soapenv:Body>
-                                </soapenv:Envelope>`;
-        keyValidationRequest.setXmlPayload(soapEnvelope, contentType = TEXT_XML);
-        keyValidationRequest.setHeader(SOAP_ACTION, VALIDATE_KEY_SOAP_ACTION);
-        time:Time time = time:currentTime();
-        int startTimeMills = time.time;
-        var result = self.keyValidationClient->post(KEY_VALIDATION_SERVICE_CONTEXT, keyValidationRequest);
-        time = time:currentTime();
-        int endTimeMills = time.time;
-        int timeDiff = endTimeMills - startTimeMills;
-        printDebug(KEY_OAUTH_PROVIDER, "Total time taken for the key validation service call : " + timeDiff.toString() + "ms");
-        if (result is http:Response) {
-            keyValidationResponse = result;
-        } else {
-            string message = "Error occurred while reading the key validation response";
-            log:printError(message, err = result);
-            return result;
-        }
-        var responseXml = keyValidationResponse.getXmlPayload();
-        if (responseXml is xml) {
-            printTrace(KEY_OAUTH_PROVIDER, "Key validation response:" + responseXml.getTextValue());
-
-        } else {
-            string message = "Error occurred while getting the key validation service XML response payload";
-            log:printError(message, err = responseXml);
-        }
-        return responseXml;
-
-    }
-
     public function invokeKeyValidation(APIRequestMetaDataDto apiRequestMetaDataDto) returns @tainted [boolean,
  APIKeyValidationDto] {
         APIKeyValidationDto apiKeyValidationDto = {};
@@ -222,17 +176,14 @@ public type OAuth2KeyValidationProvider object {
         boolean authorized = false;
         //Start a new child span for the span.
         int | error | () spanId_KeyValidate = startSpan(OAUTH_AUTHPROVIDER_INVOKEKEYVALIDATION);
-        xml | error keyValidationResponseXML = self.doKeyValidation(apiRequestMetaDataDto);
+        APIKeyValidationDto | error keyValidationResult = self.keyValidationTransport.validate(apiRequestMetaDataDto);
         //finishing span
         finishSpan(OAUTH_AUTHPROVIDER_INVOKEKEYVALIDATION, spanId_KeyValidate);
-        if (keyValidationResponseXML is xml) {
-            printTrace(KEY_OAUTH_PROVIDER, "key Validation json " + keyValidationResponseXML.getTextValue());
-            xml keyValidationInfoXML = keyValidationResponseXML[soapenv:Body][xsd:validateKeyResponse][xsd:'return];
-            string authorizeValue = keyValidationInfoXML[apim:authorized].getTextValue();
-            boolean auth = stringutils:toBoolean(authorizeValue);
+        if (keyValidationResult is APIKeyValidationDto) {
+            boolean auth = keyValidationResult.authorized;
             printDebug(KEY_OAUTH_PROVIDER, "Authorized value from key validation service: " + auth.toString());
+            apiKeyValidationDto = keyValidationResult;
             if (auth) {
-                apiKeyValidationDto = convertXmlToKeyValidationObject(keyValidationInfoXML);
                 printDebug(KEY_OAUTH_PROVIDER, "key type: " + apiKeyValidationDto.keyType);
                 authorized = auth;
                 if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true)) {
@@ -241,15 +192,13 @@ public type OAuth2KeyValidationProvider object {
                     self.gatewayCache.addToTokenCache(accessToken, true);
                 }
             } else {
-                apiKeyValidationDto.authorized = false;
-                apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
                 if (getConfigBooleanValue(CACHING_ID, TOKEN_CACHE_ENABLED, true)) {
                     self.gatewayCache.addToInvalidTokenCache(accessToken, apiKeyValidationDto);
                 }
             }
         } else {
             string errorMessage = "Error occurred while the key validation request";
-            log:printError(errorMessage, err = keyValidationResponseXML);
+            log:printError(errorMessage, err = keyValidationResult);
             panic error(errorMessage);
         }
 
@@ -270,35 +219,6 @@ public type KeyValidationServerConfig record {|
 
 
 
-function convertXmlToKeyValidationObject(xml keyValidationInfoXML) returns APIKeyValidationDto {
-    APIKeyValidationDto apiKeyValidationDto = {};
-    apiKeyValidationDto.apiName = keyValidationInfoXML[apim:apiName].getTextValue();
-    apiKeyValidationDto.apiPublisher = keyValidationInfoXML[apim:apiPublisher].getTextValue();
-    apiKeyValidationDto.apiTier = keyValidationInfoXML[apim:apiTier].getTextValue();
-    apiKeyValidationDto.applicationId = keyValidationInfoXML[apim:applicationId].getTextValue();
-    apiKeyValidationDto.applicationName = keyValidationInfoXML[apim:applicationName].getTextValue();
-    apiKeyValidationDto.applicationTier = keyValidationInfoXML[apim:applicationTier].getTextValue();
-    apiKeyValidationDto.authorized = stringutils:toBoolean(keyValidationInfoXML[apim:authorized].getTextValue());
-    apiKeyValidationDto.authorizedDomains = keyValidationInfoXML[apim:authorizedDomains].getTextValue();
-    apiKeyValidationDto.consumerKey = keyValidationInfoXML[apim:consumerKey].getTextValue();
-    apiKeyValidationDto.contentAware = keyValidationInfoXML[apim:contentAware].getTextValue();
-    apiKeyValidationDto.endUserName = keyValidationInfoXML[apim:endUserName].getTextValue();
-    apiKeyValidationDto.endUserToken = keyValidationInfoXML[apim:endUserToken].getTextValue();
-    apiKeyValidationDto.issuedTime = keyValidationInfoXML[apim:issuedTime].getTextValue();
-    apiKeyValidationDto.spikeArrestLimit = keyValidationInfoXML[apim:spikeArrestLimit].getTextValue();
-    apiKeyValidationDto.spikeArrestUnit = keyValidationInfoXML[apim:spikeArrestUnit].getTextValue();
-    apiKeyValidationDto.stopOnQuotaReach = keyValidationInfoXML[apim:stopOnQuotaReach].getTextValue();
-    apiKeyValidationDto.subscriber = keyValidationInfoXML[apim:subscriber].getTextValue();
-    apiKeyValidationDto.subscriberTenantDomain = keyValidationInfoXML[apim:subscriberTenantDomain].getTextValue();
-    apiKeyValidationDto.throttlingDataList = keyValidationInfoXML[apim:throttlingDataList].getTextValue();
-    apiKeyValidationDto.tier = keyValidationInfoXML[apim:tier].getTextValue();
-    apiKeyValidationDto.keyType = keyValidationInfoXML[apim:'type].getTextValue();
-    apiKeyValidationDto.userType = keyValidationInfoXML[apim:userType].getTextValue();
-    apiKeyValidationDto.validationStatus = keyValidationInfoXML[apim:validationStatus].getTextValue();
-    apiKeyValidationDto.validityPeriod = keyValidationInfoXML[apim:validityPeriod].getTextValue();
-    return apiKeyValidationDto;
-}
-
 function getAccessTokenCacheKey(APIRequestMetaDataDto dto) returns string {
     return dto.accessToken + ":" + dto.context + "/" + dto.apiVersion + dto.matchingResource + ":" + dto.httpVerb;
 }
@@ -27,6 +27,10 @@ public type CookieAuthHandler object {
     # + return - Returns `true` if can be authenticated. Else, returns `false`.
     public function canProcess(http:Request req) returns @tainted boolean {
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+        if (getAuthScheme(req) == AUTH_SCHEME_COOKIE && invocationContext.attributes.hasKey(COOKIE_HEADER)) {
+            // The auth cookie has already been extracted by the pre authentication filter.
+            return true;
+        }
         if (req.hasHeader(COOKIE_HEADER)) {
             string requiredCookie = config:getAsString(COOKIE_HEADER, "");
 
@@ -55,6 +59,7 @@ public type CookieAuthHandler object {
         string authHeader = <string>runtime:getInvocationContext().attributes[AUTH_HEADER];
         string cookieValue = <string>runtime:getInvocationContext().attributes[COOKIE_HEADER];
         req.setHeader(authHeader, cookieValue);
+        runtime:getInvocationContext().attributes[AUTH_SCHEME_ATTR] = classifyAuthHeader(cookieValue);
         return false;
     // we always set this handler false , and set the cookie value to authorization header
     // to be validated by subsequent filters
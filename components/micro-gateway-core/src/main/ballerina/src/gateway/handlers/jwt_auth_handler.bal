@@ -14,7 +14,6 @@
 // specific language governing permissions and limitations
 // under the License.
 
-import ballerina/auth;
 import ballerina/http;
 import ballerina/runtime;
 
@@ -36,17 +35,9 @@ public type JWTAuthHandler object {
     # + req - The `Request` instance.
     # + return - Returns `true` if can be authenticated. Else, returns `false`.
     public function canProcess(http:Request req) returns @tainted boolean {
-        string authHeader = runtime:getInvocationContext().attributes[AUTH_HEADER].toString();
-        if (req.hasHeader(authHeader)) {
-            string headerValue = req.getHeader(authHeader);
-            if (hasPrefix(headerValue, auth:AUTH_SCHEME_BEARER)) {
-                string credential = headerValue.substring(6, headerValue.length()).trim();
-                string[] splitContent = split(credential, "\\.");
-                if (splitContent.length() == 3) {
-                    printDebug(KEY_AUTHN_FILTER, "Request will authenticated via jwt handler");
-                    return true;
-                }
-            }
+        if (getAuthScheme(req) == AUTH_SCHEME_JWT) {
+            printDebug(KEY_AUTHN_FILTER, "Request will authenticated via jwt handler");
+            return true;
         }
         return false;
     }
@@ -60,7 +51,9 @@ public type JWTAuthHandler object {
         string authHeader = runtime:getInvocationContext().attributes[AUTH_HEADER].toString();
         string headerValue = req.getHeader(authHeader);
         string credential = headerValue.substring(6, headerValue.length()).trim();
+        int startingTime = getCurrentTimeNanos();
         var authenticationResult = self.jwtAuthProvider.authenticate(credential);
+        setStageDuration(STAGE_AUTHN_JWT, startingTime);
         if (authenticationResult is boolean) {
             return authenticationResult;
         } else {
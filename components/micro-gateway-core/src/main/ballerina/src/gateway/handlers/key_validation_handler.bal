@@ -17,22 +17,21 @@
 import ballerina/auth;
 import ballerina/http;
 import ballerina/runtime;
-import ballerina/oauth2;
 
 # Representation of the key validation  handler
 #
 # + oauth2KeyValidationProvider - The reference to the key validation provider instance
-# + introspectProvider - The reference to the standard oauth2 introspect service provider
+# + introspectProvider - The reference to the caching oauth2 introspect service provider
 # + externalKM - Is external key mananager is used or default wso2 key validation service is used.
 public type KeyValidationHandler object {
 
     *http:InboundAuthHandler;
 
     public OAuth2KeyValidationProvider oauth2KeyValidationProvider;
-    public oauth2:InboundOAuth2Provider introspectProvider;
+    public OAuth2IntrospectionProvider introspectProvider;
     public boolean externalKM;
 
-    public function __init(OAuth2KeyValidationProvider oauth2KeyValidationProvider, oauth2:InboundOAuth2Provider introspectProvider) {
+    public function __init(OAuth2KeyValidationProvider oauth2KeyValidationProvider, OAuth2IntrospectionProvider introspectProvider) {
         self.oauth2KeyValidationProvider = oauth2KeyValidationProvider;
         self.introspectProvider = introspectProvider;
         self.externalKM = getConfigBooleanValue(KM_CONF_INSTANCE_ID, EXTERNAL, false);
@@ -43,17 +42,9 @@ public type KeyValidationHandler object {
     # + req - The `Request` instance.
     # + return - Returns `true` if can be authenticated. Else, returns `false`.
     public function canProcess(http:Request req) returns @tainted boolean {
-        string authHeader = runtime:getInvocationContext().attributes[AUTH_HEADER].toString();
-        if (req.hasHeader(authHeader)) {
-            string headerValue = req.getHeader(authHeader);
-            if (hasPrefix(headerValue, auth:AUTH_SCHEME_BEARER)) {
-                string credential = headerValue.substring(6, headerValue.length()).trim();
-                string[] splitContent = split(credential, "\\.");
-                if (splitContent.length() < 3) {
-                    printDebug(KEY_AUTHN_FILTER, "Request will authenticated via key validation service");
-                    return true;
-                }
-            }
+        if (getAuthScheme(req) == AUTH_SCHEME_OAUTH2) {
+            printDebug(KEY_AUTHN_FILTER, "Request will authenticated via key validation service");
+            return true;
         }
         return false;
     }
@@ -71,7 +62,9 @@ public type KeyValidationHandler object {
         string authHeaderName = getAuthorizationHeader(invocationContext);
         boolean|auth:Error authenticationResult = false;
         if (self.externalKM) {
+            int startingTime = getCurrentTimeNanos();
             authenticationResult = self.introspectProvider.authenticate(credential);
+            setStageDuration(STAGE_AUTHN_OAUTH2, startingTime);
             if (authenticationResult is auth:Error) {
                 return prepareAuthenticationError("Failed to authenticate with introspect auth provider.", authenticationResult);
             } else {
@@ -88,7 +81,9 @@ public type KeyValidationHandler object {
                 return authenticationResult;
             }
         } else {
+            int startingTime = getCurrentTimeNanos();
             authenticationResult = self.oauth2KeyValidationProvider.authenticate(credential);
+            setStageDuration(STAGE_AUTHN_OAUTH2, startingTime);
             if (authenticationResult is boolean) {
                 if (authenticationResult) {
                     AuthenticationContext authenticationContext = {};
@@ -39,8 +39,11 @@ public type MutualSSLHandler object {
     # + return - Returns `true` if authenticated successfully. Else, returns `false`
     # or the `AuthenticationError` in case of an error.
     public function process(http:Request req) returns boolean | http:AuthenticationError {
+        int startingTime = getCurrentTimeNanos();
         runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-        return doMTSLFilterRequest(req, invocationContext);
+        boolean | http:AuthenticationError result = doMTSLFilterRequest(req, invocationContext);
+        setStageDuration(STAGE_AUTHN_MUTUAL_SSL, startingTime);
+        return result;
     }
 
 };
@@ -0,0 +1,71 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/http;
+
+# Traces and times an auth handler as listed for it in the instrumentation table.
+#
+# + authHandler - The instrumented auth handler
+# + instrumentation - The instrumentation of the auth handler
+public type ObservableAuthHandler object {
+    *http:InboundAuthHandler;
+    http:InboundAuthHandler authHandler;
+    Instrumentation instrumentation;
+
+    public function __init(http:InboundAuthHandler authHandler, Instrumentation instrumentation) {
+        self.authHandler = authHandler;
+        self.instrumentation = instrumentation;
+    }
+
+    # Checks if the request can be authenticated by the instrumented auth handler.
+    #
+    # + req - The `Request` instance.
+    # + return - Returns `true` if can be authenticated. Else, returns `false`.
+    public function canProcess(http:Request req) returns @tainted boolean {
+        return self.authHandler.canProcess(req);
+    }
+
+    # Authenticates the incoming request with the instrumented auth handler.
+    #
+    # + req - The `Request` instance.
+    # + return - Returns `true` if authenticated successfully. Else, returns `false`
+    # or the `AuthenticationError` in case of an error.
+    public function process(http:Request req) returns @tainted boolean | http:AuthenticationError {
+        int | error | () spanId = startSpan(self.instrumentation.requestSpan);
+        int startingTime = getCurrentTimeNanos();
+        boolean | http:AuthenticationError result = self.authHandler.process(req);
+        if (self.instrumentation.latencyCategory is string) {
+            recordAuthenticationLatency(setGaugeDuration(startingTime));
+        }
+        finishSpan(self.instrumentation.requestSpan, spanId);
+        return result;
+    }
+};
+
+# Returns the auth handler to engage in a listener, instrumented if metrics or tracing is enabled.
+#
+# + authHandler - The auth handler
+# + handlerId - The *_HANDLER_ID of the auth handler, used to look up its instrumentation
+# + return - The auth handler to engage in the listener
+public function getObservableAuthHandler(http:InboundAuthHandler authHandler, string handlerId)
+        returns http:InboundAuthHandler {
+    Instrumentation? instrumentation = getInstrumentation(handlerId);
+    if (instrumentation is Instrumentation) {
+        ObservableAuthHandler observableAuthHandler = new (authHandler, instrumentation);
+        return observableAuthHandler;
+    }
+    return authHandler;
+}
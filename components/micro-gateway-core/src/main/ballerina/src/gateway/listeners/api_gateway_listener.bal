@@ -107,12 +107,7 @@ public function getAuthHandlers() returns http:InboundAuthHandler[] {
         jwtCache: jwtCache
     };
     JwtAuthProvider jwtAuthProvider = new (jwtValidatorConfig);
-    JWTAuthHandler | JWTAuthHandlerWrapper jwtAuthHandler;
-    if (isMetricsEnabled || isTracingEnabled) {
-        jwtAuthHandler = new JWTAuthHandlerWrapper(jwtAuthProvider);
-    } else {
-        jwtAuthHandler = new JWTAuthHandler(jwtAuthProvider);
-    }
+    JWTAuthHandler jwtAuthHandler = new (jwtAuthProvider);
 
     // Initializes the key validation handler
     http:ClientSecureSocket secureSocket = {
@@ -142,11 +137,7 @@ public function getAuthHandlers() returns http:InboundAuthHandler[] {
     } else {
         printWarn(KEY_GW_LISTNER, "Key validation service security confogurations not enabled.");
     }
-    http:ClientConfiguration clientConfig = {
-        auth: auth,
-        cache: {enabled: false},
-        secureSocket: secureSocket
-    };
+    http:ClientConfiguration clientConfig = getKeyManagerClientConfig(auth, secureSocket);
     oauth2:IntrospectionServerConfig  keyValidationConfig = {
         url: getConfigValue(KM_CONF_INSTANCE_ID, KM_SERVER_URL, "https://localhost:9443"),
         clientConfig: clientConfig
@@ -160,53 +151,74 @@ public function getAuthHandlers() returns http:InboundAuthHandler[] {
         clientConfig: clientConfig
     };
     OAuth2KeyValidationProvider oauth2KeyValidationProvider = new (keyValidationConfig);
-    oauth2:InboundOAuth2Provider introspectionProvider = new(introspectionServerConfig);
-    KeyValidationHandler | KeyValidationHandlerWrapper keyValidationHandler;
-    if (isMetricsEnabled || isTracingEnabled) {
-        keyValidationHandler = new KeyValidationHandlerWrapper(oauth2KeyValidationProvider, introspectionProvider);
-    } else {
-        keyValidationHandler = new KeyValidationHandler(oauth2KeyValidationProvider, introspectionProvider);
-    }
-
+    OAuth2IntrospectionProvider introspectionProvider = new(introspectionServerConfig);
+    KeyValidationHandler keyValidationHandler = new (oauth2KeyValidationProvider, introspectionProvider);
 
     // Initializes the basic auth handler
     auth:BasicAuthConfig basicAuthConfig = {tableName: CONFIG_USER_SECTION};
-    BasicAuthProvider | BasicAuthProviderWrapper configBasicAuthProvider;
-    if (isMetricsEnabled || isTracingEnabled) {
-        configBasicAuthProvider = new BasicAuthProviderWrapper(basicAuthConfig);
-    } else {
-        configBasicAuthProvider = new BasicAuthProvider(basicAuthConfig);
-    }
+    BasicAuthProvider configBasicAuthProvider = new (basicAuthConfig);
     http:BasicAuthHandler basicAuthHandler = new (configBasicAuthProvider);
 
     //Initializes the mutual ssl handler
-    MutualSSLHandler | MutualSSLHandlerWrapper mutualSSLHandler;
-    if (isMetricsEnabled || isTracingEnabled) {
-        mutualSSLHandler = new MutualSSLHandlerWrapper();
-    } else {
-        mutualSSLHandler = new MutualSSLHandler();
-    }
+    MutualSSLHandler mutualSSLHandler = new;
 
     //Initializes the cookie based handler
     CookieAuthHandler cookieBasedHandler = new;
 
-    return [mutualSSLHandler, cookieBasedHandler, jwtAuthHandler, keyValidationHandler, basicAuthHandler];
+    // When metrics or tracing is enabled, the handlers are traced and timed as listed in the instrumentation table.
+    return [getObservableAuthHandler(mutualSSLHandler, MUTUAL_SSL_HANDLER_ID), cookieBasedHandler,
+        getObservableAuthHandler(jwtAuthHandler, JWT_AUTH_HANDLER_ID),
+        getObservableAuthHandler(keyValidationHandler, KEY_VALIDATION_HANDLER_ID),
+        getObservableAuthHandler(basicAuthHandler, BASIC_AUTH_HANDLER_ID)];
 }
 
 
-public function getDefaultAuthorizationFilter() returns OAuthzFilter | OAuthzFilterWrapper {
+# Builds the HTTP client configuration used to call the key manager. The key validation and introspection clients
+# share a single connection pool so that bursts of cache misses reuse warm connections instead of opening new TLS
+# connections.
+#
+# + auth - outbound authentication configuration for the key manager
+# + secureSocket - SSL configuration for the key manager
+# + return - Returns the `http:ClientConfiguration` for the key manager clients
+function getKeyManagerClientConfig(http:OutboundAuthConfig? auth, http:ClientSecureSocket secureSocket)
+        returns http:ClientConfiguration {
+    http:PoolConfiguration poolConfig = {
+        maxActiveConnections: getConfigIntValue(KM_CONF_INSTANCE_ID, KM_POOL_MAX_ACTIVE_CONNECTIONS, -1),
+        maxIdleConnections: getConfigIntValue(KM_CONF_INSTANCE_ID, KM_POOL_MAX_IDLE_CONNECTIONS, 100),
+        waitTimeInMillis: getConfigIntValue(KM_CONF_INSTANCE_ID, KM_POOL_WAIT_TIME, 30000),
+        maxActiveStreamsPerConnection: getConfigIntValue(KM_CONF_INSTANCE_ID, KM_POOL_MAX_ACTIVE_STREAMS, 50)
+    };
+    initKeyManagerClientGauges(poolConfig);
+    string keepAliveConfig = getConfigValue(KM_CONF_INSTANCE_ID, KM_KEEP_ALIVE, http:KEEPALIVE_AUTO);
+    http:KeepAlive keepAlive = http:KEEPALIVE_AUTO;
+    if (stringutils:equalsIgnoreCase(keepAliveConfig, http:KEEPALIVE_ALWAYS)) {
+        keepAlive = http:KEEPALIVE_ALWAYS;
+    } else if (stringutils:equalsIgnoreCase(keepAliveConfig, http:KEEPALIVE_NEVER)) {
+        keepAlive = http:KEEPALIVE_NEVER;
+    }
+    http:ClientConfiguration clientConfig = {
+        auth: auth,
+        cache: {enabled: false},
+        secureSocket: secureSocket,
+        http1Settings: {keepAlive: keepAlive},
+        timeoutInMillis: getConfigIntValue(KM_CONF_INSTANCE_ID, KM_TIMEOUT, 60000),
+        poolConfig: poolConfig
+    };
+    if (getConfigBooleanValue(KM_CONF_INSTANCE_ID, KM_ENABLE_HTTP2, false)) {
+        printDebug(KEY_GW_LISTNER, "HTTP/2 is enabled for the key manager clients.");
+        clientConfig.httpVersion = HTTP2;
+    }
+    return clientConfig;
+}
+
+public function getDefaultAuthorizationFilter() returns OAuthzFilter {
     int cacheExpiryTime = getConfigIntValue(CACHING_ID, TOKEN_CACHE_EXPIRY, 900000);
     int cacheSize = getConfigIntValue(CACHING_ID, TOKEN_CACHE_CAPACITY, 100);
     float evictionFactor = getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25);
     cache:Cache positiveAuthzCache = new (cacheExpiryTime, cacheSize, evictionFactor);
     cache:Cache negativeAuthzCache = new (cacheExpiryTime, cacheSize, evictionFactor);
-    if (isTracingEnabled || isMetricsEnabled) {
-        OAuthzFilterWrapper authzFilterWrapper = new (positiveAuthzCache, negativeAuthzCache, ());        //TODO: set the proper scopes
-        return authzFilterWrapper;
-    } else {
-        OAuthzFilter authzFilter = new (positiveAuthzCache, negativeAuthzCache, ());        //TODO: set the proper scopes
-        return authzFilter;
-    }
+    OAuthzFilter authzFilter = new (positiveAuthzCache, negativeAuthzCache, ());        //TODO: set the proper scopes
+    return authzFilter;
 }
 
 function initiateKeyManagerConfigurations() {
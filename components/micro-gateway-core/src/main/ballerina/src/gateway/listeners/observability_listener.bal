@@ -15,10 +15,14 @@
 // under the License.
 
 import ballerina/auth;
+import ballerina/cache;
 import ballerina/http;
 import ballerina/log;
+import ballerina/runtime;
 import ballerina/system;
 
+cache:Cache observabilityBasicAuthCache = new;
+
 public type ObservabilityMetricListener object {
 
     private int listenerPort = 0;
@@ -28,7 +32,10 @@ public type ObservabilityMetricListener object {
     public function __init() {
         string ballerina_home = system:getEnv("BALLERINA_HOME");
         string keyStore_path = ballerina_home + "/bre/security/ballerinaKeystore.p12";
-        auth:InboundBasicAuthProvider basicAuthProvider = new;
+        observabilityBasicAuthCache = new (getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_EXPIRY, 300000),
+            getConfigIntValue(CACHING_ID, BASIC_AUTH_CACHE_CAPACITY, 1000),
+            getConfigFloatValue(CACHING_ID, TOKEN_CACHE_EVICTION_FACTOR, 0.25));
+        ObservabilityBasicAuthProvider basicAuthProvider = new;
         http:BasicAuthHandler basicAuthHandler = new (basicAuthProvider);
         self.listenerPort = getConfigIntValue(MICRO_GATEWAY_METRICS_PORTS, SECURE_PORT, 9000);
         self.metricListener = new (self.listenerPort, {
@@ -67,3 +74,48 @@ public type ObservabilityMetricListener object {
         return self.metricListener.__detach(s);
     }
 };
+
+# Basic auth provider of the observability listener. The credentials are verified by the ballerina inbound basic auth
+# provider against the plain text passwords of the configuration, and the successful verifications are memoized so
+# that every scrape does not verify them again.
+# + inboundBasicAuthProvider - The InboundBasicAuthProvider.
+type ObservabilityBasicAuthProvider object {
+
+    *auth:InboundAuthProvider;
+
+    auth:InboundBasicAuthProvider inboundBasicAuthProvider = new;
+    boolean cacheEnabled = getConfigBooleanValue(CACHING_ID, BASIC_AUTH_CACHE_ENABLED, true);
+
+    # Attempts to authenticate with credentials.
+    #
+    # + credential - Credential
+    # + return - `true` if authentication is successful, otherwise `false` or `Error` occurred while extracting credentials
+    public function authenticate(string credential) returns (boolean | auth:Error) {
+        if (!self.cacheEnabled) {
+            return self.inboundBasicAuthProvider.authenticate(credential);
+        }
+        runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+        string cacheKey = getBasicAuthCacheKey(credential);
+        var cachedResult = observabilityBasicAuthCache.get(cacheKey);
+        if (cachedResult is BasicAuthCacheEntry) {
+            printDebug(KEY_AUTHN_FILTER, "Basic auth result of the observability listener found in the cache.");
+            // Same context as the one set by the inbound basic auth provider on a successful verification.
+            runtime:AuthenticationContext authContext = {scheme: "basic", authToken: credential};
+            invocationContext.authenticationContext = authContext;
+            invocationContext.principal.userId = cachedResult.username;
+            invocationContext.principal.username = cachedResult.username;
+            invocationContext.principal.scopes = cachedResult.scopes;
+            return true;
+        }
+        boolean | auth:Error result = self.inboundBasicAuthProvider.authenticate(credential);
+        if (result is boolean && result) {
+            BasicAuthCacheEntry entry = {
+                authenticated: true,
+                username: invocationContext.principal.username,
+                scopes: invocationContext.principal.scopes
+            };
+            observabilityBasicAuthCache.put(cacheKey, <@untainted>entry);
+        }
+        return result;
+    }
+};
@@ -0,0 +1,59 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Configures the latency tracking of the adaptive load balancers.
+#
+# + decayTime - Time over which the weight of a latency sample decays, in milliseconds
+# + failurePenalty - Latency recorded for a failed request which failed faster than that, in milliseconds
+public function initAdaptiveLoadBalancer(int decayTime, int failurePenalty) {
+    jInitAdaptiveLoadBalancer(decayTime, failurePenalty);
+}
+
+# Picks the target of a request to a load balanced endpoint and counts the request as in flight to it.
+#
+# + balancer - Name of the load balanced endpoint
+# + targets - Number of targets of the endpoint
+# + return - Index of the picked target
+public function selectAdaptiveTarget(string balancer, int targets) returns int {
+    return jSelectAdaptiveTarget(java:fromString(balancer), targets);
+}
+
+# Records the outcome of a request to a target picked with `selectAdaptiveTarget`.
+#
+# + balancer - Name of the load balanced endpoint
+# + target - Index of the target
+# + latency - Time taken by the target to respond, in nanoseconds
+# + failed - Whether the request to the target failed
+public function completeAdaptiveTarget(string balancer, int target, int latency, boolean failed) {
+    jCompleteAdaptiveTarget(java:fromString(balancer), target, latency, failed);
+}
+
+function jInitAdaptiveLoadBalancer(int decayTime, int failurePenalty) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.loadbalancer.AdaptiveLoadBalancer"
+} external;
+
+function jSelectAdaptiveTarget(handle balancer, int targets) returns int = @java:Method {
+    name: "select",
+    class: "org.wso2.micro.gateway.core.loadbalancer.AdaptiveLoadBalancer"
+} external;
+
+function jCompleteAdaptiveTarget(handle balancer, int target, int latency, boolean failed) = @java:Method {
+    name: "complete",
+    class: "org.wso2.micro.gateway.core.loadbalancer.AdaptiveLoadBalancer"
+} external;
@@ -0,0 +1,66 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Configures the raw event sampling and starts the task which emits the per minute request aggregates.
+#
+# + rawEventSampleRate - Fraction of the requests for which the raw request event is published, from 0 to 1
+# + publishToStream - Whether the aggregates are streamed to the analytics receiver instead of being written to the
+#                     usage data file
+# + flushInterval - How often in milliseconds the aggregates of the completed minutes are emitted
+public function initAnalyticsAggregator(float rawEventSampleRate, boolean publishToStream, int flushInterval) {
+    jInitAnalyticsAggregator(rawEventSampleRate, publishToStream, flushInterval);
+}
+
+# Decides whether the raw request event of a new request is published.
+#
+# + return - `true` if the raw request event should be published
+public function isAnalyticsEventSampled() returns boolean {
+    return jIsAnalyticsEventSampled();
+}
+
+# Adds a request to the aggregate of its API, version, resource, method, application, status class and minute.
+#
+# + dto - Request response execution data of the request
+public function recordAnalyticsAggregate(RequestResponseExecutionDTO dto) {
+    string key = dto.apiContext + OBJ + dto.apiName + OBJ + dto.apiVersion + OBJ + dto.apiResourceTemplate + OBJ +
+        dto.apiMethod + OBJ + dto.apiCreator + OBJ + dto.apiCreatorTenantDomain + OBJ + dto.applicationId + OBJ +
+        dto.applicationName + OBJ + dto.metaClientType;
+    ExecutionTimeDTO executionTime = dto.executionTime;
+    jRecordAnalyticsAggregate(java:fromString(key), dto.requestTimestamp, dto.responseCode, dto.responseSize,
+        dto.responseTime, executionTime.securityLatency, executionTime.throttlingLatency,
+        executionTime.requestMediationLatency, executionTime.responseMediationLatency, executionTime.backEndLatency,
+        executionTime.otherLatency);
+}
+
+function jInitAnalyticsAggregator(float rawEventSampleRate, boolean publishToStream, int flushInterval) =
+@java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
+
+function jIsAnalyticsEventSampled() returns boolean = @java:Method {
+    name: "isSampled",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
+
+function jRecordAnalyticsAggregate(handle key, int timestamp, int responseCode, int responseSize, int responseTime,
+        int securityLatency, int throttlingLatency, int requestMediationLatency, int responseMediationLatency,
+        int backendLatency, int otherLatency) = @java:Method {
+    name: "record",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsAggregator"
+} external;
@@ -0,0 +1,106 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Creates the ring buffer between the request path and the analytics publishing task.
+#
+# + queueCapacity - Number of events the ring buffer can hold
+# + return - An error if the publisher cannot be initialized
+public function initAnalyticsPublisher(int queueCapacity) returns error? {
+    return jInitAnalyticsPublisher(queueCapacity);
+}
+
+# Hands an event over to the analytics publishing task. An event which does not fit in the ring buffer is spooled to
+# the usage data file.
+#
+# + event - Serialized event
+# + return - An error if the publisher is not initialized or the event cannot be spooled
+public function publishAnalyticsEvent(string event) returns error? {
+    return jPublishAnalyticsEvent(java:fromString(event));
+}
+
+# Takes the next batch of events to stream to the analytics receiver. The batch is returned again until it is
+# acknowledged or spooled.
+#
+# + maxEvents - Maximum number of events in the batch
+# + compress - Whether to gzip the batch
+# + return - The events separated by new lines, `()` if there is no event to publish or an error if the batch cannot
+#            be serialized
+public function nextAnalyticsBatch(int maxEvents, boolean compress) returns byte[]|error? {
+    return jNextAnalyticsBatch(maxEvents, compress);
+}
+
+# Releases the current batch once the analytics receiver has accepted it.
+public function acknowledgeAnalyticsBatch() {
+    jAcknowledgeAnalyticsBatch();
+}
+
+# Writes the current batch to the usage data file, so that it is uploaded with the usage data files.
+#
+# + return - An error if the batch cannot be spooled
+public function spoolAnalyticsBatch() returns error? {
+    return jSpoolAnalyticsBatch();
+}
+
+# Returns the number of analytics events waiting to be streamed to the analytics receiver.
+#
+# + return - Number of queued events
+public function getAnalyticsPublisherQueueDepth() returns int {
+    return jGetAnalyticsPublisherQueueDepth();
+}
+
+# Returns the number of analytics events spooled to the usage data file since startup.
+#
+# + return - Number of spooled events
+public function getSpooledAnalyticsEvents() returns int {
+    return jGetSpooledAnalyticsEvents();
+}
+
+function jInitAnalyticsPublisher(int queueCapacity) returns error? = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jPublishAnalyticsEvent(handle event) returns error? = @java:Method {
+    name: "publish",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jNextAnalyticsBatch(int maxEvents, boolean compress) returns byte[]|error? = @java:Method {
+    name: "nextBatch",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jAcknowledgeAnalyticsBatch() = @java:Method {
+    name: "acknowledge",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jSpoolAnalyticsBatch() returns error? = @java:Method {
+    name: "spool",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jGetAnalyticsPublisherQueueDepth() returns int = @java:Method {
+    name: "getQueueDepth",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
+
+function jGetSpooledAnalyticsEvents() returns int = @java:Method {
+    name: "getSpooledEvents",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventPublisher"
+} external;
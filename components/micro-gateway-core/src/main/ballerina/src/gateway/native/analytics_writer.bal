@@ -0,0 +1,161 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Opens the usage data file and starts the writer thread of the analytics event writer.
+#
+# + dirPath - Directory of the usage data file
+# + fileName - Name of the usage data file
+# + bufferSize - Size of the write buffer in bytes
+# + flushInterval - Maximum time in milliseconds an event stays in the buffer before it is written to the file
+# + queueCapacity - Number of events the ring buffer between the request path and the writer thread can hold
+# + overflowPolicy - What to do with new events when the ring buffer is full. One of `drop`, `sample` or `block`
+# + sampleRate - With the `sample` policy, one in this many events is kept once the ring buffer is half full
+# + compress - Whether to write the events through a streaming zip output, which is finalized on rotation
+# + recordFormat - `text` to write the events as they are, or `binary` to write them in the compact binary record
+#                  format with a per file dictionary
+# + rotateSize - Size in bytes at which the usage data file is rotated and compressed on a separate thread, or 0 to
+#                rotate it only on the rotating task
+# + return - An error if the usage data file cannot be opened
+public function initAnalyticsWriter(string dirPath, string fileName, int bufferSize, int flushInterval,
+        int queueCapacity, string overflowPolicy, int sampleRate, boolean compress, string recordFormat,
+        int rotateSize) returns error? {
+    return jInitAnalyticsWriter(java:fromString(dirPath), java:fromString(fileName), bufferSize, flushInterval,
+        queueCapacity, java:fromString(overflowPolicy), sampleRate, compress, java:fromString(recordFormat),
+        rotateSize);
+}
+
+# Hands an event over to the writer thread of the analytics event writer. Events which do not fit in the ring buffer
+# are handled according to the overflow policy.
+#
+# + event - Serialized event
+# + return - An error if the analytics event writer is not initialized
+public function writeAnalyticsEvent(string event) returns error? {
+    return jWriteAnalyticsEvent(java:fromString(event));
+}
+
+# Flushes the buffered events and moves the usage data file to the given path. Subsequent events are written to a
+# new usage data file. With streaming compression the moved file is a complete zip archive.
+#
+# + rotatedPath - Path to move the current usage data file to
+# + return - An error if the file is empty or cannot be moved
+public function rotateAnalyticsFile(string rotatedPath) returns error? {
+    return jRotateAnalyticsFile(java:fromString(rotatedPath));
+}
+
+# Notifies the upload task that a rotated usage data file is ready to be uploaded.
+public function notifyAnalyticsFileRotated() {
+    jNotifyAnalyticsFileRotated();
+}
+
+# Returns whether a usage data file was rotated since the last call, and clears the notification.
+#
+# + return - `true` if a usage data file was rotated since the last call
+public function consumeAnalyticsRotationNotification() returns boolean {
+    return jConsumeAnalyticsRotationNotification();
+}
+
+# Compresses the rotated usage data files which were left in their staging directories by a failed compression, so
+# that they are uploaded with the next files.
+#
+# + return - Number of compressed staging directories
+public function compressStagedAnalyticsFiles() returns int {
+    return jCompressStagedAnalyticsFiles();
+}
+
+# Compresses a staging directory of a rotated usage data file into a zip archive next to it and removes the directory.
+#
+# + stagingDir - Path of the staging directory
+# + return - Error if the directory could not be compressed
+public function compressAnalyticsStagingDirectory(string stagingDir) returns error? {
+    return jCompressAnalyticsStagingDirectory(java:fromString(stagingDir));
+}
+
+# Rewrites the entries of a rotated usage data archive which are in the binary record format in the text format, as
+# the analytics server only reads text records. Archives which are already in the text format are left as they are.
+#
+# + archivePath - Path of the zip archive
+# + return - Size of the archive in bytes after the conversion, or an error if it cannot be converted
+public function convertAnalyticsArchiveToText(string archivePath) returns int | error {
+    return jConvertAnalyticsArchiveToText(java:fromString(archivePath));
+}
+
+# Returns the number of analytics events waiting for the writer thread.
+#
+# + return - Number of queued events
+public function getAnalyticsQueueDepth() returns int {
+    return jGetAnalyticsQueueDepth();
+}
+
+# Returns the number of analytics events dropped since startup.
+#
+# + return - Number of dropped events
+public function getDroppedAnalyticsEvents() returns int {
+    return jGetDroppedAnalyticsEvents();
+}
+
+function jInitAnalyticsWriter(handle dirPath, handle fileName, int bufferSize, int flushInterval, int queueCapacity,
+        handle overflowPolicy, int sampleRate, boolean compress, handle recordFormat, int rotateSize)
+        returns error? = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jWriteAnalyticsEvent(handle event) returns error? = @java:Method {
+    name: "write",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jRotateAnalyticsFile(handle rotatedPath) returns error? = @java:Method {
+    name: "rotate",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jNotifyAnalyticsFileRotated() = @java:Method {
+    name: "notifyRotated",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jConsumeAnalyticsRotationNotification() returns boolean = @java:Method {
+    name: "consumeRotationNotification",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jCompressStagedAnalyticsFiles() returns int = @java:Method {
+    name: "compressStaged",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jCompressAnalyticsStagingDirectory(handle stagingDir) returns error? = @java:Method {
+    name: "compressStagingDirectory",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jConvertAnalyticsArchiveToText(handle archivePath) returns int | error = @java:Method {
+    name: "convertArchiveToText",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jGetAnalyticsQueueDepth() returns int = @java:Method {
+    name: "getQueueDepth",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
+
+function jGetDroppedAnalyticsEvents() returns int = @java:Method {
+    name: "getDroppedEvents",
+    class: "org.wso2.micro.gateway.core.analytics.AnalyticsEventWriter"
+} external;
@@ -0,0 +1,57 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Classifies the value of an authorization header with a single scan.
+#
+# + authHeader - Value of the authorization header
+# + return - One of `AUTHN_SCHEME_BASIC`, `AUTH_SCHEME_JWT` (for bearer tokens with three segments) or
+#            `AUTH_SCHEME_OAUTH2` (for bearer tokens with fewer segments). An empty string is returned if the header
+#            does not carry a credential which an auth handler accepts
+public function classifyAuthHeader(string authHeader) returns string {
+    return getAuthSchemeName(jClassifyAuthHeader(java:fromString(authHeader)));
+}
+
+# Classifies a token to pick the auth provider which handles it, such as the value of an auth cookie or of a bearer
+# authorization header.
+#
+# + token - Token value
+# + return - `AUTH_SCHEME_JWT` if the token contains a dot, otherwise `AUTH_SCHEME_OAUTH2`
+public function classifyToken(string token) returns string {
+    return getAuthSchemeName(jClassifyToken(java:fromString(token)));
+}
+
+function getAuthSchemeName(int scheme) returns string {
+    if (scheme == 1) {
+        return AUTHN_SCHEME_BASIC;
+    } else if (scheme == 2) {
+        return AUTH_SCHEME_JWT;
+    } else if (scheme == 3) {
+        return AUTH_SCHEME_OAUTH2;
+    }
+    return "";
+}
+
+function jClassifyAuthHeader(handle authHeader) returns int = @java:Method {
+    name: "classifyAuthHeader",
+    class: "org.wso2.micro.gateway.core.utils.AuthSchemeUtils"
+} external;
+
+function jClassifyToken(handle token) returns int = @java:Method {
+    name: "classifyToken",
+    class: "org.wso2.micro.gateway.core.utils.AuthSchemeUtils"
+} external;
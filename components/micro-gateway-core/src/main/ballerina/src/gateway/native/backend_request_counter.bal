@@ -0,0 +1,55 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Creates the counter of the requests in flight to a backend endpoint, if it does not exist yet.
+#
+# + endpointName - Name of the endpoint
+public function registerBackendRequestCounter(string endpointName) {
+    jRegisterBackendRequestCounter(java:fromString(endpointName));
+}
+
+# Counts a request which is about to be sent to a backend endpoint.
+#
+# + endpointName - Name of the endpoint
+# + return - Requests in flight to the endpoint, including this one, or -1 if the endpoint has no counter
+public function incrementBackendRequests(string endpointName) returns int {
+    return jIncrementBackendRequests(java:fromString(endpointName));
+}
+
+# Counts a request to a backend endpoint as completed.
+#
+# + endpointName - Name of the endpoint
+# + return - Requests still in flight to the endpoint, or -1 if the endpoint has no counter
+public function decrementBackendRequests(string endpointName) returns int {
+    return jDecrementBackendRequests(java:fromString(endpointName));
+}
+
+function jRegisterBackendRequestCounter(handle endpointName) = @java:Method {
+    name: "register",
+    class: "org.wso2.micro.gateway.core.observability.BackendRequestCounter"
+} external;
+
+function jIncrementBackendRequests(handle endpointName) returns int = @java:Method {
+    name: "increment",
+    class: "org.wso2.micro.gateway.core.observability.BackendRequestCounter"
+} external;
+
+function jDecrementBackendRequests(handle endpointName) returns int = @java:Method {
+    name: "decrement",
+    class: "org.wso2.micro.gateway.core.observability.BackendRequestCounter"
+} external;
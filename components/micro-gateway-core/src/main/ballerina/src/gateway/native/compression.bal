@@ -27,6 +27,14 @@ public function compress(string dirPath, string destDir) returns error? {
     return jCompress(sourceDir, destZipDir);
 }
 
+# Sets the compression level and the number of files compressed in parallel.
+#
+# + level - Deflate level from 0 (no compression) to 9 (best compression), or -1 for the default level
+# + threads - Maximum number of files of a directory deflated in parallel
+public function configureCompression(int level, int threads) {
+    jConfigureCompression(level, threads);
+}
+
 
 
 function jCompress(handle sourceDir, handle destZipDir) returns error? = @java:Method {
@@ -34,4 +42,7 @@ function jCompress(handle sourceDir, handle destZipDir) returns error? = @java:M
     class: "org.wso2.micro.gateway.core.compression.Compress"
 } external;
 
-
+function jConfigureCompression(int level, int threads) = @java:Method {
+    name: "configure",
+    class: "org.wso2.micro.gateway.core.compression.Compress"
+} external;
@@ -0,0 +1,126 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Starts a time boxed profile of the request pipeline, unless one is running already.
+#
+# + stages - Names of the request stages, in the order of the STAGE_* indexes
+# + duration - How long the profile runs, in milliseconds
+# + topRequests - Number of the slowest requests kept with their stage breakdown
+# + sampleInterval - How often the thread stacks are sampled, in milliseconds
+# + return - An error if a profile is running already
+public function startProfiling(string[] stages, int duration, int topRequests, int sampleInterval) returns error? {
+    string stageList = "";
+    foreach string stage in stages {
+        stageList += stageList == "" ? stage : "," + stage;
+    }
+    return jStartProfiling(java:fromString(stageList), duration, topRequests, sampleInterval);
+}
+
+# Returns whether a profile is running, in which case the requests should be profiled.
+#
+# + return - `true` if a profile is running
+public function isProfilingActive() returns boolean {
+    return jIsProfilingActive();
+}
+
+# Starts profiling a request.
+#
+# + return - The profile of the request, to be passed to `endProfiledStage` and `endRequestProfile`
+public function startRequestProfile() returns handle {
+    return jStartRequestProfile();
+}
+
+# Adds a stage of a request to the running profile.
+#
+# + profile - The profile of the request
+# + stage - One of the STAGE_* indexes
+# + duration - Duration of the stage in nanoseconds
+public function endProfiledStage(handle profile, int stage, int duration) {
+    jEndProfiledStage(profile, stage, duration);
+}
+
+# Completes the profile of a request.
+#
+# + profile - The profile of the request
+# + resource - Service and resource of the request
+# + messageId - Message id of the request
+public function endRequestProfile(handle profile, string 'resource, string messageId) {
+    jEndRequestProfile(profile, java:fromString('resource), java:fromString(messageId));
+}
+
+# Returns the per stage timers and the slowest requests of the last profile.
+#
+# + return - The report as a JSON string
+public function getProfilingReport() returns string {
+    return jGetProfilingReport().toString();
+}
+
+# Returns the thread stacks sampled during the last profile in the folded format used by flame graph tools.
+#
+# + return - One stack and its sample count per line
+public function getProfiledStacks() returns string {
+    return jGetProfiledStacks().toString();
+}
+
+# Returns the JFR recording of the last profile.
+#
+# + return - The recording, or an error if the JVM does not support JFR or the profile is still running
+public function getProfilingRecording() returns byte[] | error {
+    return jGetProfilingRecording();
+}
+
+function jStartProfiling(handle stages, int duration, int topRequests, int sampleInterval) returns error? =
+@java:Method {
+    name: "start",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jIsProfilingActive() returns boolean = @java:Method {
+    name: "isActive",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jStartRequestProfile() returns handle = @java:Method {
+    name: "startRequest",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jEndProfiledStage(handle profile, int stage, int duration) = @java:Method {
+    name: "endStage",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jEndRequestProfile(handle profile, handle 'resource, handle messageId) = @java:Method {
+    name: "endRequest",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jGetProfilingReport() returns handle = @java:Method {
+    name: "getReport",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jGetProfiledStacks() returns handle = @java:Method {
+    name: "getFoldedStacks",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
+
+function jGetProfilingRecording() returns byte[] | error = @java:Method {
+    name: "getRecording",
+    class: "org.wso2.micro.gateway.core.observability.RequestProfiler"
+} external;
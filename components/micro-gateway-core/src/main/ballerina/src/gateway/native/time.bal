@@ -0,0 +1,26 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Returns the value of the JVM's monotonic high resolution clock. The value has no relation to the wall clock time,
+# hence it should only be used to measure durations by subtracting two values.
+#
+# + return - Current value of the monotonic clock in nanoseconds
+public function getCurrentTimeNanos() returns int = @java:Method {
+    name: "nanoTime",
+    class: "java.lang.System"
+} external;
@@ -0,0 +1,42 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerinax/java;
+
+# Configures the head based sampling of the gateway spans.
+#
+# + sampleRate - Fraction of the requests which are traced, from 0 to 1
+# + maxTracesPerSecond - Maximum number of requests traced in a second, or 0 for no limit
+public function initTraceSampler(float sampleRate, int maxTracesPerSecond) {
+    jInitTraceSampler(sampleRate, maxTracesPerSecond);
+}
+
+# Decides whether the spans of a new request are recorded.
+#
+# + return - `true` if the request should be traced
+public function isTraceSampled() returns boolean {
+    return jIsTraceSampled();
+}
+
+function jInitTraceSampler(float sampleRate, int maxTracesPerSecond) = @java:Method {
+    name: "init",
+    class: "org.wso2.micro.gateway.core.observability.TraceSampler"
+} external;
+
+function jIsTraceSampled() returns boolean = @java:Method {
+    name: "isSampled",
+    class: "org.wso2.micro.gateway.core.observability.TraceSampler"
+} external;
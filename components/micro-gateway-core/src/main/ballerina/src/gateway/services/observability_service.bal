@@ -15,11 +15,10 @@
 // under the License.
 
 import ballerina/http;
+import ballerina/lang.'int;
 
-int bal_metric_port = getConfigIntValue(MICRO_GATEWAY_METRICS_PORTS, PORT, 9797);
 int jmx_metric_port = getConfigIntValue(MICRO_GATEWAY_METRICS_PORTS, JMX_PORT, 8080);
 
-http:Client balMetricEndpoint = new ("http://localhost:" + bal_metric_port.toString());
 http:Client jmxMetricEndpoint = new ("http://localhost:" + jmx_metric_port.toString());
 
 
@@ -36,17 +35,10 @@ service {
         path: "/metrics"
     }
     resource function balMetric(http:Caller caller, http:Request req) returns error? {
-
-        var bal_response = balMetricEndpoint->forward("/metrics", <@untainted>req);
-
-        if (bal_response is http:Response) {
-            var result = caller->respond(bal_response);
-        } else {
-            http:Response res = new;
-            res.statusCode = 500;
-            res.setPayload(<string>bal_response.detail()?.message);
-            var result = caller->respond(res);
-        }
+        // Rendered from the in-process metric registry, without a request to the Prometheus reporter.
+        http:Response res = new;
+        res.setTextPayload(getPrometheusMetrics(), contentType = PROMETHEUS_CONTENT_TYPE);
+        var result = caller->respond(res);
     }
 
     @http:ResourceConfig {
@@ -68,10 +60,98 @@ service {
 
 };
 
+// Captures time boxed profiles of the request pipeline, if enabled with `[b7a.observability.profiling] enabled`.
+service profiler =
+@http:ServiceConfig {
+    basePath: "/profile",
+    auth: {
+        scopes: ["observability"]
+    }
+}
+service {
+
+    @http:ResourceConfig {
+        methods: ["POST"],
+        path: "/start"
+    }
+    resource function startProfile(http:Caller caller, http:Request req) returns error? {
+        int maxDuration = getConfigIntValue(MICRO_GATEWAY_PROFILING, PROFILING_MAX_DURATION, 300000);
+        int duration = 30000;
+        string? durationParam = req.getQueryParamValue(PROFILING_DURATION_PARAM);
+        if (durationParam is string) {
+            int | error value = 'int:fromString(durationParam);
+            if (value is int && value > 0) {
+                duration = value;
+            }
+        }
+        duration = duration > maxDuration ? maxDuration : duration;
+        error? result = startProfiling(stageNames, duration,
+            getConfigIntValue(MICRO_GATEWAY_PROFILING, PROFILING_TOP_REQUESTS, 10),
+            getConfigIntValue(MICRO_GATEWAY_PROFILING, PROFILING_STACK_SAMPLE_INTERVAL, 20));
+        http:Response res = new;
+        if (result is error) {
+            res.statusCode = 409;
+            res.setTextPayload(<string>result.detail()?.message);
+        } else {
+            res.statusCode = 202;
+            res.setJsonPayload({duration: duration});
+        }
+        var response = caller->respond(res);
+    }
+
+    @http:ResourceConfig {
+        methods: ["GET"],
+        path: "/"
+    }
+    resource function getProfile(http:Caller caller, http:Request req) returns error? {
+        http:Response res = new;
+        res.setTextPayload(getProfilingReport(), contentType = APPLICATION_JSON);
+        var result = caller->respond(res);
+    }
+
+    @http:ResourceConfig {
+        methods: ["GET"],
+        path: "/stacks"
+    }
+    resource function getStacks(http:Caller caller, http:Request req) returns error? {
+        http:Response res = new;
+        res.setTextPayload(getProfiledStacks());
+        var result = caller->respond(res);
+    }
+
+    @http:ResourceConfig {
+        methods: ["GET"],
+        path: "/jfr"
+    }
+    resource function getRecording(http:Caller caller, http:Request req) returns error? {
+        http:Response res = new;
+        byte[] | error recording = getProfilingRecording();
+        if (recording is byte[]) {
+            res.setBinaryPayload(recording);
+            res.setHeader(CONTENT_DISPOSITION_HEADER, "attachment; filename=\"gateway-profile.jfr\"");
+        } else {
+            res.statusCode = 404;
+            res.setTextPayload(<string>recording.detail()?.message);
+        }
+        var result = caller->respond(res);
+    }
+};
+
 public function startObservabilityListener() {
+    if (isTracingEnabled) {
+        initTraceSampler(getConfigFloatValue(MICRO_GATEWAY_TRACING, TRACING_SAMPLE_RATE, 1.0),
+            getConfigIntValue(MICRO_GATEWAY_TRACING, TRACING_MAX_TRACES_PER_SECOND, 0));
+    }
+    if (!isMetricsEnabled && !isProfilingEnabled) {
+        return;
+    }
+    ObservabilityMetricListener observabilityMetricListner = new;
     if (isMetricsEnabled) {
-        ObservabilityMetricListener observabilityMetricListner = new;
+        initGatewayStateMetrics();
         error? err = observabilityMetricListner.__attach(metric, ());
-        error? err1 = observabilityMetricListner.__start();
     }
+    if (isProfilingEnabled) {
+        error? err = observabilityMetricListner.__attach(profiler, ());
+    }
+    error? err1 = observabilityMetricListner.__start();
 }
@@ -17,10 +17,12 @@
 import ballerina/config;
 import ballerina/http;
 import ballerina/runtime;
+import ballerina/stringutils;
 import ballerina/time;
 
 boolean isAnalyticsEnabled = false;
 boolean configsRead = false;
+boolean isAnalyticsAggregationEnabled = false;
 
 function populateThrottleAnalyticsDTO(http:FilterContext context) returns (ThrottleAnalyticsEventDTO | error) {
     boolean isSecured = <boolean>context.attributes[IS_SECURED];
@@ -33,7 +35,7 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
 
-    map<json> metaInfo = {};
+    string keyType = PRODUCTION_KEY_TYPE;
     eventDto.userTenantDomain = getTenantDomain(context);
     eventDto.apiName = getApiName(context);
     eventDto.apiContext = getContext(context);
@@ -46,14 +48,13 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
     if (isSecured) {
         AuthenticationContext authContext = <AuthenticationContext>runtime:getInvocationContext()
         .attributes[AUTHENTICATION_CONTEXT];
-        metaInfo["keyType"] = authContext.keyType;
+        keyType = authContext.keyType;
         eventDto.userName = authContext.username;
         eventDto.apiCreator = authContext.apiPublisher;
         eventDto.applicationName = authContext.applicationName;
         eventDto.applicationId = authContext.applicationId;
         eventDto.subscriber = authContext.subscriber;
     } else {
-        metaInfo["keyType"] = PRODUCTION_KEY_TYPE;
         eventDto.userName = END_USER_ANONYMOUS;
         APIConfiguration? apiConfig = apiConfigAnnotationMap[context.getServiceName()];
         if (apiConfig is APIConfiguration) {
@@ -65,8 +66,7 @@ function populateThrottleAnalyticsDTO(http:FilterContext context) returns (Throt
         eventDto.subscriber = END_USER_ANONYMOUS;
     }
 
-    metaInfo["correlationID"] = <string>context.attributes[MESSAGE_ID];
-    eventDto.metaClientType = metaInfo.toString();
+    eventDto.metaClientType = getAnalyticsMetaData(META_KEY_TYPE, keyType, <string>context.attributes[MESSAGE_ID]);
     printDebug(KEY_ANALYTICS_FILTER, "Throttle Event DTO : " + eventDto.toString());
     return eventDto;
 }
@@ -76,7 +76,8 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
     FaultDTO eventDto = {};
     time:Time time = time:currentTime();
     int currentTimeMills = time.time;
-    map<json> metaInfo = {};
+    string keyType = PRODUCTION_KEY_TYPE;
+    RequestResponseExecutionDTO analyticsData = getAnalyticsEventData();
 
     eventDto.apiContext = getContext(context);
     APIConfiguration? apiConfig = apiConfigAnnotationMap[context.getServiceName()];
@@ -90,16 +91,16 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
         var resource_Path = httpResourceConfig.path;
         eventDto.resourcePath = resource_Path;
     }
-    eventDto.method = <string>context.attributes[API_METHOD_PROPERTY];
+    eventDto.method = analyticsData.apiMethod;
     eventDto.errorCode = <int>runtime:getInvocationContext().attributes[ERROR_RESPONSE_CODE];
     eventDto.errorMessage = err;
     eventDto.faultTime = currentTimeMills;
     eventDto.apiCreatorTenantDomain = getTenantDomain(context);
     eventDto.hostName = retrieveHostname(DATACENTER_ID, <string>context.attributes[HOSTNAME_PROPERTY]);
-    eventDto.protocol = <string>context.attributes[PROTOCOL_PROPERTY];
+    eventDto.protocol = analyticsData.protocol;
     if (isSecured && context.attributes.hasKey(AUTHENTICATION_CONTEXT)) {
         AuthenticationContext authContext = <AuthenticationContext>context.attributes[AUTHENTICATION_CONTEXT];
-        metaInfo["keyType"] = authContext.keyType;
+        keyType = authContext.keyType;
         eventDto.consumerKey = authContext.consumerKey;
         eventDto.apiCreator = authContext.apiPublisher;
         eventDto.userName = authContext.username;
@@ -107,7 +108,6 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
         eventDto.applicationId = authContext.applicationId;
         eventDto.userTenantDomain = authContext.subscriberTenantDomain;
     } else {
-        metaInfo["keyType"] = PRODUCTION_KEY_TYPE;
         eventDto.consumerKey = ANONYMOUS_CONSUMER_KEY;
         APIConfiguration? apiConfigs = apiConfigAnnotationMap[context.getServiceName()];
         if (apiConfigs is APIConfiguration) {
@@ -119,12 +119,22 @@ function populateFaultAnalyticsDTO(http:FilterContext context, string err) retur
         eventDto.applicationId = ANONYMOUS_APP_ID;
         eventDto.userTenantDomain = ANONYMOUS_USER_TENANT_DOMAIN;
     }
-    metaInfo["correlationID"] = <string>context.attributes[MESSAGE_ID];
-    eventDto.metaClientType = metaInfo.toString();
+    eventDto.metaClientType = getAnalyticsMetaData(META_KEY_TYPE, keyType, <string>context.attributes[MESSAGE_ID]);
     return eventDto;
 }
 
 
+# Builds the meta data of an analytics event. The JSON text is written directly instead of serializing a temporary
+# json value, as every event has the same two fields.
+#
+# + keyTypeName - Name of the key type field
+# + keyType - Key type of the request
+# + correlationId - Correlation ID of the request
+# + return - Meta data of the event
+function getAnalyticsMetaData(string keyTypeName, string keyType, string correlationId) returns string {
+    return "{\"" + keyTypeName + "\":\"" + keyType + "\", \"correlationID\":\"" + correlationId + "\"}";
+}
+
 function getAnalyticsEnableConfig() {
     map<any> vals = getConfigMapValue(ANALYTICS);
     isAnalyticsEnabled = <boolean>vals[ENABLE];
@@ -143,6 +153,9 @@ function initializeAnalytics() {
             printDebug(KEY_ANALYTICS_FILTER, "Analytics is enabled");
             future<()> uploadTask = start timerTask();            // file uploading task
             future<()> rotateTask = start rotatingTask();        // file rotating task
+            if (isStreamPublisherMode()) {
+                future<()> publishTask = start streamPublishingTask();        // event publishing task
+            }
         } else {
             printDebug(KEY_ANALYTICS_FILTER, "Analytics is disabled");
         }
@@ -150,10 +163,75 @@ function initializeAnalytics() {
 }
 
 function initStreamPublisher() {
+    string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR);
+    int bufferSize = getConfigIntValue(ANALYTICS, ANALYTICS_WRITER_BUFFER_SIZE, DEFAULT_ANALYTICS_WRITER_BUFFER_SIZE);
+    int flushInterval = getConfigIntValue(ANALYTICS, ANALYTICS_WRITER_FLUSH_INTERVAL,
+        DEFAULT_ANALYTICS_WRITER_FLUSH_INTERVAL);
+    int queueCapacity = getConfigIntValue(ANALYTICS, ANALYTICS_WRITER_QUEUE_CAPACITY,
+        DEFAULT_ANALYTICS_WRITER_QUEUE_CAPACITY);
+    string overflowPolicy = getConfigValue(ANALYTICS, ANALYTICS_WRITER_OVERFLOW_POLICY,
+        DEFAULT_ANALYTICS_WRITER_OVERFLOW_POLICY);
+    int sampleRate = getConfigIntValue(ANALYTICS, ANALYTICS_WRITER_SAMPLE_RATE, DEFAULT_ANALYTICS_WRITER_SAMPLE_RATE);
+    boolean compress = getConfigBooleanValue(ANALYTICS, ANALYTICS_WRITER_STREAMING_COMPRESSION, false);
+    string recordFormat = getConfigValue(ANALYTICS, ANALYTICS_WRITER_RECORD_FORMAT,
+        DEFAULT_ANALYTICS_WRITER_RECORD_FORMAT);
+    int rotateSize = getConfigIntValue(ANALYTICS, ROTATING_SIZE, DEFAULT_ROTATING_SIZE);
+    configureCompression(getConfigIntValue(ANALYTICS, COMPRESSION_LEVEL, DEFAULT_COMPRESSION_LEVEL),
+        getConfigIntValue(ANALYTICS, COMPRESSION_THREADS, DEFAULT_COMPRESSION_THREADS));
+    var result = initAnalyticsWriter(fileLocation, API_USAGE_FILE, bufferSize, flushInterval, queueCapacity,
+        overflowPolicy, sampleRate, compress, recordFormat, rotateSize);
+    if (result is error) {
+        printFullError(KEY_UTILS, result);
+    }
+    initAnalyticsQueueGauges();
+    boolean streamPublisherMode = isStreamPublisherMode();
+    isAnalyticsAggregationEnabled = getConfigBooleanValue(ANALYTICS, ANALYTICS_AGGREGATION_ENABLED, false);
+    float rawEventSampleRate = getConfigFloatValue(ANALYTICS, ANALYTICS_RAW_EVENT_SAMPLE_RATE, 1.0);
+    if (isAnalyticsAggregationEnabled || rawEventSampleRate < 1.0) {
+        initAnalyticsAggregator(rawEventSampleRate, streamPublisherMode, getConfigIntValue(ANALYTICS,
+            ANALYTICS_AGGREGATION_FLUSH_INTERVAL, DEFAULT_ANALYTICS_AGGREGATION_FLUSH_INTERVAL));
+    }
+    if (streamPublisherMode) {
+        // The usage data file is still used to spool the events which cannot be streamed to the receiver.
+        int streamQueueCapacity = getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_QUEUE_CAPACITY,
+            DEFAULT_ANALYTICS_STREAM_QUEUE_CAPACITY);
+        var publisherResult = initAnalyticsPublisher(streamQueueCapacity);
+        if (publisherResult is error) {
+            printFullError(KEY_UTILS, publisherResult);
+        }
+        initAnalyticsPublisherGauges();
+        printDebug(KEY_UTILS, "Subscribing publishing method to event stream");
+        eventStream.subscribe(publishEventToStream);
+        return;
+    }
     printDebug(KEY_UTILS, "Subscribing writing method to event stream");
     eventStream.subscribe(writeEventToFile);
 }
 
+function isStreamPublisherMode() returns boolean {
+    string publisherMode = getConfigValue(ANALYTICS, ANALYTICS_PUBLISHER_MODE, ANALYTICS_PUBLISHER_MODE_FILE);
+    return stringutils:equalsIgnoreCase(publisherMode, ANALYTICS_PUBLISHER_MODE_STREAM);
+}
+
+function getAnalyticsStreamingClientConfig() returns http:ClientConfiguration {
+    http:ClientConfiguration clientConfig = {
+        cache: {enabled: false},
+        secureSocket: {
+            trustStore: {
+                path: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PATH,
+                "${ballerina.home}/bre/security/ballerinaTruststore.p12"),
+                password: getConfigValue(LISTENER_CONF_INSTANCE_ID, TRUST_STORE_PASSWORD, "ballerina")
+            },
+            verifyHostname: getConfigBooleanValue(HTTP_CLIENTS_INSTANCE_ID, ENABLE_HOSTNAME_VERIFICATION, true)
+        },
+        timeoutInMillis: getConfigIntValue(ANALYTICS, ANALYTICS_STREAM_TIMEOUT, DEFAULT_ANALYTICS_STREAM_TIMEOUT)
+    };
+    if (getConfigBooleanValue(ANALYTICS, ANALYTICS_STREAM_ENABLE_HTTP2, true)) {
+        clientConfig.httpVersion = HTTP2;
+    }
+    return clientConfig;
+}
+
 public function retrieveHostname(string key, string defaultHost) returns string {
     return config:getAsString(key, defaultHost);
 }
@@ -15,12 +15,51 @@
 // under the License.
 
 import ballerina/http;
+import ballerina/io;
 import ballerina/log;
 import ballerina/observe;
 import ballerina/runtime;
+import ballerina/task;
 
 boolean isTracingEnabled = getConfigBooleanValue(MICRO_GATEWAY_TRACING, ENABLED, false);
 boolean isMetricsEnabled = getConfigBooleanValue(MICRO_GATEWAY_METRICS, ENABLED, false);
+boolean isServerTimingEnabled = getConfigBooleanValue(SERVER_TIMING_INSTANCE_ID, ENABLED, false);
+boolean isProfilingEnabled = getConfigBooleanValue(MICRO_GATEWAY_PROFILING, ENABLED, false);
+// Metric names of the stages in the Server-Timing header, in the order of the STAGE_* indexes.
+string[] stageNames = ["preauthn", "jwt", "oauth2", "basic", "mtls", "authz", "subscription", "throttle", "backend",
+    "response"];
+observe:Gauge? keyManagerActiveRequestsGauge = ();
+observe:Gauge? keyManagerRequestDurationGauge = ();
+// Connection pool usage of the backend endpoints which have a connection pool configured, keyed by the endpoint name.
+// Only replaced as a whole, under a lock, hence read without one.
+map<BackendPool> backendPools = {};
+// Hit and miss counters of the gateway caches, keyed by the cache name and the result.
+map<observe:Counter> cacheLookupCounters = {};
+map<observe:Gauge> cacheSizeGauges = {};
+observe:Gauge? throttledKeysGauge = ();
+observe:Gauge? blockConditionsGauge = ();
+observe:Gauge? revokedTokensGauge = ();
+observe:Gauge? analyticsQueueDepthGauge = ();
+observe:Gauge? analyticsDroppedEventsGauge = ();
+observe:Gauge? analyticsUploadedFilesGauge = ();
+observe:Gauge? analyticsUploadedBytesGauge = ();
+observe:Gauge? analyticsUploadFailuresGauge = ();
+observe:Gauge? analyticsUploadThroughputGauge = ();
+observe:Gauge? analyticsPublisherQueueDepthGauge = ();
+observe:Gauge? analyticsSpooledEventsGauge = ();
+// Latency histograms of the filters, keyed by the filter category, service and resource. The gauges keep their
+// statistics in HdrHistogram based snapshots, so recording a value does not take a lock. Both maps are only filled at
+// startup, before the listeners accept requests, hence read without a lock.
+map<observe:Gauge> filterLatencyGauges = {};
+map<observe:Gauge> filterTotalLatencyGauges = {};
+// Latency histograms created after startup, such as the ones of the resources of the token services, keyed like the
+// maps above. Only read and updated under a lock.
+map<observe:Gauge> lateFilterLatencyGauges = {};
+// Instrumentation of the filters and auth handlers, keyed by their *_ID. Filters and handlers which are not listed
+// are not instrumented.
+map<Instrumentation> instrumentationTable = buildInstrumentationTable();
+string[] filterCategories = [FILTER_AUTHENTICATION, FILTER_THROTTLING, FILTER_ANALYTICS];
+observe:StatisticConfig[] filterLatencyStatistics = [{percentiles: [0.5, 0.75, 0.95, 0.99, 0.999]}];
 
 //metrics related methods
 public function initializeGauge(string name, string description, map<string> | () gaugeTags) returns observe:Gauge | () {
@@ -33,13 +72,17 @@ public function initializeGauge(string name, string description, map<string> | (
     return localGauge;
 }
 
+# Returns the time elapsed since `starting` in milliseconds, with the fraction of a millisecond.
+#
+# + starting - time the measurement started at, as returned by `getCurrentTimeNanos`
+# + return - the elapsed time in milliseconds, or () if metrics are disabled
 public function setGaugeDuration(int starting) returns float | () {
     if (isMetricsEnabled == false) {
         return ();
     }
 
-    int ending = getCurrentTime();
-    float latency = (ending - starting) * 1.0;
+    int ending = getCurrentTimeNanos();
+    float latency = <float>(ending - starting) / 1000000.0;
     return (latency);
 }
 
@@ -58,50 +101,483 @@ public function registerGauge(observe:Gauge gauge) {
     }
 }
 
-public function gaugeTagDetails(http:Request request, http:FilterContext context, string category) returns map<string> | () {
+# Registers the gauges which report the connection pool usage of the key manager clients.
+#
+# + poolConfig - the pool configuration shared by the key validation and introspection clients
+public function initKeyManagerClientGauges(http:PoolConfiguration poolConfig) {
     if (isMetricsEnabled == false) {
-        return ();
+        return;
+    }
+    observe:Gauge activeRequestsGauge = new (KM_CLIENT_ACTIVE_REQUESTS,
+        "Number of in-flight requests from the gateway to the key manager", ());
+    registerGauge(activeRequestsGauge);
+    keyManagerActiveRequestsGauge = activeRequestsGauge;
+    observe:Gauge maxActiveGauge = new (KM_CLIENT_MAX_ACTIVE_CONNECTIONS,
+        "Maximum active connections allowed in the key manager client pool", ());
+    registerGauge(maxActiveGauge);
+    maxActiveGauge.setValue(<float>poolConfig.maxActiveConnections);
+    observe:Gauge maxIdleGauge = new (KM_CLIENT_MAX_IDLE_CONNECTIONS,
+        "Maximum idle connections kept in the key manager client pool", ());
+    registerGauge(maxIdleGauge);
+    maxIdleGauge.setValue(<float>poolConfig.maxIdleConnections);
+    observe:Gauge requestDurationGauge = new (KM_REQUEST_DURATION,
+        "Duration of the requests from the gateway to the key manager in milliseconds", (),
+        filterLatencyStatistics);
+    registerGauge(requestDurationGauge);
+    keyManagerRequestDurationGauge = requestDurationGauge;
+}
+
+# Connection pool usage of a backend endpoint. The http client does not expose its pool, hence the usage is derived
+# from the requests in flight to the endpoint and the limit of active connections of the pool.
+#
+# + maxActiveConnections - maximum active connections of the pool, -1 for no limit
+# + inFlightGauge - gauge of the requests in flight to the endpoint
+# + queuedGauge - gauge of the requests in flight above the limit of active connections
+type BackendPool record {|
+    int maxActiveConnections;
+    observe:Gauge inFlightGauge;
+    observe:Gauge queuedGauge;
+|};
+
+# Returns the connection pool configuration of a backend endpoint and registers the pool usage gauges of the endpoint.
+# Called by the generated clients of the endpoints which have a `connectionPool` in their endpoint extension.
+#
+# + endpointName - key of the endpoint, unique to its client: the service name, the resource key of resource level
+#                  endpoints and `prod` or `sand`
+# + maxActiveConnections - maximum active connections, -1 for no limit
+# + maxIdleConnections - maximum idle connections kept in the pool
+# + waitTimeInMillis - time a request waits for a connection when all the connections are active
+# + maxActiveStreamsPerConnection - maximum active HTTP/2 streams per connection
+# + return - the pool configuration of the http client
+public function getBackendPoolConfig(string endpointName, int maxActiveConnections, int maxIdleConnections,
+        int waitTimeInMillis, int maxActiveStreamsPerConnection) returns http:PoolConfiguration {
+    http:PoolConfiguration poolConfig = {
+        maxActiveConnections: maxActiveConnections,
+        maxIdleConnections: maxIdleConnections,
+        waitTimeInMillis: waitTimeInMillis,
+        maxActiveStreamsPerConnection: maxActiveStreamsPerConnection
+    };
+    if (isMetricsEnabled == false) {
+        return poolConfig;
+    }
+    lock {
+        // The clients of the endpoints with etcd keys are created again when the url changes.
+        if (!backendPools.hasKey(endpointName)) {
+            map<string> tags = {"Endpoint": endpointName};
+            observe:Gauge inFlightGauge = new (BACKEND_IN_FLIGHT_REQUESTS,
+                "Requests in flight to the endpoint", tags);
+            registerGauge(inFlightGauge);
+            observe:Gauge queuedGauge = new (BACKEND_QUEUED_REQUESTS,
+                "Requests in flight to the endpoint above the maximum active connections of its pool", tags);
+            registerGauge(queuedGauge);
+            registerBackendRequestCounter(endpointName);
+            // The map is replaced instead of updated, so that the requests can read it without taking the lock.
+            map<BackendPool> pools = {};
+            foreach var [name, pool] in backendPools.entries() {
+                pools[name] = pool;
+            }
+            pools[endpointName] = {
+                maxActiveConnections: maxActiveConnections,
+                inFlightGauge: inFlightGauge,
+                queuedGauge: queuedGauge
+            };
+            backendPools = pools;
+        }
     }
+    return poolConfig;
+}
 
-    map<string> gaugeTags = {"Category": category, "Method": request.method, "ServicePath": request.rawPath, "Service": context.getServiceName()};
-    return gaugeTags;
+# Marks the start of a request to a backend endpoint in the pool usage metrics.
+#
+# + endpointName - key of the endpoint, unique to its client: the service name, the resource key of resource level
+#                  endpoints and `prod` or `sand`
+public function startBackendRequest(string endpointName) {
+    BackendPool? pool = backendPools[endpointName];
+    if (pool is BackendPool) {
+        setBackendPoolGauges(pool, incrementBackendRequests(endpointName));
+    }
 }
 
-public function gaugeTagDetails_authn(http:Request request, string category) returns map<string> | () {
+# Marks the end of a request to a backend endpoint in the pool usage metrics, and reports the outcome of the request
+# to the adaptive load balancer of the endpoint.
+#
+# + endpointName - key of the endpoint, unique to its client: the service name, the resource key of resource level
+#                  endpoints and `prod` or `sand`
+# + clientResponse - response of the endpoint
+public function endBackendRequest(string endpointName, http:Response|error clientResponse) {
+    BackendPool? pool = backendPools[endpointName];
+    if (pool is BackendPool) {
+        setBackendPoolGauges(pool, decrementBackendRequests(endpointName));
+    }
+    completeLoadBalancerSelection(endpointName, clientResponse);
+}
+
+function setBackendPoolGauges(BackendPool pool, int inFlight) {
+    if (inFlight < 0) {
+        return;
+    }
+    int queued = 0;
+    if (pool.maxActiveConnections > 0 && inFlight > pool.maxActiveConnections) {
+        queued = inFlight - pool.maxActiveConnections;
+    }
+    pool.inFlightGauge.setValue(<float>inFlight);
+    pool.queuedGauge.setValue(<float>queued);
+}
+
+# Marks the start of a request to the key manager in the pool usage metrics.
+#
+# + return - the time the request started at, to be passed to `endKeyManagerRequest`
+public function startKeyManagerRequest() returns int {
+    observe:Gauge? gauge = keyManagerActiveRequestsGauge;
+    if (gauge is observe:Gauge) {
+        gauge.increment();
+    }
+    return getCurrentTimeNanos();
+}
+
+# Marks the end of a request to the key manager in the pool usage metrics and records its duration.
+#
+# + startingTime - the time returned by `startKeyManagerRequest`
+public function endKeyManagerRequest(int startingTime) {
+    observe:Gauge? gauge = keyManagerActiveRequestsGauge;
+    if (gauge is observe:Gauge) {
+        gauge.decrement();
+    }
+    observe:Gauge? durationGauge = keyManagerRequestDurationGauge;
+    if (durationGauge is observe:Gauge) {
+        durationGauge.setValue(<float>(getCurrentTimeNanos() - startingTime) / 1000000.0);
+    }
+}
+
+# Registers the metrics of the gateway caches, the throttle data and the revoked tokens, and starts the task which
+# refreshes the size gauges. The request path only increments the pre-registered cache counters, while the sizes
+# are read by the task every `state_metrics_interval` milliseconds.
+public function initGatewayStateMetrics() {
     if (isMetricsEnabled == false) {
-        return ();
+        return;
+    }
+    foreach string cacheName in [TOKEN_CACHE_NAME, KEY_VALIDATION_CACHE_NAME, INVALID_TOKEN_CACHE_NAME,
+            JWT_CACHE_NAME, INTROSPECT_CACHE_NAME, BASIC_AUTH_CACHE_NAME] {
+        foreach string result in [CACHE_HIT, CACHE_MISS] {
+            observe:Counter counter = new (GATEWAY_CACHE_REQUESTS, "Number of lookups in the gateway caches",
+                {"Cache": cacheName, "Result": result});
+            error? registerResult = counter.register();
+            if (registerResult is error) {
+                log:printError("Error in registering Counter", err = registerResult);
+            }
+            cacheLookupCounters[cacheName + ":" + result] = counter;
+        }
+        observe:Gauge sizeGauge = new (GATEWAY_CACHE_SIZE, "Number of entries in the gateway caches",
+            {"Cache": cacheName});
+        registerGauge(sizeGauge);
+        cacheSizeGauges[cacheName] = sizeGauge;
+    }
+    observe:Gauge keysGauge = new (THROTTLED_KEYS, "Number of throttle keys currently throttled out", ());
+    registerGauge(keysGauge);
+    throttledKeysGauge = keysGauge;
+    observe:Gauge conditionsGauge = new (BLOCK_CONDITIONS, "Number of active throttle block conditions", ());
+    registerGauge(conditionsGauge);
+    blockConditionsGauge = conditionsGauge;
+    observe:Gauge tokensGauge = new (REVOKED_TOKENS, "Number of revoked tokens known to the gateway", ());
+    registerGauge(tokensGauge);
+    revokedTokensGauge = tokensGauge;
+
+    int interval = getConfigIntValue(MICRO_GATEWAY_METRICS_PORTS, STATE_METRICS_INTERVAL, 5000);
+    task:Scheduler timer = new ({intervalInMillis: interval, initialDelayInMillis: interval});
+    var attachResult = timer.attach(stateMetricsRefresh);
+    if (attachResult is error) {
+        printError(KEY_STATE_METRICS_TASK, attachResult.toString());
     }
+    var startResult = timer.start();
+    if (startResult is error) {
+        printError(KEY_STATE_METRICS_TASK, "Starting the state metrics task is failed: " + startResult.toString());
+    }
+}
+
+# Counts a lookup in one of the gateway caches.
+#
+# + cacheName - one of the *_CACHE_NAME constants
+# + hit - whether the entry was found in the cache
+public function recordCacheLookup(string cacheName, boolean hit) {
+    observe:Counter? counter = cacheLookupCounters[cacheName + ":" + (hit ? CACHE_HIT : CACHE_MISS)];
+    if (counter is observe:Counter) {
+        counter.increment();
+    }
+}
+
+function updateGatewayStateGauges() {
+    setSizeGauge(cacheSizeGauges[TOKEN_CACHE_NAME], gatewayTokenCache.size());
+    setSizeGauge(cacheSizeGauges[KEY_VALIDATION_CACHE_NAME], gatewayKeyValidationCache.size());
+    setSizeGauge(cacheSizeGauges[INVALID_TOKEN_CACHE_NAME], invalidTokenCache.size());
+    setSizeGauge(cacheSizeGauges[JWT_CACHE_NAME], jwtCache.size());
+    setSizeGauge(cacheSizeGauges[INTROSPECT_CACHE_NAME], introspectCache.size());
+    setSizeGauge(cacheSizeGauges[BASIC_AUTH_CACHE_NAME], basicAuthCache.size());
+    setSizeGauge(throttledKeysGauge, throttleDataMap.length());
+    setSizeGauge(blockConditionsGauge, blockConditions.length());
+    setSizeGauge(revokedTokensGauge, revokedTokenMap.length());
+    updateAnalyticsQueueGauges();
+    updateAnalyticsPublisherGauges();
+}
 
-    string serviceName = runtime:getInvocationContext().attributes[http:SERVICE_NAME].toString();
-    map<string> gaugeTags = {"Category": category, "Method": request.method, "ServicePath": request.rawPath, "Service": serviceName};
-    return gaugeTags;
+function setSizeGauge(observe:Gauge? gauge, int size) {
+    if (gauge is observe:Gauge) {
+        gauge.setValue(<float>size);
+    }
 }
 
-public function gaugeTagDetails_basicAuth(string category) returns map<string> | () {
+service stateMetricsRefresh = service {
+    resource function onTrigger() {
+        updateGatewayStateGauges();
+    }
+};
+
+# Registers the gauges which report the state of the ring buffer in front of the analytics event writer.
+public function initAnalyticsQueueGauges() {
     if (isMetricsEnabled == false) {
-        return ();
+        return;
     }
+    observe:Gauge queueDepthGauge = new (ANALYTICS_QUEUE_DEPTH,
+        "Number of analytics events waiting to be written to the usage data file", ());
+    registerGauge(queueDepthGauge);
+    analyticsQueueDepthGauge = queueDepthGauge;
+    observe:Gauge droppedEventsGauge = new (ANALYTICS_DROPPED_EVENTS,
+        "Number of analytics events dropped because the writer could not keep up", ());
+    registerGauge(droppedEventsGauge);
+    analyticsDroppedEventsGauge = droppedEventsGauge;
+}
 
-    string requestMethod = runtime:getInvocationContext().attributes[REQUEST_METHOD].toString();
-    string requestRawPath = runtime:getInvocationContext().attributes[REQUEST_RAWPATH].toString();
-    string serviceName = runtime:getInvocationContext().attributes[http:SERVICE_NAME].toString();
-    map<string> gaugeTags = {"Category": category, "Method": requestMethod, "ServicePath": requestRawPath, "Service": serviceName};
-    return gaugeTags;
+# Updates the analytics queue depth and dropped event gauges.
+public function updateAnalyticsQueueGauges() {
+    observe:Gauge? queueDepthGauge = analyticsQueueDepthGauge;
+    if (queueDepthGauge is observe:Gauge) {
+        queueDepthGauge.setValue(<float>getAnalyticsQueueDepth());
+    }
+    observe:Gauge? droppedEventsGauge = analyticsDroppedEventsGauge;
+    if (droppedEventsGauge is observe:Gauge) {
+        droppedEventsGauge.setValue(<float>getDroppedAnalyticsEvents());
+    }
 }
 
-public function setGaugeTagInvocationContext(string attribute, map<string> | () gaugeTags) {
-    if (isMetricsEnabled) {
-        runtime:InvocationContext invocationContext = runtime:getInvocationContext();
-        invocationContext.attributes[attribute] = gaugeTags;
+# Registers the gauges which report the state of the analytics event publisher used in the stream publisher mode.
+public function initAnalyticsPublisherGauges() {
+    if (isMetricsEnabled == false) {
+        return;
+    }
+    observe:Gauge publisherQueueDepthGauge = new (ANALYTICS_PUBLISHER_QUEUE_DEPTH,
+        "Number of analytics events waiting to be streamed to the analytics receiver", ());
+    registerGauge(publisherQueueDepthGauge);
+    analyticsPublisherQueueDepthGauge = publisherQueueDepthGauge;
+    observe:Gauge spooledEventsGauge = new (ANALYTICS_SPOOLED_EVENTS,
+        "Number of analytics events spooled to the usage data file instead of being streamed", ());
+    registerGauge(spooledEventsGauge);
+    analyticsSpooledEventsGauge = spooledEventsGauge;
+}
+
+# Updates the analytics publisher queue depth and spooled event gauges.
+public function updateAnalyticsPublisherGauges() {
+    observe:Gauge? publisherQueueDepthGauge = analyticsPublisherQueueDepthGauge;
+    if (publisherQueueDepthGauge is observe:Gauge) {
+        publisherQueueDepthGauge.setValue(<float>getAnalyticsPublisherQueueDepth());
+    }
+    observe:Gauge? spooledEventsGauge = analyticsSpooledEventsGauge;
+    if (spooledEventsGauge is observe:Gauge) {
+        spooledEventsGauge.setValue(<float>getSpooledAnalyticsEvents());
     }
 }
 
-public function getGaugeTagInvocationContext(string attribute) returns map<string> | () {
+# Registers the gauges which report the progress of the analytics file uploads.
+public function initAnalyticsUploadGauges() {
     if (isMetricsEnabled == false) {
+        return;
+    }
+    observe:Gauge uploadedFilesGauge = new (ANALYTICS_UPLOADED_FILES,
+        "Number of usage data files uploaded to the analytics server", ());
+    registerGauge(uploadedFilesGauge);
+    analyticsUploadedFilesGauge = uploadedFilesGauge;
+    observe:Gauge uploadedBytesGauge = new (ANALYTICS_UPLOADED_BYTES,
+        "Number of usage data bytes uploaded to the analytics server", ());
+    registerGauge(uploadedBytesGauge);
+    analyticsUploadedBytesGauge = uploadedBytesGauge;
+    observe:Gauge uploadFailuresGauge = new (ANALYTICS_UPLOAD_FAILURES,
+        "Number of failed usage data file uploads", ());
+    registerGauge(uploadFailuresGauge);
+    analyticsUploadFailuresGauge = uploadFailuresGauge;
+    observe:Gauge uploadThroughputGauge = new (ANALYTICS_UPLOAD_THROUGHPUT,
+        "Usage data upload throughput of the last upload run in bytes per second", ());
+    registerGauge(uploadThroughputGauge);
+    analyticsUploadThroughputGauge = uploadThroughputGauge;
+}
+
+# Updates the analytics upload gauges after an upload run.
+#
+# + uploadedFiles - number of files uploaded in the run
+# + uploadedBytes - number of bytes uploaded in the run
+# + failedUploads - number of failed uploads in the run
+# + throughput - upload throughput of the run in bytes per second
+public function updateAnalyticsUploadGauges(int uploadedFiles, int uploadedBytes, int failedUploads,
+        float throughput) {
+    observe:Gauge? uploadedFilesGauge = analyticsUploadedFilesGauge;
+    if (uploadedFilesGauge is observe:Gauge) {
+        uploadedFilesGauge.increment(<float>uploadedFiles);
+    }
+    observe:Gauge? uploadedBytesGauge = analyticsUploadedBytesGauge;
+    if (uploadedBytesGauge is observe:Gauge) {
+        uploadedBytesGauge.increment(<float>uploadedBytes);
+    }
+    observe:Gauge? uploadFailuresGauge = analyticsUploadFailuresGauge;
+    if (uploadFailuresGauge is observe:Gauge) {
+        uploadFailuresGauge.increment(<float>failedUploads);
+    }
+    observe:Gauge? uploadThroughputGauge = analyticsUploadThroughputGauge;
+    if (uploadThroughputGauge is observe:Gauge) {
+        uploadThroughputGauge.setValue(throughput);
+    }
+}
+
+# Pre-registers the latency histograms of the filters for every resource of a service. Called at startup, so that
+# the request path only records values into histograms which already exist. The histograms are tagged with the
+# resource template instead of the raw request path, which keeps the number of metrics bounded.
+#
+# + serviceName - name of the service
+# + resourceArray - names of the resources of the service
+public function registerFilterLatencyGauges(string serviceName, string[] resourceArray) {
+    if (isMetricsEnabled == false) {
+        return;
+    }
+    foreach string category in filterCategories {
+        if (!filterTotalLatencyGauges.hasKey(category)) {
+            observe:Gauge totalGauge = new (REQ_DURATION_TOTAL, FILTER_TOTAL_DURATION, {"Category": category},
+                filterLatencyStatistics);
+            registerGauge(totalGauge);
+            filterTotalLatencyGauges[category] = totalGauge;
+        }
+        foreach string resourceName in resourceArray {
+            string key = getFilterLatencyKey(category, serviceName, resourceName);
+            if (!filterLatencyGauges.hasKey(key)) {
+                filterLatencyGauges[key] = createFilterLatencyGauge(category, serviceName, resourceName);
+            }
+        }
+    }
+}
+
+# Instrumentation of a filter or an auth handler, as listed in the instrumentation table.
+#
+# + requestSpan - span around the request path of a filter or the `process` function of an auth handler
+# + responseSpan - span around the response path of a filter, `()` if the response path is not traced
+# + latencyCategory - filter latency category the duration is recorded under, `()` if the duration is not recorded
+# + includesResponse - whether the duration of the response path is added to the duration of the request path before
+#                      it is recorded
+public type Instrumentation record {|
+    string requestSpan;
+    string? responseSpan = ();
+    string? latencyCategory = ();
+    boolean includesResponse = false;
+|};
+
+function buildInstrumentationTable() returns map<Instrumentation> {
+    map<Instrumentation> instrumentations = {};
+    instrumentations[PRE_AUTHN_FILTER_ID] = {requestSpan: PRE_AUTHN_FILTER_REQUEST};
+    instrumentations[AUTHZ_FILTER_ID] = {requestSpan: AUTHZ_FILTER_REQUEST, responseSpan: AUTHZ_FILTER_RESPONSE};
+    instrumentations[SUBSCRIPTION_FILTER_ID] = {requestSpan: SUBSCRIPTION_FILTER_REQUEST};
+    instrumentations[THROTTLE_FILTER_ID] = {requestSpan: THROTTLE_FILTER_REQUEST, latencyCategory: FILTER_THROTTLING};
+    instrumentations[ANALYTICS_FILTER_ID] = {requestSpan: ANALYTICS_FILTER_REQUEST,
+        responseSpan: ANALYTICS_FILTER_RESPONSE, latencyCategory: FILTER_ANALYTICS, includesResponse: true};
+    instrumentations[JWT_AUTH_HANDLER_ID] = {requestSpan: JWT_AUTHENHANDLER_PROCESS,
+        latencyCategory: FILTER_AUTHENTICATION};
+    instrumentations[KEY_VALIDATION_HANDLER_ID] = {requestSpan: KEY_VALIDATION_HANDLER_PROCESS,
+        latencyCategory: FILTER_AUTHENTICATION};
+    instrumentations[BASIC_AUTH_HANDLER_ID] = {requestSpan: BASICAUTH_PROVIDER, latencyCategory: FILTER_AUTHENTICATION};
+    instrumentations[MUTUAL_SSL_HANDLER_ID] = {requestSpan: MUTUALSSL_FILTER_PROCESS};
+    return instrumentations;
+}
+
+# Returns the instrumentation of a filter or an auth handler.
+#
+# + id - one of the filter or auth handler *_IDs
+# + return - the instrumentation, or `()` if the filter or handler is not instrumented or metrics and tracing are
+#            disabled
+public function getInstrumentation(string id) returns Instrumentation? {
+    if (!isMetricsEnabled && !isTracingEnabled) {
         return ();
     }
+    return instrumentationTable[id];
+}
 
-    return (<map<string>>runtime:getInvocationContext().attributes[attribute]);
+# Records the latency of a filter in the histogram of the resource and in the total histogram of the filter category.
+#
+# + category - filter category
+# + serviceName - name of the service
+# + resourceName - name of the resource
+# + latency - latency of the filter in milliseconds, or () if metrics are disabled
+public function recordFilterLatency(string category, string serviceName, string resourceName, float | () latency) {
+    if (latency is float) {
+        getFilterLatencyGauge(category, serviceName, resourceName).setValue(latency);
+        getFilterTotalLatencyGauge(category).setValue(latency);
+    }
+}
+
+# Records the latency of an authentication handler or provider, taking the service and the resource from the
+# invocation context.
+#
+# + latency - latency of the handler in milliseconds, or () if metrics are disabled
+public function recordAuthenticationLatency(float | () latency) {
+    if (latency is float) {
+        map<any> attributes = runtime:getInvocationContext().attributes;
+        recordFilterLatency(FILTER_AUTHENTICATION, attributes[http:SERVICE_NAME].toString(),
+            attributes[http:RESOURCE_NAME].toString(), latency);
+    }
+}
+
+function getFilterLatencyGauge(string category, string serviceName, string resourceName) returns observe:Gauge {
+    string key = getFilterLatencyKey(category, serviceName, resourceName);
+    observe:Gauge? gauge = filterLatencyGauges[key];
+    if (gauge is observe:Gauge) {
+        return gauge;
+    }
+    // Only resources which were not known at startup, such as the ones of the token services, reach here.
+    observe:Gauge? lateGauge = ();
+    lock {
+        lateGauge = lateFilterLatencyGauges[key];
+        if (lateGauge is ()) {
+            observe:Gauge newGauge = createFilterLatencyGauge(category, serviceName, resourceName);
+            lateFilterLatencyGauges[key] = newGauge;
+            lateGauge = newGauge;
+        }
+    }
+    return <observe:Gauge>lateGauge;
+}
+
+function getFilterTotalLatencyGauge(string category) returns observe:Gauge {
+    observe:Gauge? gauge = filterTotalLatencyGauges[category];
+    if (gauge is observe:Gauge) {
+        return gauge;
+    }
+    // Every category is registered with the first service at startup, so this is only reached without services.
+    observe:Gauge? lateGauge = ();
+    lock {
+        lateGauge = lateFilterLatencyGauges[category];
+        if (lateGauge is ()) {
+            observe:Gauge newGauge = new (REQ_DURATION_TOTAL, FILTER_TOTAL_DURATION, {"Category": category},
+                filterLatencyStatistics);
+            registerGauge(newGauge);
+            lateFilterLatencyGauges[category] = newGauge;
+            lateGauge = newGauge;
+        }
+    }
+    return <observe:Gauge>lateGauge;
+}
+
+function getFilterLatencyKey(string category, string serviceName, string resourceName) returns string {
+    return category + ":" + serviceName + ":" + resourceName;
+}
+
+function createFilterLatencyGauge(string category, string serviceName, string resourceName) returns observe:Gauge {
+    http:HttpResourceConfig? resourceConfig = resourceAnnotationMap[resourceName];
+    string servicePath = resourceConfig is http:HttpResourceConfig ? resourceConfig.path : resourceName;
+    observe:Gauge gauge = new (PER_REQ_DURATION, REQ_FLTER_DURATION, {"Category": category, "Service": serviceName,
+        "Resource": resourceName, "ServicePath": servicePath}, filterLatencyStatistics);
+    registerGauge(gauge);
+    return gauge;
 }
 
 public function setLatencyInvocationContext(string attribute, float | () latency) {
@@ -127,9 +603,121 @@ public function calculateLatency(float | () reqLatency, float | () latency) retu
     return (<float>reqLatency + <float>latency);
 }
 
+# Adds the time elapsed since the start of a stage to the duration of the stage in the current request. The
+# durations are kept in nanoseconds, so that stages which take less than a millisecond still add up correctly.
+#
+# + stage - one of the STAGE_* indexes
+# + startingTime - time the stage started at, as returned by `getCurrentTimeNanos`
+public function setStageDuration(int stage, int startingTime) {
+    int duration = getCurrentTimeNanos() - startingTime;
+    int[] durations = getStageDurations();
+    durations[stage] = durations[stage] + duration;
+    if (isProfilingEnabled) {
+        any profile = runtime:getInvocationContext().attributes[REQUEST_PROFILE];
+        if (profile is handle) {
+            endProfiledStage(profile, stage, duration);
+        }
+    }
+}
+
+# Starts profiling the current request if a profile was started through the `/profile/start` resource of the
+# observability listener. Requests arriving while no profile is running only pay for one check.
+public function startRequestProfiling() {
+    if (isProfilingEnabled && isProfilingActive()) {
+        runtime:getInvocationContext().attributes[REQUEST_PROFILE] = startRequestProfile();
+    }
+}
+
+# Adds the current request to the running profile with its total duration, if the request is being profiled.
+#
+# + context - the filter context of the request
+public function endRequestProfiling(http:FilterContext context) {
+    if (!isProfilingEnabled) {
+        return;
+    }
+    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    any profile = invocationContext.attributes[REQUEST_PROFILE];
+    if (profile is handle) {
+        any messageId = invocationContext.attributes[MESSAGE_ID];
+        endRequestProfile(profile, context.getServiceName() + "/" + context.getResourceName(),
+            messageId is string ? messageId : "");
+    }
+}
+
+# Returns the stage durations of the current request in nanoseconds, indexed by the STAGE_* constants.
+#
+# + return - the stage durations, created in the invocation context on the first call of a request
+public function getStageDurations() returns int[] {
+    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    any durations = invocationContext.attributes[STAGE_DURATIONS];
+    if (durations is int[]) {
+        return durations;
+    }
+    int[] newDurations = [];
+    newDurations[STAGE_COUNT - 1] = 0;
+    invocationContext.attributes[STAGE_DURATIONS] = newDurations;
+    return newDurations;
+}
+
+# Sums up the durations of the given stages of the current request. The sum is taken in nanoseconds and only then
+# converted to milliseconds.
+#
+# + stages - the STAGE_* indexes of the stages
+# + return - the total duration of the stages in milliseconds
+public function getStageLatency(int... stages) returns int {
+    int[] durations = getStageDurations();
+    int latency = 0;
+    foreach int stage in stages {
+        latency += durations[stage];
+    }
+    return latency / 1000000;
+}
+
+# Adds the `Server-Timing` header with the duration of every stage the request went through, if enabled with
+# `[serverTiming] enabled`.
+#
+# + response - the response sent to the client
+public function setServerTimingHeader(http:Response response) {
+    if (!isServerTimingEnabled) {
+        return;
+    }
+    int[] durations = getStageDurations();
+    string serverTiming = "";
+    foreach int stage in 0 ..< STAGE_COUNT {
+        if (durations[stage] > 0) {
+            if (serverTiming != "") {
+                serverTiming += ", ";
+            }
+            serverTiming += io:sprintf("%s;dur=%.3f", stageNames[stage], <float>durations[stage] / 1000000.0);
+        }
+    }
+    if (serverTiming != "") {
+        response.setHeader(SERVER_TIMING_HEADER, serverTiming);
+    }
+}
+
 //tracing related methods
+# Returns whether the spans of the current request are recorded. The sampling decision is taken by the first span of
+# the request, which is the span of the pre authentication filter, and is kept in the invocation context so that all
+# the spans of a request are either recorded or skipped together.
+#
+# + return - `true` if tracing is enabled and the current request is sampled
+public function isRequestTraced() returns boolean {
+    if (!isTracingEnabled) {
+        return false;
+    }
+    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    any sampled = invocationContext.attributes[TRACE_SAMPLED];
+    if (sampled is boolean) {
+        return sampled;
+    }
+    boolean decision = isTraceSampled();
+    invocationContext.attributes[TRACE_SAMPLED] = decision;
+    return decision;
+}
+
 public function startSpan(string spanName) returns int | error | () {
-    if (isTracingEnabled == false) {
+    if (!isRequestTraced()) {
         return ();
     }
 
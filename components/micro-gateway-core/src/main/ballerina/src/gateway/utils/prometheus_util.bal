@@ -0,0 +1,93 @@
+// Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+//
+// WSO2 Inc. licenses this file to you under the Apache License,
+// Version 2.0 (the "License"); you may not use this file except
+// in compliance with the License.
+// You may obtain a copy of the License at
+//
+// http://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing,
+// software distributed under the License is distributed on an
+// "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+// KIND, either express or implied.  See the License for the
+// specific language governing permissions and limitations
+// under the License.
+
+import ballerina/lang.'string as strings;
+import ballerina/observe;
+
+int metricsCacheInterval = getConfigIntValue(MICRO_GATEWAY_METRICS_PORTS, METRICS_CACHE_INTERVAL, 1000);
+string cachedMetrics = "";
+int cachedMetricsTime = 0;
+
+# Returns the metrics of the gateway in the Prometheus text format. The metrics are read from the in-process metric
+# registry and rendered in the same way as the Ballerina Prometheus reporter, so dashboards built on the reporter
+# keep working. The rendered text is reused for `metricsCacheInterval` milliseconds, so that frequent scrapes do not
+# render it again.
+#
+# + return - the metrics in the Prometheus text format
+public function getPrometheusMetrics() returns string {
+    string metrics = "";
+    lock {
+        int currentTime = getCurrentTime();
+        if (currentTime - cachedMetricsTime >= metricsCacheInterval) {
+            cachedMetrics = renderPrometheusMetrics(observe:getAllMetrics());
+            cachedMetricsTime = currentTime;
+        }
+        metrics = cachedMetrics;
+    }
+    return metrics;
+}
+
+function renderPrometheusMetrics(observe:Metric[] metrics) returns string {
+    string[] lines = [];
+    foreach observe:Metric metric in metrics {
+        string name = replaceAll(metric.name, "[^a-zA-Z0-9_:]", "_");
+        string valueName = name + "_value";
+        lines.push("# HELP " + valueName + " " + metric.desc + "\n");
+        lines.push("# TYPE " + valueName + " " + metric.metricType.toLowerAscii() + "\n");
+        lines.push(valueName + renderLabels(metric.tags, ()) + " " + metric.value.toString() + "\n");
+        observe:Snapshot[]? summary = metric.summary;
+        if (summary is observe:Snapshot[]) {
+            foreach observe:Snapshot snapshot in summary {
+                map<string> tags = metric.tags.clone();
+                tags[PROMETHEUS_TIME_WINDOW_LABEL] = snapshot.timeWindow.toString();
+                lines.push("# HELP " + name + " A Summary of " + name + " for window of " +
+                    snapshot.timeWindow.toString() + "\n");
+                lines.push("# TYPE " + name + " summary\n");
+                string labels = renderLabels(tags, ());
+                lines.push(name + "_mean" + labels + " " + snapshot.mean.toString() + "\n");
+                lines.push(name + "_max" + labels + " " + snapshot.max.toString() + "\n");
+                lines.push(name + "_min" + labels + " " + snapshot.min.toString() + "\n");
+                lines.push(name + "_stdDev" + labels + " " + snapshot.stdDev.toString() + "\n");
+                foreach observe:PercentileValue percentileValue in snapshot.percentileValues {
+                    lines.push(name + renderLabels(tags, percentileValue.percentile.toString()) + " " +
+                        percentileValue.value.toString() + "\n");
+                }
+            }
+        }
+    }
+    return strings:'join("", ...lines);
+}
+
+function renderLabels(map<string> tags, string? quantile) returns string {
+    string[] labels = [];
+    foreach [string, string] [key, value] in tags.entries() {
+        labels.push(key + "=\"" + escapeLabelValue(value) + "\"");
+    }
+    if (quantile is string) {
+        labels.push(PROMETHEUS_QUANTILE_LABEL + "=\"" + quantile + "\"");
+    }
+    if (labels.length() == 0) {
+        return "";
+    }
+    return "{" + strings:'join(",", ...labels) + "}";
+}
+
+function escapeLabelValue(string value) returns string {
+    if (value.indexOf("\\") is () && value.indexOf("\"") is () && value.indexOf("\n") is ()) {
+        return value;
+    }
+    return replaceAll(replaceAll(replaceAll(value, "\\\\", "\\\\\\\\"), "\"", "\\\\\""), "\n", "\\\\n");
+}
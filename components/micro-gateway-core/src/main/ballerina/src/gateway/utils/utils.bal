@@ -16,7 +16,6 @@
 
 import ballerina/auth;
 import ballerina/config;
-import ballerina/file;
 import ballerina/http;
 import ballerina/io;
 import ballerina/lang.'int;
@@ -35,6 +34,8 @@ map<TierConfiguration?> resourceTierAnnotationMap = {};
 map<APIConfiguration?> apiConfigAnnotationMap = {};
 map<ResourceConfiguration?> resourceConfigAnnotationMap = {};
 map<FilterConfiguration?> filterConfigAnnotationMap = {};
+// Auth providers resolved for each service and resource when the annotation maps are populated.
+map<string[]> authProvidersMap = {};
 
 public function populateAnnotationMaps(string serviceName, service s, string[] resourceArray) {
     foreach string resourceFunction in resourceArray {
@@ -45,6 +46,11 @@ public function populateAnnotationMaps(string serviceName, service s, string[] r
     serviceAnnotationMap[serviceName] = <http:HttpServiceConfig?>reflect:getServiceAnnotations(s, SERVICE_ANN_NAME, ANN_PACKAGE);
     apiConfigAnnotationMap[serviceName] = <APIConfiguration?>reflect:getServiceAnnotations(s, API_ANN_NAME, GATEWAY_ANN_PACKAGE);
     filterConfigAnnotationMap[serviceName] = <FilterConfiguration?>reflect:getServiceAnnotations(s, FILTER_ANN_NAME, GATEWAY_ANN_PACKAGE);
+    foreach string resourceFunction in resourceArray {
+        authProvidersMap[getAuthProvidersKey(serviceName, resourceFunction)] = resolveAuthProviders(serviceName,
+            resourceFunction);
+    }
+    registerFilterLatencyGauges(serviceName, resourceArray);
     printDebug(KEY_UTILS, "Service annotation map: " + serviceAnnotationMap.toString());
     printDebug(KEY_UTILS, "Resource annotation map: " + resourceAnnotationMap.toString());
     printDebug(KEY_UTILS, "API config annotation map: " + apiConfigAnnotationMap.toString());
@@ -343,21 +349,26 @@ public function rotateFile(string filePath) returns string | error {
     string uuid = system:uuid();
     string fileLocation = retrieveConfig(API_USAGE_PATH, API_USAGE_DIR) + PATH_SEPERATOR;
     int rotatingTimeStamp = getCurrentTime();
-    string zipName = fileLocation + API_USAGE_FILE + "." + rotatingTimeStamp.toString() + "." + uuid + ZIP_EXTENSION;
-    var compressResult = compress(filePath, zipName);
+    string rotatedName = fileLocation + API_USAGE_FILE + "." + rotatingTimeStamp.toString() + "." + uuid;
+    string zipName = rotatedName + ZIP_EXTENSION;
+    if (getConfigBooleanValue(ANALYTICS, ANALYTICS_WRITER_STREAMING_COMPRESSION, false)) {
+        // Events are already compressed as they are written, so the finished archive only has to be renamed.
+        check rotateAnalyticsFile(zipName);
+        notifyAnalyticsFileRotated();
+        return zipName;
+    }
+    // Buffered events are flushed and the writer moves on to a new file before the rotated file is compressed. The
+    // rotated file keeps its name inside a staging directory, so that the zip entry name stays the same.
+    check rotateAnalyticsFile(rotatedName + PATH_SEPERATOR + API_USAGE_FILE);
+    // Compressed under the lock shared with the size rotator and the recovery of abandoned staging directories.
+    var compressResult = compressAnalyticsStagingDirectory(rotatedName);
     if (compressResult is error) {
         printFullError(KEY_UTILS, compressResult);
         return compressResult;
-    } else {
-        printInfo(KEY_UTILS, "File compressed successfully");
-        var deleteResult = file:remove(filePath);
-        if (deleteResult is ()) {
-            printInfo(KEY_UTILS, "Existing file deleted successfully");
-        } else {
-            printFullError(KEY_UTILS, deleteResult);
-        }
-        return zipName;
     }
+    printInfo(KEY_UTILS, "File compressed successfully");
+    notifyAnalyticsFileRotated();
+    return zipName;
 }
 
 # Retrieve external configurations defined against a key.
@@ -445,13 +456,6 @@ public function printFullError(string key, error message) {
     log:printError(io:sprintf("[%s] [%s] %s", key, getMessageId(), message.reason()), err = message);
 }
 
-public function setLatency(int starting, http:FilterContext context, string latencyType) {
-    int ending = getCurrentTime();
-    context.attributes[latencyType] = ending - starting;
-    int latency = ending - starting;
-    printDebug(KEY_THROTTLE_FILTER, "Throttling latency: " + latency.toString() + "ms");
-}
-
 # Check MESSAGE_ID in context and set if it is not.
 # + context - http filter context object.
 public function checkOrSetMessageID(http:FilterContext context) {
@@ -552,6 +556,18 @@ function isServiceResourceSecured(http:ResourceAuth? resourceAuth) returns boole
 
 public function getAuthProviders(string serviceName, string resourceName) returns string[] {
     printDebug(KEY_UTILS, "Service name provided to retrieve auth configuration  : " + serviceName);
+    string[]? authProviders = authProvidersMap[getAuthProvidersKey(serviceName, resourceName)];
+    if (authProviders is string[]) {
+        return authProviders;
+    }
+    return resolveAuthProviders(serviceName, resourceName);
+}
+
+function getAuthProvidersKey(string serviceName, string resourceName) returns string {
+    return serviceName + ":" + resourceName;
+}
+
+function resolveAuthProviders(string serviceName, string resourceName) returns string[] {
     string[] authProviders = [];
     ResourceConfiguration? resourceConfig = resourceConfigAnnotationMap[resourceName];
     if (resourceConfig is ResourceConfiguration) {
@@ -567,6 +583,27 @@ public function getAuthProviders(string serviceName, string resourceName) return
     return authProviders;
 }
 
+# Returns the auth scheme of the request classified by the `PreAuthnFilter`. If the filter has not classified the
+# request, the authorization header is classified and the result is stored in the invocation context.
+#
+# + req - The `Request` instance.
+# + return - One of `AUTHN_SCHEME_BASIC`, `AUTH_SCHEME_JWT`, `AUTH_SCHEME_OAUTH2`, `AUTH_SCHEME_COOKIE` or an empty
+#            string if the request does not carry a supported credential.
+public function getAuthScheme(http:Request req) returns string {
+    runtime:InvocationContext invocationContext = runtime:getInvocationContext();
+    any authScheme = invocationContext.attributes[AUTH_SCHEME_ATTR];
+    if (authScheme is string) {
+        return authScheme;
+    }
+    string scheme = "";
+    string authHeader = invocationContext.attributes[AUTH_HEADER].toString();
+    if (req.hasHeader(authHeader)) {
+        scheme = classifyAuthHeader(req.getHeader(authHeader));
+    }
+    invocationContext.attributes[AUTH_SCHEME_ATTR] = scheme;
+    return scheme;
+}
+
 # Log and prepare `error` as a `Error`.
 #
 # + message - Error message
@@ -620,4 +657,23 @@ public function getFilterConfigAnnotationMap() returns map<FilterConfiguration?>
     return filterConfigAnnotationMap;
 }
 
-
+# Returns whether a back end call failed because the circuit of the endpoint is open. Load balanced and failover
+# endpoints fail with an error of their own once every target failed, which has the error of the last target tried as
+# its cause, or quotes its message.
+#
+# + clientError - Error returned by the client of the endpoint
+# + return - `true` if the last target tried was not called because its circuit is open
+public function isOpenCircuitError(error clientError) returns boolean {
+    error? current = clientError;
+    while (current is error) {
+        if (current is http:UpstreamServiceUnavailableError) {
+            return true;
+        }
+        string? message = current.detail()?.message;
+        if (message is string && contains(message, OPEN_CIRCUIT_ERROR_MESSAGE)) {
+            return true;
+        }
+        current = current.detail()?.cause;
+    }
+    return false;
+}
@@ -0,0 +1,338 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extern functions wso2.gateway:initAnalyticsAggregator, wso2.gateway:isAnalyticsEventSampled and
+ * wso2.gateway:recordAnalyticsAggregate.
+ * Rolls the request events up per API, version, resource, method, application, status class and minute. Each window
+ * keeps the request count, the response size sum, the sum of every execution time latency and histograms of the
+ * response time and the backend latency. A daemon thread emits the windows of the minutes which are over as
+ * "org.wso2.apimgt.statistics.request.aggregate" events. The analytics server which the usage data files are uploaded
+ * to does not read that stream, hence the aggregates never go to the usage data files. They are appended to a daily
+ * aggregate file next to them, or, in the stream publisher mode, handed over to the analytics event publisher, which
+ * spools them to the aggregate file while the receiver is unreachable. A window is only removed once its aggregate is
+ * handed over, so that an aggregate which could not be emitted is retried on the next flush instead of being dropped
+ * by the overflow policy of a queue.
+ */
+public class AnalyticsAggregator {
+
+    static final String AGGREGATE_STREAM_ID = "org.wso2.apimgt.statistics.request.aggregate:1.0.0";
+    /**
+     * Upper bounds of the latency histogram buckets in milliseconds. The last bucket counts everything above.
+     */
+    static final long[] LATENCY_BUCKETS = {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsAggregator.class);
+    private static final String KVT = "-KS-";
+    private static final String EVS = "-ES-";
+    private static final String OBJ = "-OS-";
+    private static final String AGGREGATE_EVENT_PREFIX = "streamId" + KVT + AGGREGATE_STREAM_ID + EVS;
+    private static final String AGGREGATE_FILE_PREFIX = "api-usage-aggregates.";
+    private static final String AGGREGATE_FILE_SUFFIX = ".dat";
+    private static final DateTimeFormatter AGGREGATE_FILE_DATE = DateTimeFormatter.ofPattern("yyyyMMdd")
+            .withZone(ZoneOffset.UTC);
+    private static final long MINUTE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final Object LOCK = new Object();
+    private static final Map<String, Window> WINDOWS = new ConcurrentHashMap<>();
+
+    private static volatile double sampleRate = 1;
+    private static boolean streamPublisher;
+    private static long flushIntervalMillis;
+    private static Thread flushThread;
+
+    private AnalyticsAggregator() {
+    }
+
+    /**
+     * Starts the thread which emits the completed aggregation windows.
+     *
+     * @param rawEventSampleRate  fraction of the requests for which the raw request event is published, from 0 to 1
+     * @param publishToStream     whether the aggregates are handed over to the analytics event publisher instead of
+     *                            the analytics event writer
+     * @param flushIntervalMillis how often the completed windows are emitted
+     */
+    public static void init(double rawEventSampleRate, boolean publishToStream, long flushIntervalMillis) {
+        synchronized (LOCK) {
+            sampleRate = Math.min(1, Math.max(0, rawEventSampleRate));
+            if (flushThread != null) {
+                return;
+            }
+            streamPublisher = publishToStream;
+            AnalyticsAggregator.flushIntervalMillis = Math.max(1, flushIntervalMillis);
+            flushThread = new Thread(AnalyticsAggregator::flushPeriodically, "analytics-aggregator");
+            flushThread.setDaemon(true);
+            flushThread.start();
+        }
+    }
+
+    /**
+     * Decides whether the raw request event of a new request is published. The decision is taken once, when the
+     * request enters the gateway, so that all the raw events of a request are either kept or dropped together.
+     *
+     * @return true if the raw request event should be published
+     */
+    public static boolean isSampled() {
+        double rate = sampleRate;
+        return rate >= 1 || (rate > 0 && ThreadLocalRandom.current().nextDouble() < rate);
+    }
+
+    /**
+     * Adds a request to the aggregation window of its minute.
+     *
+     * @param key                      API, version, resource, method and application of the request, separated by
+     *                                 "-OS-"
+     * @param timestamp                request time in milliseconds
+     * @param responseCode             status code of the response
+     * @param responseSize             size of the response in bytes
+     * @param responseTime             response time in milliseconds
+     * @param securityLatency          security latency in milliseconds
+     * @param throttlingLatency        throttling latency in milliseconds
+     * @param requestMediationLatency  request mediation latency in milliseconds
+     * @param responseMediationLatency response mediation latency in milliseconds
+     * @param backendLatency           backend latency in milliseconds
+     * @param otherLatency             other latency in milliseconds
+     */
+    public static void record(String key, long timestamp, long responseCode, long responseSize, long responseTime,
+                              long securityLatency, long throttlingLatency, long requestMediationLatency,
+                              long responseMediationLatency, long backendLatency, long otherLatency) {
+        long minute = timestamp - timestamp % MINUTE_MILLIS;
+        String windowKey = minute + OBJ + key + OBJ + (responseCode / 100) + "xx";
+        while (true) {
+            Window window = WINDOWS.computeIfAbsent(windowKey, k -> new Window(minute, key, responseCode / 100));
+            synchronized (window) {
+                if (window.emitted) {
+                    // The window was emitted while this request was being recorded. A late request starts a new
+                    // window for the same minute, which is emitted on the next flush.
+                    WINDOWS.remove(windowKey, window);
+                    continue;
+                }
+                window.count++;
+                window.responseSize += responseSize;
+                window.latencies[0] += responseTime;
+                window.latencies[1] += securityLatency;
+                window.latencies[2] += throttlingLatency;
+                window.latencies[3] += requestMediationLatency;
+                window.latencies[4] += responseMediationLatency;
+                window.latencies[5] += backendLatency;
+                window.latencies[6] += otherLatency;
+                window.responseTimeHistogram[bucket(responseTime)]++;
+                window.backendLatencyHistogram[bucket(backendLatency)]++;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Emits every window, including the one of the current minute. Called by the analytics event writer when the
+     * gateway is stopped, before the pending events are spooled and written. Aggregates which do not fit in the queue
+     * of the analytics event publisher are written to the aggregate file, as there is no later flush.
+     */
+    static void emitAll() {
+        emit(Long.MAX_VALUE, true);
+    }
+
+    /**
+     * @param event serialized event
+     * @return whether the event is an aggregate emitted by this class
+     */
+    static boolean isAggregate(String event) {
+        return event.startsWith(AGGREGATE_EVENT_PREFIX);
+    }
+
+    /**
+     * Appends an aggregate which the analytics event publisher could not publish to the aggregate file of the day.
+     *
+     * @param event serialized aggregate
+     * @return null if the aggregate is written, or an error
+     */
+    static Object spool(String event) {
+        try (AggregateFiles files = new AggregateFiles()) {
+            files.append(System.currentTimeMillis(), event);
+            return null;
+        } catch (IOException e) {
+            return ErrorUtils.getBallerinaError("Error occurred while writing the analytics aggregate", e);
+        }
+    }
+
+    private static void flushPeriodically() {
+        while (true) {
+            try {
+                Thread.sleep(flushIntervalMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            long now = System.currentTimeMillis();
+            emit(now - now % MINUTE_MILLIS, false);
+        }
+    }
+
+    private static void emit(long before, boolean last) {
+        try (AggregateFiles files = new AggregateFiles()) {
+            for (Map.Entry<String, Window> entry : WINDOWS.entrySet()) {
+                Window window = entry.getValue();
+                if (window.minute >= before) {
+                    continue;
+                }
+                synchronized (window) {
+                    if (window.emitted) {
+                        continue;
+                    }
+                    // The window is only marked emitted once the aggregate is handed over, so a window which could
+                    // not be emitted stays in place, keeps collecting late requests and is retried on the next flush.
+                    try {
+                        String event = window.toEvent();
+                        if (streamPublisher && AnalyticsEventPublisher.offer(event)) {
+                            window.emitted = true;
+                        } else if (!streamPublisher || last) {
+                            files.append(window.minute, event);
+                            window.emitted = true;
+                        } else {
+                            log.warn("Analytics publisher queue is full. The aggregate of {} is emitted on the next "
+                                    + "flush.", window.key);
+                            continue;
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        log.error("Error occurred while emitting the analytics aggregate of " + window.key, e);
+                        continue;
+                    }
+                }
+                // A late request may have replaced the window already, so only this window is removed.
+                WINDOWS.remove(entry.getKey(), window);
+            }
+        } catch (IOException e) {
+            log.error("Error occurred while closing the analytics aggregate file", e);
+        }
+    }
+
+    private static int bucket(long latency) {
+        for (int i = 0; i < LATENCY_BUCKETS.length; i++) {
+            if (latency <= LATENCY_BUCKETS[i]) {
+                return i;
+            }
+        }
+        return LATENCY_BUCKETS.length;
+    }
+
+    /**
+     * Aggregate files of the days written to by a flush. Each file is opened once per flush and flushed after every
+     * aggregate, so that an aggregate is only reported as written once it reached the file.
+     */
+    private static final class AggregateFiles implements AutoCloseable {
+        private final Map<String, OutputStream> streams = new HashMap<>();
+
+        private void append(long timestamp, String event) throws IOException {
+            String fileName = AGGREGATE_FILE_PREFIX + AGGREGATE_FILE_DATE.format(Instant.ofEpochMilli(timestamp))
+                    + AGGREGATE_FILE_SUFFIX;
+            OutputStream out = streams.get(fileName);
+            if (out == null) {
+                Path dir = AnalyticsEventWriter.getDirectory();
+                if (dir == null) {
+                    throw new IOException("Analytics event writer is not initialized");
+                }
+                out = Files.newOutputStream(dir.resolve(fileName), StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                streams.put(fileName, out);
+            }
+            out.write(event.getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (OutputStream out : streams.values()) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private static final class Window {
+        private final long minute;
+        private final String key;
+        private final long statusClass;
+        private final long[] latencies = new long[7];
+        private final long[] responseTimeHistogram = new long[LATENCY_BUCKETS.length + 1];
+        private final long[] backendLatencyHistogram = new long[LATENCY_BUCKETS.length + 1];
+        private long count;
+        private long responseSize;
+        private boolean emitted;
+
+        private Window(long minute, String key, long statusClass) {
+            this.minute = minute;
+            this.key = key;
+            this.statusClass = statusClass;
+        }
+
+        /**
+         * The payload is the key of the window, followed by the status class, the request count, the response size
+         * sum, the latency sums in the order of the record method and the two histograms as comma separated
+         * bucket counts.
+         */
+        private String toEvent() {
+            StringBuilder payload = new StringBuilder(256);
+            payload.append(key).append(OBJ).append(statusClass).append("xx").append(OBJ).append(minute).append(OBJ)
+                    .append(count).append(OBJ).append(responseSize);
+            for (long latency : latencies) {
+                payload.append(OBJ).append(latency);
+            }
+            payload.append(OBJ);
+            appendHistogram(payload, responseTimeHistogram);
+            payload.append(OBJ);
+            appendHistogram(payload, backendLatencyHistogram);
+            return "streamId" + KVT + AGGREGATE_STREAM_ID + EVS + "timestamp" + KVT + minute + EVS + "metadata" +
+                    KVT + "null" + EVS + "correlationData" + KVT + "null" + EVS + "payLoadData" + KVT + payload +
+                    "\n";
+        }
+
+        private static void appendHistogram(StringBuilder payload, long[] histogram) {
+            for (int i = 0; i < histogram.length; i++) {
+                if (i > 0) {
+                    payload.append(',');
+                }
+                payload.append(histogram[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Extern functions wso2.gateway:initAnalyticsPublisher, wso2.gateway:publishAnalyticsEvent,
+ * wso2.gateway:nextAnalyticsBatch, wso2.gateway:acknowledgeAnalyticsBatch, wso2.gateway:spoolAnalyticsBatch,
+ * wso2.gateway:getAnalyticsPublisherQueueDepth and wso2.gateway:getSpooledAnalyticsEvents.
+ * Used when analytics events are streamed to the analytics receiver instead of being written to the usage data file.
+ * Request threads only enqueue events into a bounded ring buffer. The publishing task takes the events out in batches,
+ * sends them and then either acknowledges the batch or spools it to the {@link AnalyticsEventWriter}, from where it
+ * is rotated and uploaded like any other usage data file. Events which do not fit in the ring buffer are spooled
+ * directly, so the request path never waits for the receiver.
+ */
+public class AnalyticsEventPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventPublisher.class);
+    private static final Object LOCK = new Object();
+    private static final AtomicLong SPOOLED_EVENTS = new AtomicLong();
+    private static final List<String> BATCH = new ArrayList<>();
+
+    private static volatile MpscRingBuffer<String> queue;
+
+    private AnalyticsEventPublisher() {
+    }
+
+    /**
+     * Creates the ring buffer between the request path and the publishing task.
+     *
+     * @param queueCapacity number of events the ring buffer can hold, rounded up to a power of two
+     * @return null if the publisher is initialized successfully
+     */
+    public static Object init(long queueCapacity) {
+        synchronized (LOCK) {
+            if (queue == null) {
+                queue = new MpscRingBuffer<>((int) queueCapacity);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Enqueues an event for the publishing task. An event which does not fit in the ring buffer is spooled to the
+     * usage data file.
+     *
+     * @param event serialized event
+     * @return null if the event is accepted, or the error returned by the analytics event writer
+     */
+    public static Object publish(String event) {
+        MpscRingBuffer<String> eventQueue = queue;
+        if (eventQueue == null) {
+            throw ErrorUtils.getBallerinaError("Error occurred while publishing the analytics event",
+                    "Analytics event publisher is not initialized");
+        }
+        if (eventQueue.offer(event)) {
+            return null;
+        }
+        Object result = AnalyticsEventWriter.write(event);
+        if (result == null) {
+            SPOOLED_EVENTS.incrementAndGet();
+        }
+        return result;
+    }
+
+    /**
+     * Enqueues an event for the publishing task only if it fits in the ring buffer, so that the caller can retry it
+     * later instead of having it spooled.
+     *
+     * @param event serialized event
+     * @return true if the event is enqueued
+     */
+    static boolean offer(String event) {
+        MpscRingBuffer<String> eventQueue = queue;
+        return eventQueue != null && eventQueue.offer(event);
+    }
+
+    /**
+     * Takes the next batch of events out of the ring buffer. The batch is held until it is acknowledged or spooled,
+     * and a batch which is still held is returned again instead of a new one.
+     *
+     * @param maxEvents maximum number of events in the batch
+     * @param compress  whether to gzip the batch
+     * @return the events of the batch separated by new lines, or null if there is no event to publish
+     */
+    public static Object nextBatch(long maxEvents, boolean compress) {
+        synchronized (LOCK) {
+            MpscRingBuffer<String> eventQueue = queue;
+            if (eventQueue == null) {
+                return null;
+            }
+            if (BATCH.isEmpty()) {
+                String event;
+                while (BATCH.size() < maxEvents && (event = eventQueue.poll()) != null) {
+                    BATCH.add(event);
+                }
+                if (BATCH.isEmpty()) {
+                    return null;
+                }
+            }
+            try {
+                return new ArrayValue(serialize(compress));
+            } catch (IOException e) {
+                throw ErrorUtils.getBallerinaError("Error occurred while serializing the analytics event batch", e);
+            }
+        }
+    }
+
+    /**
+     * Releases the current batch once the receiver has accepted it.
+     */
+    public static void acknowledge() {
+        synchronized (LOCK) {
+            BATCH.clear();
+        }
+    }
+
+    /**
+     * Hands the current batch over to the analytics event writer, so that it is uploaded with the usage data files.
+     * If the writer fails, the events which were not written stay in the batch, so that they are published or
+     * spooled again by the next run of the publishing task.
+     *
+     * @return null if the batch is spooled, or the error returned by the analytics event writer
+     */
+    public static Object spool() {
+        synchronized (LOCK) {
+            int written = 0;
+            try {
+                for (String event : BATCH) {
+                    // Aggregates are kept out of the usage data files, which go to an analytics server that does not
+                    // read them.
+                    Object result = AnalyticsAggregator.isAggregate(event) ? AnalyticsAggregator.spool(event) :
+                            AnalyticsEventWriter.write(event);
+                    if (result != null) {
+                        log.error("Error occurred while spooling the analytics event batch. {} of {} events are kept "
+                                + "for the next attempt.", BATCH.size() - written, BATCH.size());
+                        return result;
+                    }
+                    written++;
+                }
+            } finally {
+                SPOOLED_EVENTS.addAndGet(written);
+                BATCH.subList(0, written).clear();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return number of events waiting to be published
+     */
+    public static long getQueueDepth() {
+        MpscRingBuffer<String> eventQueue = queue;
+        return eventQueue == null ? 0 : eventQueue.size();
+    }
+
+    /**
+     * @return number of events spooled to the usage data file since startup
+     */
+    public static long getSpooledEvents() {
+        return SPOOLED_EVENTS.get();
+    }
+
+    /**
+     * Spools every event which has not been published yet. Called by the analytics event writer when the gateway
+     * is stopped, before the writer drains its own ring buffer.
+     */
+    static void spoolPending() {
+        synchronized (LOCK) {
+            MpscRingBuffer<String> eventQueue = queue;
+            if (eventQueue == null) {
+                return;
+            }
+            String event;
+            while ((event = eventQueue.poll()) != null) {
+                BATCH.add(event);
+            }
+            if (spool() != null) {
+                // There is no later attempt once the gateway is stopping.
+                log.error("Dropped {} analytics events which could not be spooled while stopping the gateway.",
+                        BATCH.size());
+                BATCH.clear();
+            }
+        }
+    }
+
+    private static byte[] serialize(boolean compress) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(BATCH.size() * 512);
+        try (OutputStream out = compress ? new GZIPOutputStream(bytes) : bytes) {
+            for (String event : BATCH) {
+                out.write(event.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,652 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.wso2.micro.gateway.core.compression.Compress;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Extern functions wso2.gateway:initAnalyticsWriter, wso2.gateway:writeAnalyticsEvent,
+ * wso2.gateway:rotateAnalyticsFile, wso2.gateway:getAnalyticsQueueDepth, wso2.gateway:getDroppedAnalyticsEvents,
+ * wso2.gateway:notifyAnalyticsFileRotated, wso2.gateway:consumeAnalyticsRotationNotification,
+ * wso2.gateway:compressStagedAnalyticsFiles, wso2.gateway:compressAnalyticsStagingDirectory and
+ * wso2.gateway:convertAnalyticsArchiveToText.
+ * Request threads only enqueue events into a bounded ring buffer. A single writer thread drains the ring buffer into
+ * a direct buffer, which is written to the usage data file when it is full and at a fixed interval. Rotation flushes
+ * the buffer and swaps the file channel under the same lock used by the writer thread.
+ * With streaming compression the events are deflated into a single zip entry as they are written, so rotation only
+ * has to finish the zip stream and rename the file. With the binary record format the events are encoded by
+ * {@link AnalyticsRecordEncoder} on the writer thread, and the upload task converts the rotated archives back to the
+ * text format with {@link #convertArchiveToText} before they are uploaded.
+ * Besides the rotating task, the file is rotated once it reaches a size threshold. The writer thread only signals a
+ * separate rotator thread, which rotates and compresses the file, so that writing continues into the new file while
+ * the rotated one is compressed. Every rotation raises a notification which the upload task polls for.
+ * A rotated file waits for compression in a staging directory. Staging directories left behind by a failed
+ * compression are compressed again by {@link #compressStaged}, which both rotations call.
+ */
+public class AnalyticsEventWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AnalyticsEventWriter.class);
+    private static final String NO_FILES_TO_ROTATE = "No files present to rotate.";
+    private static final String OVERFLOW_POLICY_BLOCK = "block";
+    private static final String OVERFLOW_POLICY_SAMPLE = "sample";
+    private static final String COMPRESSED_FILE_SUFFIX = ".compressed";
+    private static final String INCOMPLETE_FILE_SUFFIX = ".incomplete";
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final String RECORD_FORMAT_BINARY = "binary";
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final int MAX_DRAIN_BATCH = 1024;
+    private static final long SIZE_ROTATION_RETRY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long STAGING_RETRY_AGE_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final Object LOCK = new Object();
+    private static final Object STAGING_LOCK = new Object();
+    private static final AtomicLong DROPPED_EVENTS = new AtomicLong();
+    private static final AtomicLong SAMPLE_COUNTER = new AtomicLong();
+    private static final AtomicBoolean ROTATION_NOTIFICATION = new AtomicBoolean();
+
+    private static Path filePath;
+    private static FileChannel channel;
+    private static ByteBuffer buffer;
+    private static String entryName;
+    private static ZipOutputStream compressedStream;
+    private static AnalyticsRecordEncoder encoder;
+    private static long pendingBytes;
+    private static volatile MpscRingBuffer<String> queue;
+    private static String overflowPolicy;
+    private static long sampleRate;
+    private static long flushIntervalNanos;
+    private static volatile boolean running;
+    private static Thread writerThread;
+    private static long rotateSizeBytes;
+    private static volatile boolean sizeRotationRequested;
+    private static Thread rotatorThread;
+
+    private AnalyticsEventWriter() {
+    }
+
+    /**
+     * Opens the usage data file and starts the writer thread.
+     *
+     * @param dirPath             directory of the usage data file
+     * @param fileName            name of the usage data file
+     * @param bufferSize          size of the write buffer in bytes
+     * @param flushIntervalMillis maximum time an event stays in the buffer before it is written to the file
+     * @param queueCapacity       number of events the ring buffer can hold, rounded up to a power of two
+     * @param policy              what to do with new events when the ring buffer is full. One of "drop", "sample"
+     *                            or "block"
+     * @param eventSampleRate     with the "sample" policy, one in this many events is kept once the ring buffer is
+     *                            half full
+     * @param compress            whether to write the events through a streaming zip output
+     * @param recordFormat        "text" to write the events as they are, or "binary" to write them in the compact
+     *                            binary record format
+     * @param rotateSize          size in bytes at which the usage data file is rotated, or 0 to rotate only on the
+     *                            rotating task
+     * @return null if the writer is initialized successfully
+     */
+    public static Object init(String dirPath, String fileName, long bufferSize, long flushIntervalMillis,
+                              long queueCapacity, String policy, long eventSampleRate, boolean compress,
+                              String recordFormat, long rotateSize) {
+        synchronized (LOCK) {
+            if (channel != null) {
+                return null;
+            }
+            if (RECORD_FORMAT_BINARY.equals(recordFormat)) {
+                encoder = new AnalyticsRecordEncoder();
+            }
+            try {
+                Path dir = Paths.get(dirPath);
+                Files.createDirectories(dir);
+                entryName = fileName;
+                if (compress) {
+                    filePath = dir.resolve(fileName + COMPRESSED_FILE_SUFFIX);
+                    if (Files.exists(filePath)) {
+                        // A zip stream left open by an abrupt shutdown has no central directory and is not uploaded.
+                        Files.move(filePath, dir.resolve(fileName + "." + System.currentTimeMillis() +
+                                INCOMPLETE_FILE_SUFFIX));
+                    }
+                    buffer = ByteBuffer.allocate((int) bufferSize);
+                } else {
+                    filePath = dir.resolve(fileName);
+                    buffer = ByteBuffer.allocateDirect((int) bufferSize);
+                }
+                openFile(compress);
+            } catch (IOException e) {
+                throw ErrorUtils.getBallerinaError("Error occurred while opening the analytics usage file", e);
+            }
+            overflowPolicy = policy;
+            sampleRate = Math.max(1, eventSampleRate);
+            flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+            queue = new MpscRingBuffer<>((int) queueCapacity);
+            running = true;
+            writerThread = new Thread(AnalyticsEventWriter::drain, "analytics-event-writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+            rotateSizeBytes = rotateSize;
+            if (rotateSize > 0) {
+                rotatorThread = new Thread(AnalyticsEventWriter::rotateOnSize, "analytics-file-rotator");
+                rotatorThread.setDaemon(true);
+                rotatorThread.start();
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(AnalyticsEventWriter::shutdown));
+        }
+        return null;
+    }
+
+    /**
+     * Enqueues an event for the writer thread. Events which do not fit in the ring buffer are dropped or waited for,
+     * according to the overflow policy.
+     *
+     * @param event serialized event
+     * @return null if the event is accepted or dropped by the overflow policy
+     */
+    public static Object write(String event) {
+        MpscRingBuffer<String> eventQueue = queue;
+        if (eventQueue == null) {
+            throw ErrorUtils.getBallerinaError("Error occurred while writing the analytics event",
+                    "Analytics event writer is not initialized");
+        }
+        if (OVERFLOW_POLICY_SAMPLE.equals(overflowPolicy) && eventQueue.size() >= eventQueue.capacity() / 2
+                && SAMPLE_COUNTER.incrementAndGet() % sampleRate != 0) {
+            DROPPED_EVENTS.incrementAndGet();
+            return null;
+        }
+        if (eventQueue.offer(event)) {
+            return null;
+        }
+        if (OVERFLOW_POLICY_BLOCK.equals(overflowPolicy)) {
+            while (running) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                if (eventQueue.offer(event)) {
+                    return null;
+                }
+            }
+        }
+        DROPPED_EVENTS.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Flushes buffered events and moves the current usage data file to the given path. A new file is opened for the
+     * subsequent events before the lock is released, so no event is written to the rotated file afterwards. With
+     * streaming compression the moved file is a complete zip archive.
+     *
+     * @param rotatedPath path to move the current usage data file to
+     * @return null if the file is rotated
+     */
+    public static Object rotate(String rotatedPath) {
+        synchronized (LOCK) {
+            if (channel == null) {
+                throw ErrorUtils.getBallerinaError(NO_FILES_TO_ROTATE, "Analytics event writer is not initialized");
+            }
+            try {
+                flushBuffer();
+                if (pendingBytes == 0) {
+                    throw ErrorUtils.getBallerinaError(NO_FILES_TO_ROTATE, "Usage data file is empty");
+                }
+                boolean compress = compressedStream != null;
+                try {
+                    closeFile();
+                    Path target = Paths.get(rotatedPath);
+                    Path targetDir = target.getParent();
+                    if (targetDir != null) {
+                        Files.createDirectories(targetDir);
+                    }
+                    Files.move(filePath, target, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    // A file is always open after a rotation. If the move failed, the writer keeps appending to the
+                    // file which was not rotated, instead of dropping every event until a restart.
+                    openFile(compress);
+                }
+            } catch (IOException e) {
+                throw ErrorUtils.getBallerinaError("Error occurred while rotating the analytics usage file", e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return directory of the usage data file, or null if the writer is not initialized
+     */
+    static Path getDirectory() {
+        synchronized (LOCK) {
+            return filePath == null ? null : filePath.getParent();
+        }
+    }
+
+    /**
+     * Notifies the upload task that a rotated usage data file is ready to be uploaded.
+     */
+    public static void notifyRotated() {
+        ROTATION_NOTIFICATION.set(true);
+    }
+
+    /**
+     * Returns whether a file was rotated since the last call, and clears the notification.
+     *
+     * @return true if a usage data file was rotated since the last call
+     */
+    public static boolean consumeRotationNotification() {
+        return ROTATION_NOTIFICATION.getAndSet(false);
+    }
+
+    /**
+     * @return number of events waiting in the ring buffer
+     */
+    public static long getQueueDepth() {
+        MpscRingBuffer<String> eventQueue = queue;
+        return eventQueue == null ? 0 : eventQueue.size();
+    }
+
+    /**
+     * @return number of events dropped since startup
+     */
+    public static long getDroppedEvents() {
+        return DROPPED_EVENTS.get();
+    }
+
+    private static void drain() {
+        long lastFlush = System.nanoTime();
+        while (running) {
+            boolean drained = drainBatch();
+            if (System.nanoTime() - lastFlush >= flushIntervalNanos) {
+                flushQuietly();
+                lastFlush = System.nanoTime();
+            }
+            if (!drained) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private static boolean drainBatch() {
+        String event = queue.poll();
+        if (event == null) {
+            return false;
+        }
+        synchronized (LOCK) {
+            int count = 0;
+            do {
+                try {
+                    append(encoder != null ? encoder.encode(event) : event.getBytes(StandardCharsets.UTF_8));
+                } catch (IOException e) {
+                    // The event cannot be written to the usage data file and is dropped. Dictionary entries added
+                    // for it never reached the file, so the next record starts a new segment.
+                    DROPPED_EVENTS.incrementAndGet();
+                    if (encoder != null) {
+                        encoder.reset();
+                    }
+                }
+            } while (++count < MAX_DRAIN_BATCH && (event = queue.poll()) != null);
+            if (rotateSizeBytes > 0 && pendingBytes >= rotateSizeBytes && !sizeRotationRequested) {
+                sizeRotationRequested = true;
+                LockSupport.unpark(rotatorThread);
+            }
+        }
+        return true;
+    }
+
+    private static void rotateOnSize() {
+        while (running) {
+            LockSupport.park();
+            if (!sizeRotationRequested) {
+                continue;
+            }
+            try {
+                compressStaged();
+                Path dir = filePath.getParent();
+                String rotatedName = entryName + "." + System.currentTimeMillis() + "." + UUID.randomUUID();
+                boolean compress;
+                synchronized (LOCK) {
+                    compress = compressedStream != null;
+                }
+                if (compress) {
+                    rotate(dir.resolve(rotatedName + ZIP_EXTENSION).toString());
+                } else {
+                    // Same layout as the rotating task: the file keeps its name inside a staging directory, which
+                    // is compressed after the writer has moved on to the new file.
+                    Path stagingDir = dir.resolve(rotatedName);
+                    rotate(stagingDir.resolve(entryName).toString());
+                    synchronized (STAGING_LOCK) {
+                        compressStagingDir(stagingDir);
+                    }
+                }
+                notifyRotated();
+            } catch (Exception e) {
+                // A staging directory which could not be compressed is compressed again by a later rotation. Wait
+                // before the next attempt, as the writer thread asks for a rotation again on every batch while the
+                // file is above the threshold.
+                log.error("Error occurred while rotating the analytics usage file on size", e);
+                LockSupport.parkNanos(SIZE_ROTATION_RETRY_NANOS);
+            } finally {
+                sizeRotationRequested = false;
+            }
+        }
+    }
+
+    /**
+     * Compresses the staging directories left behind by rotations whose compression failed, so that their events
+     * are uploaded with the next files. Only staging directories older than a minute are picked up, which leaves
+     * the one of a rotation in progress alone.
+     *
+     * @return number of compressed staging directories
+     */
+    public static long compressStaged() {
+        Path dir;
+        synchronized (LOCK) {
+            if (filePath == null) {
+                return 0;
+            }
+            dir = filePath.getParent();
+        }
+        long compressed = 0;
+        long before = System.currentTimeMillis() - STAGING_RETRY_AGE_MILLIS;
+        synchronized (STAGING_LOCK) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, entryName + ".*")) {
+                for (Path stagingDir : stream) {
+                    if (!Files.isDirectory(stagingDir) ||
+                            Files.getLastModifiedTime(stagingDir).toMillis() > before) {
+                        continue;
+                    }
+                    try {
+                        compressStagingDir(stagingDir);
+                        compressed++;
+                    } catch (Exception e) {
+                        log.error("Error occurred while compressing the rotated usage data in " + stagingDir, e);
+                    }
+                }
+            } catch (IOException e) {
+                log.error("Error occurred while looking for rotated usage data in " + dir, e);
+            }
+        }
+        if (compressed > 0) {
+            notifyRotated();
+        }
+        return compressed;
+    }
+
+    /**
+     * Compresses a staging directory into a zip archive next to it and removes the directory. Staging directories
+     * are only compressed under the staging lock, so that the rotating task, the size rotator and
+     * {@link #compressStaged} never work on the same directory at once.
+     *
+     * @param stagingDir path of the staging directory
+     * @return null if the directory is compressed
+     */
+    public static Object compressStagingDirectory(String stagingDir) {
+        synchronized (STAGING_LOCK) {
+            try {
+                compressStagingDir(Paths.get(stagingDir));
+            } catch (Exception e) {
+                throw ErrorUtils.getBallerinaError("Error occurred while compressing the rotated usage data in "
+                        + stagingDir, e);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rewrites the entries of a rotated zip archive which are in the binary record format in the text format, as the
+     * analytics server only reads text records. Called by the upload task for every archive it is about to upload,
+     * so that the archives of every rotation path, including the ones left by an earlier run, are converted. The
+     * converted archive replaces the original one atomically, hence an interrupted conversion leaves the binary
+     * archive to be converted again.
+     *
+     * @param archivePath path of the zip archive
+     * @return size of the archive in bytes after the conversion
+     */
+    public static Object convertArchiveToText(String archivePath) {
+        Path archive = Paths.get(archivePath);
+        try {
+            if (!isBinaryArchive(archive)) {
+                return Files.size(archive);
+            }
+            Path dir = archive.toAbsolutePath().getParent();
+            Path partFile = Files.createTempFile(dir, "." + archive.getFileName(), ".part");
+            try {
+                long records = convertArchive(archive, partFile);
+                Files.move(partFile, archive, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                log.debug("Converted {} analytics records of {} to the text format", records, archive);
+            } finally {
+                Files.deleteIfExists(partFile);
+            }
+            return Files.size(archive);
+        } catch (IOException e) {
+            throw ErrorUtils.getBallerinaError("Error occurred while converting the usage data in " + archivePath
+                    + " to the text format", e);
+        }
+    }
+
+    private static boolean isBinaryArchive(Path archive) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive)))) {
+            while (in.getNextEntry() != null) {
+                byte[] header = new byte[AnalyticsRecordEncoder.MAGIC.length];
+                int length = 0;
+                int read;
+                while (length < header.length && (read = in.read(header, length, header.length - length)) != -1) {
+                    length += read;
+                }
+                if (AnalyticsRecordReader.isBinaryFormat(header, length)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long convertArchive(Path archive, Path target) throws IOException {
+        long records = 0;
+        try (ZipInputStream in = new ZipInputStream(new BufferedInputStream(Files.newInputStream(archive)));
+                ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                InputStream entryIn = new BufferedInputStream(in);
+                entryIn.mark(AnalyticsRecordEncoder.MAGIC.length);
+                byte[] header = new byte[AnalyticsRecordEncoder.MAGIC.length];
+                int length = entryIn.read(header);
+                entryIn.reset();
+                if (AnalyticsRecordReader.isBinaryFormat(header, length)) {
+                    records += copyAsText(entryIn, out);
+                } else {
+                    copy(entryIn, out);
+                }
+                out.closeEntry();
+            }
+        }
+        return records;
+    }
+
+    private static long copyAsText(InputStream in, OutputStream out) throws IOException {
+        AnalyticsRecordReader reader = new AnalyticsRecordReader(in);
+        // Not closed, as closing would close the zip stream.
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        long records = 0;
+        String record;
+        while ((record = reader.readRecord()) != null) {
+            writer.write(record);
+            records++;
+        }
+        writer.flush();
+        return records;
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        byte[] bytes = new byte[8192];
+        int read;
+        while ((read = in.read(bytes)) != -1) {
+            out.write(bytes, 0, read);
+        }
+    }
+
+    private static void compressStagingDir(Path stagingDir) throws Exception {
+        if (!Files.isDirectory(stagingDir)) {
+            // Already compressed by another rotation while this one waited for the staging lock.
+            return;
+        }
+        Path staged = stagingDir.resolve(entryName);
+        if (Files.exists(staged)) {
+            Compress.compress(stagingDir.toString(), stagingDir + ZIP_EXTENSION);
+            Files.delete(staged);
+        }
+        Files.delete(stagingDir);
+    }
+
+    private static void shutdown() {
+        // Aggregates of the current minute and events which were not streamed to the analytics receiver yet go to
+        // the usage data file.
+        AnalyticsAggregator.emitAll();
+        AnalyticsEventPublisher.spoolPending();
+        running = false;
+        Thread thread = writerThread;
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (thread == null || !thread.isAlive()) {
+            while (drainBatch()) {
+                // Write out the events which were queued when the gateway was stopped.
+            }
+        }
+        flushQuietly();
+        synchronized (LOCK) {
+            if (compressedStream == null) {
+                return;
+            }
+            try {
+                // Complete the zip archive so that it is uploaded after the restart.
+                closeFile();
+                if (pendingBytes > 0) {
+                    Files.move(filePath, filePath.resolveSibling(entryName + "." + System.currentTimeMillis() + "." +
+                            UUID.randomUUID() + ZIP_EXTENSION), StandardCopyOption.ATOMIC_MOVE);
+                } else {
+                    Files.delete(filePath);
+                }
+            } catch (IOException e) {
+                // The incomplete archive is set aside on the next startup.
+            }
+        }
+    }
+
+    private static void append(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.remaining()) {
+            flushBuffer();
+        }
+        if (bytes.length > buffer.capacity()) {
+            if (compressedStream != null) {
+                compressedStream.write(bytes);
+            } else {
+                writeFully(ByteBuffer.wrap(bytes));
+            }
+        } else {
+            buffer.put(bytes);
+        }
+        pendingBytes += bytes.length;
+    }
+
+    private static void openFile(boolean compress) throws IOException {
+        channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        pendingBytes = channel.size();
+        if (encoder != null) {
+            // Every file, and every restart appending to a file, starts a new segment with its own dictionary.
+            encoder.reset();
+        }
+        if (compress) {
+            compressedStream = new ZipOutputStream(Channels.newOutputStream(channel));
+            compressedStream.putNextEntry(new ZipEntry(entryName));
+        }
+    }
+
+    private static void closeFile() throws IOException {
+        try {
+            if (compressedStream != null) {
+                compressedStream.closeEntry();
+                compressedStream.finish();
+                compressedStream = null;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static void flushQuietly() {
+        synchronized (LOCK) {
+            if (channel == null || !channel.isOpen()) {
+                return;
+            }
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                // Events stay in the buffer and are retried on the next flush.
+            }
+        }
+    }
+
+    private static void flushBuffer() throws IOException {
+        if (buffer.position() == 0) {
+            return;
+        }
+        if (compressedStream != null) {
+            compressedStream.write(buffer.array(), buffer.arrayOffset(), buffer.position());
+            buffer.clear();
+            return;
+        }
+        buffer.flip();
+        try {
+            writeFully(buffer);
+        } finally {
+            buffer.compact();
+        }
+    }
+
+    private static void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes analytics events into the compact binary record format.
+ * <p>
+ * A file is a sequence of segments. Each segment starts with the magic bytes "MGWA" and a version byte, followed by
+ * records. A record is the list of values between the "-KS-", "-ES-" and "-OS-" separators of the text event. Every
+ * value starts with a tag byte, which holds the value kind in the upper bits and the separator that follows the value
+ * in the lower two bits (0 marks the end of the record). Repeated strings such as the API name, context, tier and
+ * application are written once per segment and referenced by their dictionary index afterwards, and integers are
+ * written as zigzag varints. The encoding is lossless: decoding a record gives back the exact text line.
+ * <p>
+ * Files are converted back to the text format by {@link AnalyticsRecordReader} before they are uploaded, and offline
+ * by the converter of the micro-gateway-tools module.
+ */
+final class AnalyticsRecordEncoder {
+
+    static final byte[] MAGIC = {'M', 'G', 'W', 'A'};
+    static final int VERSION = 1;
+
+    static final int KIND_DICTIONARY_REFERENCE = 0;
+    static final int KIND_DICTIONARY_ENTRY = 1;
+    static final int KIND_NUMBER = 2;
+    static final int KIND_STRING = 3;
+
+    static final int SEPARATOR_END = 0;
+    static final int SEPARATOR_KVT = 1;
+    static final int SEPARATOR_EVS = 2;
+    static final int SEPARATOR_OBJ = 3;
+
+    private static final int MAX_DICTIONARY_SIZE = 65536;
+    private static final int MAX_DICTIONARY_VALUE_LENGTH = 256;
+    private static final int MAX_NUMBER_LENGTH = 18;
+    private static final int SEPARATOR_LENGTH = 4;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(512);
+    private boolean segmentStarted;
+
+    /**
+     * Starts a new segment with an empty dictionary. Must be called whenever the encoded records go to a new file.
+     */
+    void reset() {
+        dictionary.clear();
+        segmentStarted = false;
+    }
+
+    /**
+     * Encodes a text event, including the segment header if this is the first record of the segment.
+     *
+     * @param event text event as built by getEventData
+     * @return encoded record
+     */
+    byte[] encode(String event) {
+        output.reset();
+        if (!segmentStarted) {
+            output.write(MAGIC, 0, MAGIC.length);
+            output.write(VERSION);
+            segmentStarted = true;
+        }
+        int end = event.length();
+        if (end > 0 && event.charAt(end - 1) == '\n') {
+            end--;
+        }
+        int start = 0;
+        while (true) {
+            int separatorIndex = start;
+            int separator = SEPARATOR_END;
+            while (separatorIndex + SEPARATOR_LENGTH <= end) {
+                separator = separatorAt(event, separatorIndex);
+                if (separator != SEPARATOR_END) {
+                    break;
+                }
+                separatorIndex++;
+            }
+            if (separator == SEPARATOR_END) {
+                separatorIndex = end;
+            }
+            writeValue(event.substring(start, separatorIndex), separator);
+            if (separator == SEPARATOR_END) {
+                return output.toByteArray();
+            }
+            start = separatorIndex + SEPARATOR_LENGTH;
+        }
+    }
+
+    private void writeValue(String value, int separator) {
+        if (isNumber(value)) {
+            output.write(KIND_NUMBER << 2 | separator);
+            long number = Long.parseLong(value);
+            writeVarint((number << 1) ^ (number >> 63));
+            return;
+        }
+        Integer index = dictionary.get(value);
+        if (index != null) {
+            output.write(KIND_DICTIONARY_REFERENCE << 2 | separator);
+            writeVarint(index);
+            return;
+        }
+        if (value.length() <= MAX_DICTIONARY_VALUE_LENGTH && dictionary.size() < MAX_DICTIONARY_SIZE) {
+            dictionary.put(value, dictionary.size());
+            output.write(KIND_DICTIONARY_ENTRY << 2 | separator);
+        } else {
+            output.write(KIND_STRING << 2 | separator);
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(bytes.length);
+        output.write(bytes, 0, bytes.length);
+    }
+
+    private void writeVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            output.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        output.write((int) value);
+    }
+
+    private static int separatorAt(String event, int index) {
+        if (event.charAt(index) != '-' || event.charAt(index + 2) != 'S' || event.charAt(index + 3) != '-') {
+            return SEPARATOR_END;
+        }
+        switch (event.charAt(index + 1)) {
+            case 'K':
+                return SEPARATOR_KVT;
+            case 'E':
+                return SEPARATOR_EVS;
+            case 'O':
+                return SEPARATOR_OBJ;
+            default:
+                return SEPARATOR_END;
+        }
+    }
+
+    /**
+     * Only canonical decimal integers are encoded as numbers, so that decoding restores the exact text.
+     */
+    private static boolean isNumber(String value) {
+        int length = value.length();
+        int start = length > 0 && value.charAt(0) == '-' ? 1 : 0;
+        if (length == start || length - start > MAX_NUMBER_LENGTH) {
+            return false;
+        }
+        if (value.charAt(start) == '0') {
+            return length == 1;
+        }
+        for (int i = start; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
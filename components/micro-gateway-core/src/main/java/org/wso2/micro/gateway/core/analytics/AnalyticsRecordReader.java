@@ -0,0 +1,166 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads records written by {@link AnalyticsRecordEncoder} and returns each of them as the equivalent text event line.
+ * Used to convert binary usage data files to the text format before they are uploaded, as the analytics server only
+ * reads text records. The micro-gateway-tools module has its own copy, which does not depend on the gateway core,
+ * for converting files offline.
+ */
+final class AnalyticsRecordReader {
+
+    private static final String[] SEPARATORS = {"\n", "-KS-", "-ES-", "-OS-"};
+
+    private final InputStream input;
+    private final List<String> dictionary = new ArrayList<>();
+    private final StringBuilder line = new StringBuilder(512);
+    private boolean segmentStarted;
+
+    AnalyticsRecordReader(InputStream input) {
+        this.input = input instanceof BufferedInputStream ? input : new BufferedInputStream(input);
+    }
+
+    /**
+     * Checks whether a stream starts with the binary record format header.
+     *
+     * @param header first bytes of the stream
+     * @param length number of valid bytes in the header
+     * @return true if the stream is in the binary record format
+     */
+    static boolean isBinaryFormat(byte[] header, int length) {
+        if (length < AnalyticsRecordEncoder.MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < AnalyticsRecordEncoder.MAGIC.length; i++) {
+            if (header[i] != AnalyticsRecordEncoder.MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record in the text event format, including the trailing new line, or null at the end of the stream
+     * @throws IOException if the stream cannot be read, is truncated or is not in the binary record format
+     */
+    String readRecord() throws IOException {
+        int tag = input.read();
+        if (tag == -1) {
+            return null;
+        }
+        if (tag == AnalyticsRecordEncoder.MAGIC[0]) {
+            readSegmentHeader();
+            tag = input.read();
+            if (tag == -1) {
+                return null;
+            }
+        } else if (!segmentStarted) {
+            throw new IOException("Not an analytics binary record file");
+        }
+        line.setLength(0);
+        while (true) {
+            int separator = tag & 0x3;
+            line.append(readValue(tag >>> 2));
+            line.append(SEPARATORS[separator]);
+            if (separator == AnalyticsRecordEncoder.SEPARATOR_END) {
+                return line.toString();
+            }
+            tag = readByte();
+        }
+    }
+
+    private void readSegmentHeader() throws IOException {
+        for (int i = 1; i < AnalyticsRecordEncoder.MAGIC.length; i++) {
+            if (readByte() != AnalyticsRecordEncoder.MAGIC[i]) {
+                throw new IOException("Invalid analytics binary record segment header");
+            }
+        }
+        int version = readByte();
+        if (version != AnalyticsRecordEncoder.VERSION) {
+            throw new IOException("Unsupported analytics binary record version : " + version);
+        }
+        dictionary.clear();
+        segmentStarted = true;
+    }
+
+    private String readValue(int kind) throws IOException {
+        switch (kind) {
+            case AnalyticsRecordEncoder.KIND_DICTIONARY_REFERENCE:
+                long index = readVarint();
+                if (index >= dictionary.size()) {
+                    throw new IOException("Invalid dictionary reference : " + index);
+                }
+                return dictionary.get((int) index);
+            case AnalyticsRecordEncoder.KIND_DICTIONARY_ENTRY:
+                String entry = readString();
+                dictionary.add(entry);
+                return entry;
+            case AnalyticsRecordEncoder.KIND_NUMBER:
+                long value = readVarint();
+                return Long.toString((value >>> 1) ^ -(value & 1));
+            case AnalyticsRecordEncoder.KIND_STRING:
+                return readString();
+            default:
+                throw new IOException("Invalid value kind : " + kind);
+        }
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readVarint();
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = input.read(bytes, offset, length - offset);
+            if (read == -1) {
+                throw new EOFException("Truncated analytics binary record");
+            }
+            offset += read;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int b = input.read();
+        if (b == -1) {
+            throw new EOFException("Truncated analytics binary record");
+        }
+        return b;
+    }
+}
@@ -20,33 +20,122 @@ import org.ballerinalang.jvm.util.exceptions.BLangRuntimeException;
 import org.wso2.micro.gateway.core.Constants;
 import org.wso2.micro.gateway.core.utils.ErrorUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringJoiner;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
- * Extern function wso2.gateway:compress.
- *
- *
+ * Extern functions wso2.gateway:compress and wso2.gateway:configureCompression.
+ * Files are deflated at the configured compression level through large buffers. When a directory with more than one
+ * file is compressed, the files are deflated in parallel by {@link ParallelZipWriter}.
  */
 public class Compress {
 
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final String PART_SUFFIX = ".part";
+
+    private static volatile int level = Deflater.DEFAULT_COMPRESSION;
+    private static volatile int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Sets the compression level and the number of threads used to compress multiple files.
+     *
+     * @param compressionLevel deflate level from 0 (no compression) to 9 (best compression), or -1 for the default
+     *                         level
+     * @param compressionThreads maximum number of files deflated in parallel
+     */
+    public static void configure(long compressionLevel, long compressionThreads) {
+        level = compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION ?
+                Deflater.DEFAULT_COMPRESSION : (int) compressionLevel;
+        threads = (int) Math.max(1, compressionThreads);
+    }
+
     /**
-     * Compresses a given folder or file.
+     * Compresses a given folder or file. The archive is written to a temporary file next to the destination and
+     * moved to the destination once it is complete, so that the usage data uploader never sees a partial archive.
      *
      * @param dirPath directory path to be compressed
      * @param destDir destination path to place the compressed file
      * @throws IOException exception if an error occurrs when compressing
      */
     private static void compress(Path dirPath, Path destDir) throws IOException {
-        compressFiles(dirPath, new FileOutputStream(destDir.toFile()));
+        List<ZipSource> sources = listSources(dirPath);
+        Path archive = createPartFile(destDir);
+        try {
+            if (sources.size() <= 1 || sources.size() > ParallelZipWriter.MAX_ENTRIES || threads <= 1 ||
+                    !new ParallelZipWriter(level, threads, BUFFER_SIZE).compress(sources, archive)) {
+                compressFiles(sources, new FileOutputStream(archive.toFile()));
+            }
+            try {
+                Files.move(archive, destDir, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(archive, destDir, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(archive);
+        }
+    }
+
+    /**
+     * Creates a hidden temporary file next to a zip archive. Its name does not contain the zip extension, so that
+     * the usage data uploader, which picks every file whose name contains it, does not upload it.
+     *
+     * @param dest path of the zip archive
+     * @return path of the temporary file
+     * @throws IOException if the file cannot be created
+     */
+    static Path createPartFile(Path dest) throws IOException {
+        Path parent = dest.toAbsolutePath().getParent();
+        String name = String.valueOf(dest.getFileName()).replace(ZIP_EXTENSION, "");
+        return Files.createTempFile(parent, "." + name + ".", PART_SUFFIX);
+    }
+
+    /**
+     * Lists the files to compress with their entry names. Entries of a directory are named by their path relative
+     * to the directory.
+     *
+     * @param dir file or directory to compress
+     * @return files to compress
+     * @throws IOException exception if the directory cannot be read
+     */
+    private static List<ZipSource> listSources(Path dir) throws IOException {
+        List<ZipSource> sources = new ArrayList<>();
+        if (Files.isRegularFile(dir)) {
+            Path fileName = dir.getFileName();
+            if (fileName == null) {
+                throw new BLangRuntimeException("Error occurred when compressing");
+            }
+            sources.add(new ZipSource(dir, fileName.toString()));
+            return sources;
+        }
+        List<Path> files;
+        try (Stream<Path> list = Files.walk(dir)) {
+            files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        for (Path p : files) {
+            StringJoiner joiner = new StringJoiner("/");
+            for (Path path : dir.relativize(p)) {
+                joiner.add(path.toString());
+            }
+            sources.add(new ZipSource(p, joiner.toString()));
+        }
+        return sources;
     }
 
     /**
@@ -54,48 +143,38 @@ public class Compress {
      *
      * @param zos      ZipOutputStream
      * @param filePath file path of each file inside the driectory
+     * @param buffer   buffer used to copy the file
      * @throws IOException exception if an error occurrs when compressing
      */
-    private static void addEntry(ZipOutputStream zos, Path filePath, String fileStr) throws IOException {
+    private static void addEntry(ZipOutputStream zos, Path filePath, String fileStr, byte[] buffer)
+            throws IOException {
         ZipEntry ze = new ZipEntry(fileStr);
         zos.putNextEntry(ze);
-        Files.copy(filePath, zos);
+        try (InputStream in = Files.newInputStream(filePath)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                zos.write(buffer, 0, read);
+            }
+        }
         zos.closeEntry();
     }
 
     /**
-     * Compresses files.
+     * Compresses files one after the other.
      *
+     * @param sources      files to compress
      * @param outputStream outputstream
      * @return outputstream of the compressed file
      * @throws IOException exception if an error occurrs when compressing
      */
-    static OutputStream compressFiles(Path dir, OutputStream outputStream) throws IOException {
-        ZipOutputStream zos = new ZipOutputStream(outputStream);
-        if (Files.isRegularFile(dir)) {
-            Path fileName = dir.getFileName();
-            if (fileName != null) {
-                addEntry(zos, dir, fileName.toString());
-            } else {
-                throw new BLangRuntimeException("Error occurred when compressing");
+    static OutputStream compressFiles(List<ZipSource> sources, OutputStream outputStream) throws IOException {
+        try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(outputStream, BUFFER_SIZE))) {
+            zos.setLevel(level);
+            byte[] buffer = new byte[BUFFER_SIZE];
+            for (ZipSource source : sources) {
+                addEntry(zos, source.getPath(), source.getEntryName(), buffer);
             }
-        } else {
-            Stream<Path> list = Files.walk(dir);
-            list.forEach(p -> {
-                StringJoiner joiner = new StringJoiner("/");
-                for (Path path : dir.relativize(p)) {
-                    joiner.add(path.toString());
-                }
-                if (Files.isRegularFile(p)) {
-                    try {
-                        addEntry(zos, p, joiner.toString());
-                    } catch (IOException e) {
-                        throw new BLangRuntimeException("Error occurred when compressing");
-                    }
-                }
-            });
         }
-        zos.close();
         return outputStream;
     }
 
@@ -116,4 +195,25 @@ public class Compress {
             }
         }
     }
+
+    /**
+     * A file to compress and the name of its zip entry.
+     */
+    static final class ZipSource {
+        private final Path path;
+        private final String entryName;
+
+        ZipSource(Path path, String entryName) {
+            this.path = path;
+            this.entryName = entryName;
+        }
+
+        Path getPath() {
+            return path;
+        }
+
+        String getEntryName() {
+            return entryName;
+        }
+    }
 }
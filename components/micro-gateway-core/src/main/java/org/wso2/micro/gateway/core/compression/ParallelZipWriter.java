@@ -0,0 +1,242 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.compression;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a zip archive whose entries are deflated in parallel. Every file is deflated on a worker thread into a
+ * temporary file next to the archive. The archive is then assembled by writing the zip headers and transferring the
+ * deflated data from the temporary files with {@link FileChannel#transferTo}.
+ * <p>
+ * Only the classic zip format is written. Inputs which need zip64 are reported with {@link #compress} returning
+ * false, so that the caller can fall back to {@link java.util.zip.ZipOutputStream}.
+ */
+final class ParallelZipWriter {
+
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_LENGTH = 30;
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+    private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+    private static final short VERSION = 20;
+    private static final short UTF8_FLAG = 0x0800;
+    private static final short DEFLATED = 8;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+    static final int MAX_ENTRIES = 0xFFFF;
+
+    private final int level;
+    private final int threads;
+    private final int bufferSize;
+
+    ParallelZipWriter(int level, int threads, int bufferSize) {
+        this.level = level;
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Compresses the given files into a zip archive.
+     *
+     * @param sources files to compress and their entry names
+     * @param dest    path of the zip archive
+     * @return false if the archive needs zip64, in which case nothing is written
+     * @throws IOException if a file cannot be read or the archive cannot be written
+     */
+    boolean compress(List<Compress.ZipSource> sources, Path dest) throws IOException {
+        List<DeflatedEntry> entries = new ArrayList<>(sources.size());
+        try {
+            deflateAll(sources, dest, entries);
+            long offset = 0;
+            for (DeflatedEntry entry : entries) {
+                if (entry.size >= MAX_SIZE || entry.compressedSize >= MAX_SIZE) {
+                    return false;
+                }
+                entry.offset = offset;
+                offset += LOCAL_HEADER_LENGTH + entry.name.length + entry.compressedSize;
+                if (offset >= MAX_SIZE) {
+                    return false;
+                }
+            }
+            writeArchive(entries, dest);
+            return true;
+        } finally {
+            for (DeflatedEntry entry : entries) {
+                if (entry.deflated != null) {
+                    Files.deleteIfExists(entry.deflated);
+                }
+            }
+        }
+    }
+
+    private void deflateAll(List<Compress.ZipSource> sources, Path dest, List<DeflatedEntry> entries)
+            throws IOException {
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, sources.size()), runnable -> {
+            Thread thread = new Thread(runnable, "gateway-compressor-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>(sources.size());
+            for (Compress.ZipSource source : sources) {
+                DeflatedEntry entry = new DeflatedEntry(source);
+                entries.add(entry);
+                futures.add(executor.submit(() -> {
+                    deflate(entry, dest);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while compressing", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException ? (IOException) cause : new IOException(cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void deflate(DeflatedEntry entry, Path dest) throws IOException {
+        entry.deflated = Compress.createPartFile(dest);
+        entry.modified = toDosTime(Files.getLastModifiedTime(entry.source).toMillis());
+        CRC32 crc = new CRC32();
+        Deflater deflater = new Deflater(level, true);
+        byte[] buffer = new byte[bufferSize];
+        long size = 0;
+        try (InputStream in = Files.newInputStream(entry.source);
+                OutputStream out = new DeflaterOutputStream(new BufferedOutputStream(
+                        Files.newOutputStream(entry.deflated), bufferSize), deflater, bufferSize)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+                size += read;
+            }
+        } finally {
+            deflater.end();
+        }
+        entry.size = size;
+        entry.crc = crc.getValue();
+        entry.compressedSize = Files.size(entry.deflated);
+    }
+
+    private void writeArchive(List<DeflatedEntry> entries, Path dest) throws IOException {
+        try (FileChannel out = FileChannel.open(dest, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (DeflatedEntry entry : entries) {
+                ByteBuffer header = newBuffer(LOCAL_HEADER_LENGTH + entry.name.length);
+                header.putInt(LOCAL_HEADER_SIGNATURE).putShort(VERSION).putShort(UTF8_FLAG).putShort(DEFLATED)
+                        .putInt((int) entry.modified).putInt((int) entry.crc).putInt((int) entry.compressedSize)
+                        .putInt((int) entry.size).putShort((short) entry.name.length).putShort((short) 0)
+                        .put(entry.name);
+                writeFully(out, header);
+                try (FileChannel in = FileChannel.open(entry.deflated, StandardOpenOption.READ)) {
+                    long position = 0;
+                    while (position < entry.compressedSize) {
+                        position += in.transferTo(position, entry.compressedSize - position, out);
+                    }
+                }
+            }
+            long centralDirectoryOffset = out.position();
+            int centralDirectorySize = 0;
+            for (DeflatedEntry entry : entries) {
+                ByteBuffer header = newBuffer(CENTRAL_HEADER_LENGTH + entry.name.length);
+                header.putInt(CENTRAL_HEADER_SIGNATURE).putShort(VERSION).putShort(VERSION).putShort(UTF8_FLAG)
+                        .putShort(DEFLATED).putInt((int) entry.modified).putInt((int) entry.crc)
+                        .putInt((int) entry.compressedSize).putInt((int) entry.size)
+                        .putShort((short) entry.name.length).putShort((short) 0).putShort((short) 0)
+                        .putShort((short) 0).putShort((short) 0).putInt(0).putInt((int) entry.offset)
+                        .put(entry.name);
+                centralDirectorySize += header.capacity();
+                writeFully(out, header);
+            }
+            ByteBuffer end = newBuffer(END_OF_CENTRAL_DIRECTORY_LENGTH);
+            end.putInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE).putShort((short) 0).putShort((short) 0)
+                    .putShort((short) entries.size()).putShort((short) entries.size()).putInt(centralDirectorySize)
+                    .putInt((int) centralDirectoryOffset).putShort((short) 0);
+            writeFully(out, end);
+        }
+    }
+
+    private static ByteBuffer newBuffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Converts a time to the MS-DOS date and time used in zip headers, with the time in the lower 16 bits.
+     */
+    private static long toDosTime(long millis) {
+        LocalDateTime time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+        if (time.getYear() < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((long) (time.getYear() - 1980) << 25 | time.getMonthValue() << 21 | time.getDayOfMonth() << 16 |
+                time.getHour() << 11 | time.getMinute() << 5 | time.getSecond() >> 1) & MAX_SIZE;
+    }
+
+    private static final class DeflatedEntry {
+        private final Path source;
+        private final byte[] name;
+        private Path deflated;
+        private long modified;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long offset;
+
+        private DeflatedEntry(Compress.ZipSource source) {
+            this.source = source.getPath();
+            this.name = source.getEntryName().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
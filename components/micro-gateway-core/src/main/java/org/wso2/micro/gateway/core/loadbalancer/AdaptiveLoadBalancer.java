@@ -0,0 +1,143 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.loadbalancer;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extern functions wso2.gateway:initAdaptiveLoadBalancer, wso2.gateway:selectAdaptiveTarget and
+ * wso2.gateway:completeAdaptiveTarget.
+ * Picks the target of a load balanced endpoint with the power of two choices. Two targets are drawn at random and
+ * the one with the lower cost is used, where the cost is the peak EWMA latency of the target multiplied by the
+ * requests in flight to it plus one. A latency above the average replaces it at once, while lower latencies are
+ * folded in with a weight that decays over the decay time. The average also decays while a target is not used, so
+ * that a target which was slow is tried again after a while instead of being starved.
+ */
+public class AdaptiveLoadBalancer {
+
+    private static final Map<String, Target[]> BALANCERS = new ConcurrentHashMap<>();
+
+    private static volatile double decayTimeNanos = TimeUnit.SECONDS.toNanos(10);
+    private static volatile long failurePenaltyNanos = TimeUnit.SECONDS.toNanos(5);
+
+    private AdaptiveLoadBalancer() {
+    }
+
+    /**
+     * Configures the latency tracking of every adaptive load balancer.
+     *
+     * @param decayTimeMillis      time over which the weight of a latency sample decays to 1/e
+     * @param failurePenaltyMillis latency recorded for a request which failed, if it failed faster than that
+     */
+    public static void init(long decayTimeMillis, long failurePenaltyMillis) {
+        decayTimeNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, decayTimeMillis));
+        failurePenaltyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, failurePenaltyMillis));
+    }
+
+    /**
+     * Picks the target of a request and counts the request as in flight to it.
+     *
+     * @param balancer name of the load balanced endpoint
+     * @param targets  number of targets of the endpoint
+     * @return index of the picked target
+     */
+    public static long select(String balancer, long targets) {
+        int count = (int) targets;
+        if (count <= 1) {
+            getTargets(balancer, 1)[0].start();
+            return 0;
+        }
+        Target[] state = getTargets(balancer, count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(count);
+        int second = random.nextInt(count - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        int picked = state[first].cost(now) <= state[second].cost(now) ? first : second;
+        state[picked].start();
+        return picked;
+    }
+
+    /**
+     * Records the outcome of a request picked with {@link #select}.
+     *
+     * @param balancer     name of the load balanced endpoint
+     * @param target       index of the target returned by {@link #select}
+     * @param latencyNanos time taken by the target to respond
+     * @param failed       whether the request to the target failed
+     */
+    public static void complete(String balancer, long target, long latencyNanos, boolean failed) {
+        Target[] state = BALANCERS.get(balancer);
+        if (state == null || target < 0 || target >= state.length) {
+            // The endpoint was re-initialized with a different number of targets while the request was in flight.
+            return;
+        }
+        long latency = failed ? Math.max(latencyNanos, failurePenaltyNanos) : latencyNanos;
+        state[(int) target].complete(Math.max(0, latency), System.nanoTime());
+    }
+
+    private static Target[] getTargets(String balancer, int count) {
+        Target[] state = BALANCERS.get(balancer);
+        if (state != null && state.length == count) {
+            return state;
+        }
+        return BALANCERS.compute(balancer, (name, current) -> {
+            if (current != null && current.length == count) {
+                return current;
+            }
+            Target[] created = new Target[count];
+            for (int i = 0; i < count; i++) {
+                created[i] = new Target();
+            }
+            return created;
+        });
+    }
+
+    private static final class Target {
+        private int inFlight;
+        private double ewma;
+        private long lastUpdate = System.nanoTime();
+
+        private synchronized void start() {
+            inFlight++;
+        }
+
+        private synchronized double cost(long now) {
+            double decayed = ewma * Math.exp(-Math.max(0, now - lastUpdate) / decayTimeNanos);
+            // A target without any latency sample yet is ranked by the requests in flight alone.
+            return (decayed + 1) * (inFlight + 1);
+        }
+
+        private synchronized void complete(long latency, long now) {
+            if (inFlight > 0) {
+                inFlight--;
+            }
+            if (latency > ewma) {
+                ewma = latency;
+            } else {
+                double weight = Math.exp(-Math.max(0, now - lastUpdate) / decayTimeNanos);
+                ewma = ewma * weight + latency * (1 - weight);
+            }
+            lastUpdate = now;
+        }
+    }
+}
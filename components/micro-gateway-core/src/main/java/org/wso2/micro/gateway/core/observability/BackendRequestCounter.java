@@ -0,0 +1,70 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.observability;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extern functions wso2.gateway:registerBackendRequestCounter, wso2.gateway:incrementBackendRequests and
+ * wso2.gateway:decrementBackendRequests.
+ * Counts the requests in flight to each backend endpoint which has a connection pool, with one atomic counter per
+ * endpoint, so that the requests to different endpoints do not contend with each other.
+ */
+public class BackendRequestCounter {
+
+    private static final Map<String, AtomicLong> COUNTERS = new ConcurrentHashMap<>();
+
+    private BackendRequestCounter() {
+    }
+
+    /**
+     * Creates the counter of an endpoint, if it does not exist yet.
+     *
+     * @param endpoint name of the endpoint
+     */
+    public static void register(String endpoint) {
+        COUNTERS.computeIfAbsent(endpoint, name -> new AtomicLong());
+    }
+
+    /**
+     * Counts a request which is about to be sent to an endpoint.
+     *
+     * @param endpoint name of the endpoint
+     * @return requests in flight to the endpoint, including this one, or -1 if the endpoint has no counter
+     */
+    public static long increment(String endpoint) {
+        AtomicLong counter = COUNTERS.get(endpoint);
+        return counter == null ? -1 : counter.incrementAndGet();
+    }
+
+    /**
+     * Counts a request to an endpoint as completed.
+     *
+     * @param endpoint name of the endpoint
+     * @return requests still in flight to the endpoint, or -1 if the endpoint has no counter
+     */
+    public static long decrement(String endpoint) {
+        AtomicLong counter = COUNTERS.get(endpoint);
+        if (counter == null) {
+            return -1;
+        }
+        // A request started before the counter was registered must not drive it below zero.
+        return counter.updateAndGet(current -> current > 0 ? current - 1 : 0);
+    }
+}
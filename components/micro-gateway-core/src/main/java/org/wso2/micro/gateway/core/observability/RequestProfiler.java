@@ -0,0 +1,404 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.observability;
+
+import org.ballerinalang.jvm.values.ArrayValue;
+import org.wso2.micro.gateway.core.utils.ErrorUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.management.ObjectName;
+
+/**
+ * Extern functions wso2.gateway:startProfiling, wso2.gateway:isProfilingActive, wso2.gateway:startRequestProfile,
+ * wso2.gateway:endProfiledStage, wso2.gateway:endRequestProfile, wso2.gateway:getProfilingReport,
+ * wso2.gateway:getProfiledStacks and wso2.gateway:getProfilingRecording.
+ * Captures a time boxed profile of the gateway. While a profile is running, every request adds its stage durations
+ * to the per stage timers and competes for the list of the slowest requests. The bytes allocated by the thread
+ * running a stage are added to the stage as well, as long as the request stayed on the same thread since the
+ * previous stage ended. A daemon thread samples the stacks of the runnable threads into folded stacks, and a JFR
+ * recording of the same time box is taken if the JVM supports it.
+ */
+public class RequestProfiler {
+
+    private static final Object LOCK = new Object();
+    private static final String RECORDING_NAME = "gateway-profile";
+    /**
+     * Maximum number of distinct stacks kept in a profile. Samples of new stacks are dropped once it is reached.
+     */
+    private static final int MAX_STACKS = 20000;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private static String[] stageNames = new String[0];
+    private static volatile Session session;
+
+    private RequestProfiler() {
+    }
+
+    /**
+     * Starts a new profile, unless one is running already.
+     *
+     * @param stages               names of the request stages separated by commas, in the order of their indexes
+     * @param durationMillis       how long the profile runs
+     * @param topRequests          number of the slowest requests kept with their stage breakdown
+     * @param sampleIntervalMillis how often the thread stacks are sampled
+     * @return null if the profile is started, or an error if a profile is running already
+     */
+    public static Object start(String stages, long durationMillis, long topRequests, long sampleIntervalMillis) {
+        synchronized (LOCK) {
+            Session current = session;
+            if (current != null && current.isRunning()) {
+                return ErrorUtils.getBallerinaError("Error occurred while starting the profile",
+                        "A profile is already running");
+            }
+            stageNames = stages.split(",");
+            if (current != null && current.recording != null) {
+                try {
+                    Files.deleteIfExists(current.recording);
+                } catch (IOException e) {
+                    // The recording of the previous profile is left in the temporary directory.
+                }
+            }
+            session = new Session(stageNames.length, Math.max(1, durationMillis), (int) Math.max(1, topRequests),
+                    Math.max(1, sampleIntervalMillis));
+            session.start();
+        }
+        return null;
+    }
+
+    /**
+     * @return true if a profile is running and the requests should be profiled
+     */
+    public static boolean isActive() {
+        Session current = session;
+        return current != null && current.isRunning();
+    }
+
+    /**
+     * Starts profiling a request.
+     *
+     * @return the profile of the request, to be passed to the stage and request end functions
+     */
+    public static Object startRequest() {
+        return new RequestProfile(session);
+    }
+
+    /**
+     * Adds a stage of a request to the profile.
+     *
+     * @param profile       the profile of the request
+     * @param stage         index of the stage
+     * @param durationNanos duration of the stage in nanoseconds
+     */
+    public static void endStage(Object profile, long stage, long durationNanos) {
+        RequestProfile request = (RequestProfile) profile;
+        Session current = request.session;
+        int index = (int) stage;
+        if (index < 0 || index >= request.durations.length) {
+            return;
+        }
+        request.durations[index] += durationNanos;
+        long allocated = request.allocatedSinceMark();
+        current.stageCounts.incrementAndGet(index);
+        current.stageDurations.addAndGet(index, durationNanos);
+        current.stageMaxDurations.accumulateAndGet(index, durationNanos, Math::max);
+        if (allocated >= 0) {
+            current.stageAllocations.addAndGet(index, allocated);
+        }
+    }
+
+    /**
+     * Completes the profile of a request and keeps it if it is one of the slowest.
+     *
+     * @param profile the profile of the request
+     * @param label   service and resource of the request
+     * @param id      message id of the request
+     */
+    public static void endRequest(Object profile, String label, String id) {
+        RequestProfile request = (RequestProfile) profile;
+        request.totalNanos = System.nanoTime() - request.startTime;
+        request.label = label;
+        request.id = id;
+        Session current = request.session;
+        synchronized (current.slowest) {
+            current.requests++;
+            if (current.slowest.size() < current.topRequests) {
+                current.slowest.add(request);
+            } else if (current.slowest.peek().totalNanos < request.totalNanos) {
+                current.slowest.poll();
+                current.slowest.add(request);
+            }
+        }
+    }
+
+    /**
+     * @return the per stage timers and the slowest requests of the last profile as JSON
+     */
+    public static String getReport() {
+        Session current = session;
+        if (current == null) {
+            return "{\"state\":\"idle\"}";
+        }
+        long elapsedNanos = Math.max(1, Math.min(System.nanoTime(), current.endTime) - current.startTime);
+        StringBuilder report = new StringBuilder(1024);
+        report.append("{\"state\":\"").append(current.isRunning() ? "running" : "completed")
+                .append("\",\"elapsedMillis\":").append(TimeUnit.NANOSECONDS.toMillis(elapsedNanos))
+                .append(",\"recording\":").append(current.recording != null).append(",\"stages\":[");
+        for (int i = 0; i < current.stageCount; i++) {
+            long count = current.stageCounts.get(i);
+            long total = current.stageDurations.get(i);
+            long allocated = current.stageAllocations.get(i);
+            if (i > 0) {
+                report.append(',');
+            }
+            report.append("{\"stage\":\"").append(stageName(i)).append("\",\"count\":").append(count)
+                    .append(",\"totalMillis\":").append(toMillis(total))
+                    .append(",\"meanMillis\":").append(count == 0 ? 0 : toMillis(total / count))
+                    .append(",\"maxMillis\":").append(toMillis(current.stageMaxDurations.get(i)))
+                    .append(",\"allocatedBytes\":").append(allocated)
+                    .append(",\"allocationRate\":")
+                    .append(allocated * TimeUnit.SECONDS.toNanos(1) / elapsedNanos).append('}');
+        }
+        report.append("],\"slowestRequests\":[");
+        List<RequestProfile> slowest;
+        long requests;
+        synchronized (current.slowest) {
+            slowest = new ArrayList<>(current.slowest);
+            requests = current.requests;
+        }
+        slowest.sort((a, b) -> Long.compare(b.totalNanos, a.totalNanos));
+        for (int i = 0; i < slowest.size(); i++) {
+            RequestProfile request = slowest.get(i);
+            if (i > 0) {
+                report.append(',');
+            }
+            report.append("{\"id\":\"").append(escape(request.id)).append("\",\"resource\":\"")
+                    .append(escape(request.label)).append("\",\"totalMillis\":")
+                    .append(toMillis(request.totalNanos)).append(",\"stages\":{");
+            boolean first = true;
+            for (int stage = 0; stage < request.durations.length; stage++) {
+                if (request.durations[stage] > 0) {
+                    report.append(first ? "" : ",").append('"').append(stageName(stage)).append("\":")
+                            .append(toMillis(request.durations[stage]));
+                    first = false;
+                }
+            }
+            report.append("}}");
+        }
+        return report.append("],\"requests\":").append(requests).append('}').toString();
+    }
+
+    /**
+     * @return the sampled stacks of the last profile in the folded format, one stack and its sample count per line
+     */
+    public static String getFoldedStacks() {
+        Session current = session;
+        if (current == null) {
+            return "";
+        }
+        StringBuilder stacks = new StringBuilder(4096);
+        synchronized (current.stacks) {
+            for (Map.Entry<String, long[]> entry : current.stacks.entrySet()) {
+                stacks.append(entry.getKey()).append(' ').append(entry.getValue()[0]).append('\n');
+            }
+        }
+        return stacks.toString();
+    }
+
+    /**
+     * @return the JFR recording of the last profile, or an error if it is not available
+     */
+    public static Object getRecording() {
+        Session current = session;
+        if (current == null || current.recording == null) {
+            return ErrorUtils.getBallerinaError("Error occurred while reading the profile recording",
+                    "No JFR recording is available");
+        }
+        if (current.isRunning()) {
+            return ErrorUtils.getBallerinaError("Error occurred while reading the profile recording",
+                    "The profile is still running");
+        }
+        try {
+            if (Files.size(current.recording) == 0) {
+                return ErrorUtils.getBallerinaError("Error occurred while reading the profile recording",
+                        "The recording is still being written");
+            }
+            return new ArrayValue(Files.readAllBytes(current.recording));
+        } catch (IOException e) {
+            return ErrorUtils.getBallerinaError("Error occurred while reading the profile recording", e);
+        }
+    }
+
+    private static String stageName(int stage) {
+        return stage < stageNames.length ? stageNames[stage] : String.valueOf(stage);
+    }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static String escape(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Bytes allocated by the current thread, or -1 if the JVM does not measure thread allocations.
+     */
+    private static long allocatedBytes(long threadId) {
+        if (THREADS instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) THREADS).getThreadAllocatedBytes(threadId);
+        }
+        return -1;
+    }
+
+    private static final class Session {
+        private final int stageCount;
+        private final long startTime;
+        private final long endTime;
+        private final long durationMillis;
+        private final int topRequests;
+        private final long sampleIntervalMillis;
+        private final AtomicLongArray stageCounts;
+        private final AtomicLongArray stageDurations;
+        private final AtomicLongArray stageMaxDurations;
+        private final AtomicLongArray stageAllocations;
+        private final PriorityQueue<RequestProfile> slowest;
+        private final Map<String, long[]> stacks = new HashMap<>();
+        private long requests;
+        private Path recording;
+
+        private Session(int stageCount, long durationMillis, int topRequests, long sampleIntervalMillis) {
+            this.stageCount = stageCount;
+            this.durationMillis = durationMillis;
+            this.topRequests = topRequests;
+            this.sampleIntervalMillis = sampleIntervalMillis;
+            this.stageCounts = new AtomicLongArray(stageCount);
+            this.stageDurations = new AtomicLongArray(stageCount);
+            this.stageMaxDurations = new AtomicLongArray(stageCount);
+            this.stageAllocations = new AtomicLongArray(stageCount);
+            this.slowest = new PriorityQueue<>(topRequests, (a, b) -> Long.compare(a.totalNanos, b.totalNanos));
+            this.startTime = System.nanoTime();
+            this.endTime = startTime + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        }
+
+        private boolean isRunning() {
+            return System.nanoTime() < endTime;
+        }
+
+        private void start() {
+            startRecording();
+            Thread sampler = new Thread(this::sampleStacks, "gateway-profiler");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+
+        /**
+         * Starts a JFR recording of the profile through the diagnostic command MBean, so that no JFR API is needed
+         * at compile time. The recording stops by itself at the end of the profile.
+         */
+        private void startRecording() {
+            try {
+                Path file = Files.createTempFile(RECORDING_NAME, ".jfr");
+                String[] arguments = {"name=" + RECORDING_NAME, "settings=profile",
+                        "duration=" + durationMillis + "ms", "filename=" + file.toAbsolutePath()};
+                ManagementFactory.getPlatformMBeanServer().invoke(
+                        new ObjectName("com.sun.management:type=DiagnosticCommand"), "jfrStart",
+                        new Object[]{arguments}, new String[]{String[].class.getName()});
+                recording = file;
+            } catch (Exception e) {
+                // JFR is not available in this JVM. The profile is taken without the recording.
+                recording = null;
+            }
+        }
+
+        private void sampleStacks() {
+            long self = Thread.currentThread().getId();
+            while (isRunning()) {
+                for (Map.Entry<Thread, StackTraceElement[]> entry : Thread.getAllStackTraces().entrySet()) {
+                    Thread thread = entry.getKey();
+                    StackTraceElement[] frames = entry.getValue();
+                    if (thread.getId() == self || thread.getState() != Thread.State.RUNNABLE || frames.length == 0) {
+                        continue;
+                    }
+                    StringBuilder stack = new StringBuilder(frames.length * 64);
+                    for (int i = frames.length - 1; i >= 0; i--) {
+                        stack.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+                        if (i > 0) {
+                            stack.append(';');
+                        }
+                    }
+                    synchronized (stacks) {
+                        long[] count = stacks.get(stack.toString());
+                        if (count != null) {
+                            count[0]++;
+                        } else if (stacks.size() < MAX_STACKS) {
+                            stacks.put(stack.toString(), new long[]{1});
+                        }
+                    }
+                }
+                try {
+                    Thread.sleep(sampleIntervalMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class RequestProfile {
+        private final Session session;
+        private final long startTime = System.nanoTime();
+        private final long[] durations;
+        private long threadId;
+        private long allocated;
+        private long totalNanos;
+        private String label;
+        private String id;
+
+        private RequestProfile(Session session) {
+            this.session = session;
+            this.durations = new long[session.stageCount];
+            this.threadId = Thread.currentThread().getId();
+            this.allocated = allocatedBytes(threadId);
+        }
+
+        /**
+         * Returns the bytes allocated since the previous stage ended and moves the mark to now. Returns -1 if the
+         * request moved to another thread in between, as the allocations of the two threads cannot be compared.
+         */
+        private long allocatedSinceMark() {
+            long currentThread = Thread.currentThread().getId();
+            long currentAllocated = allocatedBytes(currentThread);
+            long delta = currentThread == threadId && allocated >= 0 && currentAllocated >= 0 ?
+                    currentAllocated - allocated : -1;
+            threadId = currentThread;
+            allocated = currentAllocated;
+            return delta;
+        }
+    }
+}
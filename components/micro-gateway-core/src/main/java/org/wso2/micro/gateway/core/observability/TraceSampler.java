@@ -0,0 +1,81 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.observability;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Extern functions wso2.gateway:initTraceSampler and wso2.gateway:isTraceSampled.
+ * Head based sampler for the gateway spans. A request is first sampled with the configured probability, and the
+ * sampled requests are then limited to the configured number of traces per second. The rate limit keeps the current
+ * second and the number of traces sampled in it in a single atomic long, so a decision neither locks nor allocates.
+ */
+public class TraceSampler {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final long COUNT_MASK = 0xFFFFFFFFL;
+    private static final AtomicLong WINDOW = new AtomicLong();
+
+    private static volatile double sampleRate = 1;
+    private static volatile long maxTracesPerSecond;
+
+    private TraceSampler() {
+    }
+
+    /**
+     * Configures the sampler.
+     *
+     * @param rate               fraction of the requests which are traced, from 0 to 1
+     * @param maxTracesPerSecond maximum number of requests traced in a second, or 0 for no limit
+     */
+    public static void init(double rate, long maxTracesPerSecond) {
+        sampleRate = Math.min(1, Math.max(0, rate));
+        TraceSampler.maxTracesPerSecond = Math.max(0, Math.min(COUNT_MASK, maxTracesPerSecond));
+    }
+
+    /**
+     * Decides whether a new request is traced.
+     *
+     * @return true if the spans of the request should be recorded
+     */
+    public static boolean isSampled() {
+        double rate = sampleRate;
+        if (rate <= 0 || (rate < 1 && ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return false;
+        }
+        long limit = maxTracesPerSecond;
+        if (limit == 0) {
+            return true;
+        }
+        long second = System.nanoTime() / NANOS_PER_SECOND;
+        while (true) {
+            long window = WINDOW.get();
+            long next;
+            if (window >>> 32 != (second & COUNT_MASK)) {
+                next = (second << 32) | 1;
+            } else if ((window & COUNT_MASK) >= limit) {
+                return false;
+            } else {
+                next = window + 1;
+            }
+            if (WINDOW.compareAndSet(window, next)) {
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.utils;
+
+/**
+ * Extern functions wso2.gateway:classifyAuthHeader and wso2.gateway:classifyToken.
+ * Classifies a credential with a single pass over its characters, without regex or intermediate strings.
+ */
+public class AuthSchemeUtils {
+
+    public static final long SCHEME_NONE = 0;
+    public static final long SCHEME_BASIC = 1;
+    public static final long SCHEME_JWT = 2;
+    public static final long SCHEME_OPAQUE = 3;
+
+    private static final String BASIC_PREFIX = "Basic";
+    private static final String BEARER_PREFIX = "Bearer";
+
+    private AuthSchemeUtils() {
+    }
+
+    /**
+     * Classifies the value of an authorization header for the auth handlers.
+     *
+     * @param authHeader value of the authorization header
+     * @return {@link #SCHEME_BASIC} for basic credentials, {@link #SCHEME_JWT} for bearer tokens with three
+     * segments, {@link #SCHEME_OPAQUE} for bearer tokens with fewer segments and {@link #SCHEME_NONE} otherwise,
+     * including bearer tokens with more than three segments, which neither the JWT nor the key validation handler
+     * accepts
+     */
+    public static long classifyAuthHeader(String authHeader) {
+        if (authHeader == null) {
+            return SCHEME_NONE;
+        }
+        if (authHeader.startsWith(BASIC_PREFIX)) {
+            return SCHEME_BASIC;
+        }
+        if (authHeader.startsWith(BEARER_PREFIX)) {
+            return classifySegments(authHeader, BEARER_PREFIX.length());
+        }
+        return SCHEME_NONE;
+    }
+
+    /**
+     * Classifies a token to pick the auth provider which handles it, such as the value of an auth cookie or of a
+     * bearer authorization header.
+     *
+     * @param token token value
+     * @return {@link #SCHEME_JWT} if the token contains a dot, otherwise {@link #SCHEME_OPAQUE}
+     */
+    public static long classifyToken(String token) {
+        return token != null && token.indexOf('.') >= 0 ? SCHEME_JWT : SCHEME_OPAQUE;
+    }
+
+    private static long classifySegments(String value, int offset) {
+        int end = value.length();
+        while (offset < end && value.charAt(offset) <= ' ') {
+            offset++;
+        }
+        while (end > offset && value.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        int dots = 0;
+        for (int i = offset; i < end; i++) {
+            if (value.charAt(i) == '.') {
+                dots++;
+                if (dots > 2) {
+                    return SCHEME_NONE;
+                }
+            }
+        }
+        return dots == 2 ? SCHEME_JWT : SCHEME_OPAQUE;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit tests for {@link AnalyticsRecordEncoder} and {@link AnalyticsRecordReader}.
+ */
+public class AnalyticsRecordEncoderTest {
+
+    private static final String LONG_VALUE = new String(new char[300]).replace('\0', 'x');
+
+    @Test
+    public void testRoundTripOfEveryValueKind() throws IOException {
+        List<String> events = Arrays.asList(
+                // Dictionary entries, numbers and every separator.
+                "streamId-KS-org.wso2.apimgt.statistics.request-ES-metaClientType-OS-payload-KS-api-ES-" +
+                        "1-ES-0-ES--42-ES-9223372036854775807-ES--9223372036854775808\n",
+                // Dictionary references to the values of the previous record.
+                "streamId-KS-org.wso2.apimgt.statistics.request-ES-metaClientType-OS-payload-KS-api-ES-7\n",
+                // Plain strings longer than a dictionary entry, empty values, non canonical numbers and UTF-8.
+                "streamId-KS-" + LONG_VALUE + "-ES--ES-007-ES--0-ES-+1-ES-1234567890123456789-ES-\u00e9\u4e2d\n",
+                // A value which only looks like the start of a separator.
+                "key-KS-a-XS-b-ES-c-K");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnalyticsRecordEncoder encoder = new AnalyticsRecordEncoder();
+        for (String event : events) {
+            byte[] record = encoder.encode(event);
+            out.write(record, 0, record.length);
+        }
+        List<String> expected = new ArrayList<>(events);
+        expected.set(3, events.get(3) + "\n");
+        Assert.assertEquals(expected, readAll(out.toByteArray()));
+    }
+
+    @Test
+    public void testRoundTripOfSegments() throws IOException {
+        String event = "streamId-KS-org.wso2.apimgt.statistics.request-ES-api-ES-12\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AnalyticsRecordEncoder encoder = new AnalyticsRecordEncoder();
+        for (int segment = 0; segment < 3; segment++) {
+            // Every segment restarts the dictionary, as a file appended to after a restart does.
+            encoder.reset();
+            for (int i = 0; i < 2; i++) {
+                byte[] record = encoder.encode(event);
+                out.write(record, 0, record.length);
+            }
+        }
+        Assert.assertEquals(Arrays.asList(event, event, event, event, event, event), readAll(out.toByteArray()));
+    }
+
+    @Test
+    public void testTruncatedInput() {
+        AnalyticsRecordEncoder encoder = new AnalyticsRecordEncoder();
+        byte[] record = encoder.encode("streamId-KS-" + LONG_VALUE + "-ES-api-ES--300-OS-1\n");
+        // Cutting the record anywhere after the segment header must fail instead of returning a partial record.
+        for (int length = AnalyticsRecordEncoder.MAGIC.length + 2; length < record.length; length++) {
+            try {
+                readAll(Arrays.copyOf(record, length));
+                Assert.fail("Record truncated to " + length + " bytes was read");
+            } catch (IOException e) {
+                // Expected.
+            }
+        }
+    }
+
+    @Test
+    public void testTruncatedSegmentHeader() throws IOException {
+        AnalyticsRecordEncoder encoder = new AnalyticsRecordEncoder();
+        byte[] record = encoder.encode("api\n");
+        for (int length = 1; length <= AnalyticsRecordEncoder.MAGIC.length; length++) {
+            try {
+                readAll(Arrays.copyOf(record, length));
+                Assert.fail("Segment header truncated to " + length + " bytes was read");
+            } catch (IOException e) {
+                // Expected.
+            }
+        }
+        // A segment header without records is an empty file.
+        Assert.assertTrue(readAll(Arrays.copyOf(record, AnalyticsRecordEncoder.MAGIC.length + 1)).isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void testTextInput() throws IOException {
+        readAll("streamId-KS-api\n".getBytes("UTF-8"));
+    }
+
+    private static List<String> readAll(byte[] bytes) throws IOException {
+        AnalyticsRecordReader reader = new AnalyticsRecordReader(new ByteArrayInputStream(bytes));
+        List<String> records = new ArrayList<>();
+        String record;
+        while ((record = reader.readRecord()) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.analytics;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Unit tests for {@link MpscRingBuffer}.
+ */
+public class MpscRingBufferTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int ELEMENTS_PER_PRODUCER = 100000;
+
+    @Test
+    public void testCapacityIsRoundedUp() {
+        Assert.assertEquals(8, new MpscRingBuffer<String>(5).capacity());
+        Assert.assertEquals(8, new MpscRingBuffer<String>(8).capacity());
+        Assert.assertEquals(1, new MpscRingBuffer<String>(1).capacity());
+    }
+
+    @Test
+    public void testFullBuffer() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+
+        // A polled slot is reused, and the elements keep their order across the wrap around.
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(4));
+        Assert.assertFalse(buffer.offer(5));
+        for (int i = 1; i <= 4; i++) {
+            Assert.assertEquals(Integer.valueOf(i), buffer.poll());
+        }
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+    }
+
+    @Test(timeout = 60000)
+    public void testConcurrentOfferAndPoll() throws Exception {
+        // Small enough for the producers to fill it and retry, so that the full buffer path runs concurrently too.
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+        ExecutorService executor = Executors.newFixedThreadPool(PRODUCERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean rejected = new AtomicBoolean();
+        Future<?>[] producers = new Future<?>[PRODUCERS];
+        try {
+            for (int p = 0; p < PRODUCERS; p++) {
+                long producer = p;
+                producers[p] = executor.submit(() -> {
+                    start.await();
+                    for (long i = 0; i < ELEMENTS_PER_PRODUCER; i++) {
+                        while (!buffer.offer(producer * ELEMENTS_PER_PRODUCER + i)) {
+                            rejected.set(true);
+                            Thread.yield();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+
+            // Elements of one producer must come out in the order they went in, with none lost or duplicated.
+            long[] next = new long[PRODUCERS];
+            long received = 0;
+            while (received < (long) PRODUCERS * ELEMENTS_PER_PRODUCER) {
+                Long element = buffer.poll();
+                if (element == null) {
+                    Thread.yield();
+                    continue;
+                }
+                int producer = (int) (element / ELEMENTS_PER_PRODUCER);
+                Assert.assertEquals(next[producer], element % ELEMENTS_PER_PRODUCER);
+                next[producer]++;
+                received++;
+            }
+            for (Future<?> producer : producers) {
+                producer.get();
+            }
+            for (int p = 0; p < PRODUCERS; p++) {
+                Assert.assertEquals(ELEMENTS_PER_PRODUCER, next[p]);
+            }
+            Assert.assertNull(buffer.poll());
+            Assert.assertTrue("Producers never found the buffer full", rejected.get());
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,174 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.compression;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Unit tests for {@link ParallelZipWriter}.
+ */
+public class ParallelZipWriterTest {
+
+    private Path dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("parallel-zip");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            List<Path> paths = new ArrayList<>();
+            files.forEach(paths::add);
+            Collections.reverse(paths);
+            for (Path path : paths) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    public void testEntryOrderAndContent() throws IOException {
+        Random random = new Random(42);
+        List<Compress.ZipSource> sources = new ArrayList<>();
+        List<byte[]> contents = new ArrayList<>();
+        // Large entries first, so that they finish deflating after the small ones.
+        addSource(sources, contents, "api-usage-data.dat", randomBytes(random, 3 * 1024 * 1024));
+        addSource(sources, contents, "nested/repetitive.dat",
+                repeat("streamId-KS-org.wso2.apimgt.statistics.request-ES-api\n", 20000));
+        addSource(sources, contents, "empty.dat", new byte[0]);
+        addSource(sources, contents, "\u00e9v\u00e9nements.dat", "caf\u00e9".getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < 8; i++) {
+            addSource(sources, contents, "small-" + i + ".dat", randomBytes(random, random.nextInt(4096)));
+        }
+        Path archive = dir.resolve("archive.zip");
+
+        Assert.assertTrue(new ParallelZipWriter(6, 4, 8192).compress(sources, archive));
+
+        // The central directory lists the entries in the order of the sources.
+        try (ZipFile zipFile = new ZipFile(archive.toFile(), StandardCharsets.UTF_8)) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            for (int i = 0; i < sources.size(); i++) {
+                Assert.assertTrue(entries.hasMoreElements());
+                ZipEntry entry = entries.nextElement();
+                Assert.assertEquals(sources.get(i).getEntryName(), entry.getName());
+                Assert.assertEquals(contents.get(i).length, entry.getSize());
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    Assert.assertArrayEquals(contents.get(i), readFully(in));
+                }
+            }
+            Assert.assertFalse(entries.hasMoreElements());
+        }
+        // The local headers follow the same order, and reading them sequentially checks the CRC of every entry.
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive), StandardCharsets.UTF_8)) {
+            for (int i = 0; i < sources.size(); i++) {
+                ZipEntry entry = in.getNextEntry();
+                Assert.assertNotNull(entry);
+                Assert.assertEquals(sources.get(i).getEntryName(), entry.getName());
+                Assert.assertArrayEquals(contents.get(i), readFully(in));
+            }
+            Assert.assertNull(in.getNextEntry());
+        }
+        assertNoPartFiles();
+    }
+
+    @Test
+    public void testCompressDirectory() throws Exception {
+        Path staging = Files.createDirectory(dir.resolve("staging"));
+        Files.write(staging.resolve("b.dat"), repeat("b", 100000));
+        Files.write(staging.resolve("a.dat"), repeat("a", 100000));
+        Files.createDirectory(staging.resolve("c"));
+        Files.write(staging.resolve("c").resolve("d.dat"), repeat("d", 100000));
+        Path archive = dir.resolve("staging.zip");
+        Compress.configure(6, 4);
+
+        Compress.compress(staging.toString(), archive.toString());
+
+        // Entries are named by their relative path and sorted, whichever file finishes deflating first.
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(archive))) {
+            String[] names = {"a.dat", "b.dat", "c/d.dat"};
+            for (String name : names) {
+                ZipEntry entry = in.getNextEntry();
+                Assert.assertNotNull(entry);
+                Assert.assertEquals(name, entry.getName());
+                Assert.assertArrayEquals(repeat(name.substring(name.length() - 5, name.length() - 4), 100000),
+                        readFully(in));
+            }
+            Assert.assertNull(in.getNextEntry());
+        }
+        assertNoPartFiles();
+    }
+
+    private void addSource(List<Compress.ZipSource> sources, List<byte[]> contents, String name, byte[] content)
+            throws IOException {
+        Path file = dir.resolve("src-" + sources.size());
+        Files.write(file, content);
+        sources.add(new Compress.ZipSource(file, name));
+        contents.add(content);
+    }
+
+    private void assertNoPartFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            Assert.assertFalse("Temporary files were left behind",
+                    files.anyMatch(path -> path.getFileName().toString().endsWith(".part")));
+        }
+    }
+
+    private static byte[] randomBytes(Random random, int length) {
+        byte[] bytes = new byte[length];
+        random.nextBytes(bytes);
+        return bytes;
+    }
+
+    private static byte[] repeat(String value, int times) {
+        StringBuilder builder = new StringBuilder(value.length() * times);
+        for (int i = 0; i < times; i++) {
+            builder.append(value);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.observability;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Unit tests for {@link TraceSampler}.
+ */
+public class TraceSamplerTest {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    @After
+    public void tearDown() {
+        TraceSampler.init(1, 0);
+    }
+
+    @Test
+    public void testSampleRateBounds() {
+        TraceSampler.init(0, 0);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertFalse(TraceSampler.isSampled());
+        }
+        TraceSampler.init(-1, 0);
+        Assert.assertFalse(TraceSampler.isSampled());
+        TraceSampler.init(1, 0);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(TraceSampler.isSampled());
+        }
+        TraceSampler.init(2, 0);
+        Assert.assertTrue(TraceSampler.isSampled());
+    }
+
+    @Test(timeout = 60000)
+    public void testRateCap() throws InterruptedException {
+        TraceSampler.init(1, 10);
+        int sampled;
+        long second;
+        // Retry if the decisions straddle a second, which would rightly allow a second batch of traces.
+        do {
+            second = awaitNextSecond();
+            sampled = 0;
+            for (int i = 0; i < 1000; i++) {
+                if (TraceSampler.isSampled()) {
+                    sampled++;
+                }
+            }
+        } while (currentSecond() != second);
+        Assert.assertEquals(10, sampled);
+    }
+
+    @Test(timeout = 60000)
+    public void testRateCapUnderContention() throws Exception {
+        TraceSampler.init(1, 100);
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            int sampled;
+            long second;
+            do {
+                second = awaitNextSecond();
+                List<Future<Integer>> results = new ArrayList<>();
+                for (int i = 0; i < threads; i++) {
+                    results.add(executor.submit(countSampled(10000)));
+                }
+                sampled = 0;
+                for (Future<Integer> result : results) {
+                    sampled += result.get();
+                }
+            } while (currentSecond() != second);
+            Assert.assertEquals(100, sampled);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(timeout = 60000)
+    public void testWindowRollover() throws InterruptedException {
+        TraceSampler.init(1, 3);
+        long second;
+        do {
+            second = awaitNextSecond();
+            for (int i = 0; i < 3; i++) {
+                TraceSampler.isSampled();
+            }
+        } while (currentSecond() != second);
+        Assert.assertFalse(TraceSampler.isSampled());
+
+        // The next second starts a new window with the full quota.
+        do {
+            second = awaitNextSecond();
+            for (int i = 0; i < 3; i++) {
+                Assert.assertTrue(TraceSampler.isSampled());
+            }
+        } while (currentSecond() != second);
+        Assert.assertFalse(TraceSampler.isSampled());
+    }
+
+    private static Callable<Integer> countSampled(int decisions) {
+        return () -> {
+            int sampled = 0;
+            for (int i = 0; i < decisions; i++) {
+                if (TraceSampler.isSampled()) {
+                    sampled++;
+                }
+            }
+            return sampled;
+        };
+    }
+
+    private static long currentSecond() {
+        return System.nanoTime() / NANOS_PER_SECOND;
+    }
+
+    private static long awaitNextSecond() throws InterruptedException {
+        long start = currentSecond();
+        long second;
+        while ((second = currentSecond()) == start) {
+            Thread.sleep(1);
+        }
+        return second;
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+
+package org.wso2.micro.gateway.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Unit tests for {@link AuthSchemeUtils}.
+ */
+public class AuthSchemeUtilsTest {
+
+    @Test
+    public void testClassifyToken() {
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_OPAQUE, AuthSchemeUtils.classifyToken("abc"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_JWT, AuthSchemeUtils.classifyToken("a.b"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_JWT, AuthSchemeUtils.classifyToken("a.b.c"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_JWT, AuthSchemeUtils.classifyToken("a.b.c.d"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_JWT, AuthSchemeUtils.classifyToken("Bearer a.b.c.d"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_OPAQUE, AuthSchemeUtils.classifyToken(""));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_OPAQUE, AuthSchemeUtils.classifyToken(null));
+    }
+
+    @Test
+    public void testClassifyAuthHeader() {
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_BASIC, AuthSchemeUtils.classifyAuthHeader("Basic YWRtaW46YWRtaW4="));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_OPAQUE, AuthSchemeUtils.classifyAuthHeader("Bearer abc"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_OPAQUE, AuthSchemeUtils.classifyAuthHeader("Bearer a.b"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_JWT, AuthSchemeUtils.classifyAuthHeader("Bearer  a.b.c "));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_NONE, AuthSchemeUtils.classifyAuthHeader("Bearer a.b.c.d"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_NONE, AuthSchemeUtils.classifyAuthHeader("Token a.b.c"));
+        Assert.assertEquals(AuthSchemeUtils.SCHEME_NONE, AuthSchemeUtils.classifyAuthHeader(null));
+    }
+}
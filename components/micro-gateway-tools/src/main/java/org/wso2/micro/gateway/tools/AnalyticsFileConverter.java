@@ -0,0 +1,104 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.micro.gateway.tools;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Converts analytics usage data files in the binary record format to the text format accepted by the analytics
+ * server. Both the input and the output can be a plain usage data file or a rotated zip archive. Input which is
+ * already in the text format is copied as it is.
+ */
+public class AnalyticsFileConverter {
+    private static final String ZIP_EXTENSION = ".zip";
+    private static final int HEADER_LENGTH = 4;
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Converts a usage data file to the text format.
+     *
+     * @param inputPath  path of the usage data file or zip archive to convert
+     * @param outputPath path of the converted file. A zip archive is written if the path ends with .zip
+     * @return number of converted records, or -1 if the input was already in the text format
+     * @throws IOException exception if an error occurs when reading or writing the files
+     */
+    public long convert(String inputPath, String outputPath) throws IOException {
+        try (InputStream fileIn = new BufferedInputStream(new FileInputStream(inputPath), BUFFER_SIZE);
+                OutputStream fileOut = new BufferedOutputStream(new FileOutputStream(outputPath), BUFFER_SIZE)) {
+            InputStream in = fileIn;
+            String entryName = "api-usage-data.dat";
+            if (inputPath.endsWith(ZIP_EXTENSION)) {
+                ZipInputStream zipIn = new ZipInputStream(fileIn);
+                ZipEntry entry = zipIn.getNextEntry();
+                if (entry == null) {
+                    throw new IOException("No usage data file found in " + inputPath);
+                }
+                entryName = entry.getName();
+                in = new BufferedInputStream(zipIn, BUFFER_SIZE);
+            }
+            OutputStream out = fileOut;
+            ZipOutputStream zipOut = null;
+            if (outputPath.endsWith(ZIP_EXTENSION)) {
+                zipOut = new ZipOutputStream(fileOut);
+                zipOut.putNextEntry(new ZipEntry(entryName));
+                out = zipOut;
+            }
+            long records = convert(in, out);
+            if (zipOut != null) {
+                zipOut.closeEntry();
+                zipOut.finish();
+            }
+            return records;
+        }
+    }
+
+    private long convert(InputStream in, OutputStream out) throws IOException {
+        in.mark(HEADER_LENGTH);
+        byte[] header = new byte[HEADER_LENGTH];
+        int headerLength = in.read(header);
+        in.reset();
+        if (!AnalyticsRecordReader.isBinaryFormat(header, headerLength)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return -1;
+        }
+        AnalyticsRecordReader reader = new AnalyticsRecordReader(in);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        long records = 0;
+        String record;
+        while ((record = reader.readRecord()) != null) {
+            writer.write(record);
+            records++;
+        }
+        writer.flush();
+        return records;
+    }
+}
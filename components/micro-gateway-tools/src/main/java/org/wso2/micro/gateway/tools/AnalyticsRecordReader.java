@@ -0,0 +1,172 @@
+/*
+ *  Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.wso2.micro.gateway.tools;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads analytics usage data written in the binary record format by the gateway analytics event writer and returns
+ * each record as the equivalent text event line.
+ * <p>
+ * A file is a sequence of segments, each starting with the magic bytes "MGWA" and a version byte. A record is a list
+ * of values. Every value starts with a tag byte holding the value kind in the upper bits and the separator that
+ * follows the value in the lower two bits. Dictionary entries are only valid within their segment.
+ */
+public class AnalyticsRecordReader {
+    private static final byte[] MAGIC = {'M', 'G', 'W', 'A'};
+    private static final int VERSION = 1;
+    private static final int KIND_DICTIONARY_REFERENCE = 0;
+    private static final int KIND_DICTIONARY_ENTRY = 1;
+    private static final int KIND_NUMBER = 2;
+    private static final int KIND_STRING = 3;
+    private static final String[] SEPARATORS = {"\n", "-KS-", "-ES-", "-OS-"};
+
+    private final InputStream input;
+    private final List<String> dictionary = new ArrayList<>();
+    private final StringBuilder line = new StringBuilder(512);
+    private boolean segmentStarted;
+
+    public AnalyticsRecordReader(InputStream input) {
+        this.input = input instanceof BufferedInputStream ? input : new BufferedInputStream(input);
+    }
+
+    /**
+     * Checks whether a stream starts with the binary record format header.
+     *
+     * @param header first bytes of the stream
+     * @param length number of valid bytes in the header
+     * @return true if the stream is in the binary record format
+     */
+    public static boolean isBinaryFormat(byte[] header, int length) {
+        if (length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return the record in the text event format, including the trailing new line, or null at the end of the stream
+     * @throws IOException if the stream cannot be read or is not in the binary record format
+     */
+    public String readRecord() throws IOException {
+        int tag = input.read();
+        if (tag == -1) {
+            return null;
+        }
+        if (tag == MAGIC[0]) {
+            readSegmentHeader();
+            tag = input.read();
+            if (tag == -1) {
+                return null;
+            }
+        } else if (!segmentStarted) {
+            throw new IOException("Not an analytics binary record file");
+        }
+        line.setLength(0);
+        while (true) {
+            int separator = tag & 0x3;
+            line.append(readValue(tag >>> 2));
+            line.append(SEPARATORS[separator]);
+            if (separator == 0) {
+                return line.toString();
+            }
+            tag = readByte();
+        }
+    }
+
+    private void readSegmentHeader() throws IOException {
+        for (int i = 1; i < MAGIC.length; i++) {
+            if (readByte() != MAGIC[i]) {
+                throw new IOException("Invalid analytics binary record segment header");
+            }
+        }
+        int version = readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported analytics binary record version : " + version);
+        }
+        dictionary.clear();
+        segmentStarted = true;
+    }
+
+    private String readValue(int kind) throws IOException {
+        switch (kind) {
+            case KIND_DICTIONARY_REFERENCE:
+                long index = readVarint();
+                if (index >= dictionary.size()) {
+                    throw new IOException("Invalid dictionary reference : " + index);
+                }
+                return dictionary.get((int) index);
+            case KIND_DICTIONARY_ENTRY:
+                String entry = readString();
+                dictionary.add(entry);
+                return entry;
+            case KIND_NUMBER:
+                long value = readVarint();
+                return Long.toString((value >>> 1) ^ -(value & 1));
+            case KIND_STRING:
+                return readString();
+            default:
+                throw new IOException("Invalid value kind : " + kind);
+        }
+    }
+
+    private String readString() throws IOException {
+        int length = (int) readVarint();
+        byte[] bytes = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = input.read(bytes, offset, length - offset);
+            if (read == -1) {
+                throw new EOFException("Truncated analytics binary record");
+            }
+            offset += read;
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long readVarint() throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private int readByte() throws IOException {
+        int b = input.read();
+        if (b == -1) {
+            throw new EOFException("Truncated analytics binary record");
+        }
+        return b;
+    }
+}
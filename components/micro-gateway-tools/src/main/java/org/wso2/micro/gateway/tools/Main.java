@@ -28,6 +28,16 @@ public class Main {
                 System.exit(1);
             }
 
+        } else if (args[0].equals("convertAnalytics")) {
+            String inputPath = args [1];
+            String outputPath = args [2];
+            AnalyticsFileConverter converter = new AnalyticsFileConverter();
+            try {
+                converter.convert(inputPath, outputPath);
+            } catch (Exception ex) {
+                ex.printStackTrace();
+                System.exit(1);
+            }
         }
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.micro.gateway.tests.analytics;
+
+import org.apache.commons.io.FileUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.micro.gateway.tests.common.BaseTestCase;
+import org.wso2.micro.gateway.tests.common.MockAPIPublisher;
+import org.wso2.micro.gateway.tests.common.MockHttpServer;
+import org.wso2.micro.gateway.tests.common.model.API;
+import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.context.Utils;
+import org.wso2.micro.gateway.tests.util.HttpResponse;
+import org.wso2.micro.gateway.tests.util.TestConstant;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Map;
+
+/**
+ * Test the analytics usage data upload against the stub upload endpoint of the mock server. The first uploads are
+ * rejected so that the retry with back off is exercised, and each rotated file must be uploaded exactly once.
+ */
+public class AnalyticsUploadTestCase extends BaseTestCase {
+    private static final int REQUEST_COUNT = 20;
+    private static final int FAILED_UPLOADS = 2;
+    private static final long UPLOAD_TIMEOUT_MILLIS = 60000;
+    private File usageDataDir;
+    private String jwtToken;
+
+    @BeforeClass
+    public void start() throws Exception {
+        String label = "analyticsLabel";
+        String project = "analyticsProject";
+        MockAPIPublisher pub = MockAPIPublisher.getInstance();
+        API api = new API();
+        api.setName("PizzaShackAPI");
+        api.setContext("/pizzashack");
+        api.setProdEndpoint(getMockServiceURLHttp("/echo/prod"));
+        api.setSandEndpoint(getMockServiceURLHttp("/echo/sand"));
+        api.setVersion("1.0.0");
+        api.setProvider("admin");
+        pub.addApi(label, api);
+
+        ApplicationDTO application = new ApplicationDTO();
+        application.setName("analyticsApp");
+        application.setTier("Unlimited");
+        application.setId((int) (Math.random() * 1000));
+        jwtToken = getJWT(api, application, "Unlimited", TestConstant.KEY_TYPE_PRODUCTION, 3600);
+
+        usageDataDir = Files.createTempDirectory("api-usage-data").toFile();
+        String[] args = {"--api.usage.data.path=" + usageDataDir.getAbsolutePath()};
+        super.init(label, project, args, "confs/analytics-upload-test.conf");
+        mockHttpServer.setUsageUploadFailures(FAILED_UPLOADS);
+    }
+
+    @Test(description = "Test that rotated usage data files are uploaded once, retrying failed uploads")
+    public void testUsageDataUpload() throws Exception {
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            HttpResponse response = Utils.invokeApi(jwtToken, getServiceURLHttp("/pizzashack/1.0.0/menu"));
+            Utils.assertResult(response, MockHttpServer.PROD_ENDPOINT_RESPONSE, 200);
+        }
+
+        Map<String, Integer> uploadedFiles = mockHttpServer.getUploadedUsageFiles();
+        long deadline = System.currentTimeMillis() + UPLOAD_TIMEOUT_MILLIS;
+        while ((uploadedFiles.isEmpty() || hasPendingUploads()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(500);
+        }
+        Assert.assertFalse(uploadedFiles.isEmpty(), "No usage data file was uploaded");
+        Assert.assertFalse(hasPendingUploads(), "Usage data files are left in " + usageDataDir);
+        for (Map.Entry<String, Integer> entry : uploadedFiles.entrySet()) {
+            Assert.assertEquals(entry.getValue().intValue(), 1, "File uploaded more than once : " + entry.getKey());
+        }
+    }
+
+    private boolean hasPendingUploads() {
+        File[] files = usageDataDir.listFiles((dir, name) -> name.contains(".zip"));
+        return files != null && files.length > 0;
+    }
+
+    @AfterClass
+    public void stop() throws Exception {
+        super.finalize();
+        FileUtils.deleteQuietly(usageDataDir);
+    }
+}
@@ -160,6 +160,19 @@ public class BaseTestCase {
         init(project, openAPIFileNames, null, null);
     }
 
+    /**
+     * Restart the microgateway server of an already generated project with another config file. The mock HTTP server
+     * and the APIs and tokens registered in the API publisher are kept.
+     *
+     * @param project        project name
+     * @param configFilePath relative path of the config file (use forward slash to mention the path)
+     * @throws Exception if the microgateway server could not be restarted
+     */
+    protected void restartMicroGWServer(String project, String configFilePath) throws Exception {
+        microGWServer.stopServer(true);
+        initAndStartMicroGWServer(configFilePath, CLIExecutor.getInstance().getLabelJar(project), null);
+    }
+
     /**
      * Stop HTTP server, stop microgateway server and clear the API publisher.
      *
@@ -185,6 +185,35 @@ public class MockAPIPublisher {
         }
     }
 
+    public String getJsonKeyValidationResponseForToken(String token) {
+        KeyValidationInfo info = tokenInfo.get(token);
+        JSONObject response = new JSONObject();
+        if (info == null) {
+            log.debug("Token not registered");
+            response.put("authorized", false);
+            response.put("validationStatus", "900901");
+            return response.toString();
+        }
+        response.put("authorized", info.isAuthorized());
+        response.put("apiName", info.getApi().getName());
+        response.put("apiPublisher", "admin");
+        response.put("applicationId", String.valueOf(info.getApplication().getId()));
+        response.put("applicationName", info.getApplication().getName());
+        response.put("applicationTier", info.getApplication().getTier());
+        response.put("consumerKey", "fxzmNBTonG00FViQELefepgKF2Qa");
+        response.put("endUserName", "admin@carbon.super");
+        response.put("issuedTime", "1528825112163");
+        response.put("stopOnQuotaReach", "true");
+        response.put("subscriber", "admin");
+        response.put("subscriberTenantDomain", "carbon.super");
+        response.put("tier", info.getSubscriptionTier());
+        response.put("keyType", info.getKeyType());
+        response.put("userType", "APPLICATION");
+        response.put("validationStatus", "0");
+        response.put("validityPeriod", "9223372036854775807");
+        return response.toString();
+    }
+
     public void clear() {
         tokenInfo.clear();
         apis.clear();
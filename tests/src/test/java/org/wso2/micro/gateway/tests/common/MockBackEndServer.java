@@ -38,6 +38,7 @@ import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.InetSocketAddress;
 import java.security.KeyStore;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Mock HTTP server for testing Open API tests.
@@ -45,6 +46,10 @@ import java.security.KeyStore;
 public class MockBackEndServer extends Thread {
 
     private static final Logger log = LoggerFactory.getLogger(MockHttpServer.class);
+    public static final long SLOW_BACKEND_DELAY_MILLIS = 500;
+    private static final AtomicInteger FLAKY_BACKEND_HITS = new AtomicInteger();
+    private static final AtomicInteger DOWN_BACKEND_HITS = new AtomicInteger();
+    private static volatile boolean flakyBackendHealthy = true;
     private HttpsServer httpServer;
     private String backEndServerUrl;
     private static int backEndServerPort;
@@ -308,6 +313,50 @@ public class MockBackEndServer extends Thread {
                 exchange.getResponseBody().write(response);
                 exchange.close();
             });
+            httpServer.createContext("/lb/fast", exchange -> {
+
+                byte[] response = ResponseConstants.FAST_BACKEND_RESPONSE.getBytes();
+                exchange.getResponseHeaders().set(HttpHeaderNames.CONTENT_TYPE.toString(),
+                        TokenManagementConstants.CONTENT_TYPE_APPLICATION_JSON);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.length);
+                exchange.getResponseBody().write(response);
+                exchange.close();
+            });
+            httpServer.createContext("/lb/slow", exchange -> {
+
+                try {
+                    Thread.sleep(SLOW_BACKEND_DELAY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] response = ResponseConstants.SLOW_BACKEND_RESPONSE.getBytes();
+                exchange.getResponseHeaders().set(HttpHeaderNames.CONTENT_TYPE.toString(),
+                        TokenManagementConstants.CONTENT_TYPE_APPLICATION_JSON);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.length);
+                exchange.getResponseBody().write(response);
+                exchange.close();
+            });
+            httpServer.createContext("/cb/flaky", exchange -> {
+
+                FLAKY_BACKEND_HITS.incrementAndGet();
+                byte[] response = ResponseConstants.FAST_BACKEND_RESPONSE.getBytes();
+                exchange.getResponseHeaders().set(HttpHeaderNames.CONTENT_TYPE.toString(),
+                        TokenManagementConstants.CONTENT_TYPE_APPLICATION_JSON);
+                exchange.sendResponseHeaders(flakyBackendHealthy ? HttpURLConnection.HTTP_OK :
+                        HttpURLConnection.HTTP_INTERNAL_ERROR, response.length);
+                exchange.getResponseBody().write(response);
+                exchange.close();
+            });
+            httpServer.createContext("/cb/down", exchange -> {
+
+                DOWN_BACKEND_HITS.incrementAndGet();
+                byte[] response = ResponseConstants.DOWN_BACKEND_RESPONSE.getBytes();
+                exchange.getResponseHeaders().set(HttpHeaderNames.CONTENT_TYPE.toString(),
+                        TokenManagementConstants.CONTENT_TYPE_APPLICATION_JSON);
+                exchange.sendResponseHeaders(HttpURLConnection.HTTP_UNAVAILABLE, response.length);
+                exchange.getResponseBody().write(response);
+                exchange.close();
+            });
             httpServer.start();
             backEndServerUrl = "http://localhost:" + backEndServerPort;
         } catch (Exception e) {
@@ -315,6 +364,32 @@ public class MockBackEndServer extends Thread {
         }
     }
 
+    /**
+     * @return number of requests received by the /cb/flaky context
+     */
+    public static int getFlakyBackendHits() {
+
+        return FLAKY_BACKEND_HITS.get();
+    }
+
+    /**
+     * Sets whether the /cb/flaky context responds with 200 or with 500.
+     *
+     * @param healthy true to respond with 200
+     */
+    public static void setFlakyBackendHealthy(boolean healthy) {
+
+        flakyBackendHealthy = healthy;
+    }
+
+    /**
+     * @return number of requests received by the /cb/down context, which always responds with 503
+     */
+    public static int getDownBackendHits() {
+
+        return DOWN_BACKEND_HITS.get();
+    }
+
     public void stopIt() {
 
         httpServer.stop(0);
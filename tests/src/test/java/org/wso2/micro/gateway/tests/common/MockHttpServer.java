@@ -40,7 +40,10 @@ import java.net.URLDecoder;
 import java.security.KeyStore;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Mock http server for key-manager and APIM rest api endpoints
@@ -55,6 +58,8 @@ public class MockHttpServer extends Thread {
     private String PubRestAPIBasePath = "/api/am/publisher/v1.0";
     private String AdminRestAPIBasePath = "/api/am/admin/v1.0";
     private String TMRestAPIBasePath = "/endpoints";
+    public final static String KEY_VALIDATION_SOAP = "soap";
+    public final static String KEY_VALIDATION_JSON = "json";
     public final static String PROD_ENDPOINT_RESPONSE = "{\"type\": \"production\"}";
     public final static String SAND_ENDPOINT_RESPONSE = "{\"type\": \"sandbox\"}";
     public final static String PROD_ENDPOINT_NEW_RESPONSE = "{\"type\": \"new-production\"}";
@@ -93,6 +98,10 @@ public class MockHttpServer extends Thread {
     public final static String ECHO_ENDPOINT_RESPONSE_FOR_INVALID_REQUEST = "{\"fault\":{\"code\":900915, " +
             "\"message\":\"Unprocessable entity\", \"description\":\"44 is not the type, string\"}}";
     int count = 0;
+    private final Map<String, Integer> uploadedUsageFiles = new ConcurrentHashMap<>();
+    private final AtomicInteger usageUploadFailures = new AtomicInteger();
+    private final Map<String, AtomicInteger> keyValidationRequests = new ConcurrentHashMap<>();
+    private final Map<String, Set<InetSocketAddress>> keyValidationConnections = new ConcurrentHashMap<>();
 
     public static void main(String[] args) {
 
@@ -280,6 +289,8 @@ public class MockHttpServer extends Thread {
             httpServer.createContext("/services/APIKeyValidationService", new HttpHandler() {
                 public void handle(HttpExchange exchange) throws IOException {
 
+                    recordKeyValidation(KEY_VALIDATION_SOAP, exchange);
+
                     String xmlRequest = IOUtils.toString(exchange.getRequestBody());
                     DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
                     String token = null;
@@ -288,12 +299,6 @@ public class MockHttpServer extends Thread {
                         DocumentBuilder builder = factory.newDocumentBuilder();
                         Document doc = builder.parse(new ByteArrayInputStream(xmlRequest.toString().getBytes("UTF-8")));
                         token = doc.getElementsByTagName("xsd:accessToken").item(0).getTextContent();
-
-                        byte[] xmlResponse = MockAPIPublisher.getInstance().getKeyValidationResponseForToken(token)
-                                .getBytes();
-                        exchange.getResponseHeaders().set("Content-Type", "application/soap+xml");
-                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, xmlResponse.length);
-                        exchange.getResponseBody().write(xmlResponse);
                     } catch (ParserConfigurationException e) {
                         log.error("Error occurred while parsing request", e);
                     } catch (SAXException e) {
@@ -309,6 +314,40 @@ public class MockHttpServer extends Thread {
 
                 }
             });
+            httpServer.createContext("/keymanager/v1/validate", new HttpHandler() {
+                public void handle(HttpExchange exchange) throws IOException {
+
+                    recordKeyValidation(KEY_VALIDATION_JSON, exchange);
+
+                    JsonObject request = new JsonParser().parse(IOUtils.toString(exchange.getRequestBody()))
+                            .getAsJsonObject();
+                    String token = request.get("accessToken").getAsString();
+                    byte[] response = MockAPIPublisher.getInstance().getJsonKeyValidationResponseForToken(token)
+                            .getBytes();
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, response.length);
+                    exchange.getResponseBody().write(response);
+                    exchange.close();
+                }
+            });
+            httpServer.createContext("/analytics/v1.0/usage/upload-file", new HttpHandler() {
+                public void handle(HttpExchange exchange) throws IOException {
+
+                    IOUtils.toByteArray(exchange.getRequestBody());
+                    String fileName = exchange.getRequestHeaders().getFirst("FileName");
+                    if (usageUploadFailures.getAndUpdate(failures -> failures > 0 ? failures - 1 : 0) > 0) {
+                        exchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+                        exchange.close();
+                        return;
+                    }
+                    uploadedUsageFiles.merge(fileName, 1, Integer::sum);
+                    byte[] response = "{\"message\":\"Successfully uploaded\"}".getBytes();
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(HttpURLConnection.HTTP_CREATED, response.length);
+                    exchange.getResponseBody().write(response);
+                    exchange.close();
+                }
+            });
             httpServer.createContext(AdminRestAPIBasePath + "/throttling/policies/application", new HttpHandler() {
                 public void handle(HttpExchange exchange) throws IOException {
 
@@ -375,6 +414,51 @@ public class MockHttpServer extends Thread {
         this.KMServerPort = KMServerPort;
     }
 
+    /**
+     * @return number of successful uploads of each analytics usage data file, keyed by the file name
+     */
+    public Map<String, Integer> getUploadedUsageFiles() {
+
+        return uploadedUsageFiles;
+    }
+
+    /**
+     * Makes the analytics upload endpoint reject the next uploads with an internal server error.
+     *
+     * @param failures number of uploads to reject
+     */
+    public void setUsageUploadFailures(int failures) {
+
+        usageUploadFailures.set(failures);
+    }
+
+    /**
+     * @param transport {@link #KEY_VALIDATION_SOAP} or {@link #KEY_VALIDATION_JSON}
+     * @return number of key validation requests received over the transport
+     */
+    public int getKeyValidationRequests(String transport) {
+
+        AtomicInteger requests = keyValidationRequests.get(transport);
+        return requests == null ? 0 : requests.get();
+    }
+
+    /**
+     * @param transport {@link #KEY_VALIDATION_SOAP} or {@link #KEY_VALIDATION_JSON}
+     * @return number of distinct client connections which sent key validation requests over the transport
+     */
+    public int getKeyValidationConnections(String transport) {
+
+        Set<InetSocketAddress> connections = keyValidationConnections.get(transport);
+        return connections == null ? 0 : connections.size();
+    }
+
+    private void recordKeyValidation(String transport, HttpExchange exchange) {
+
+        keyValidationRequests.computeIfAbsent(transport, key -> new AtomicInteger()).incrementAndGet();
+        keyValidationConnections.computeIfAbsent(transport, key -> ConcurrentHashMap.newKeySet())
+                .add(exchange.getRemoteAddress());
+    }
+
     private Map<String, String> parseParas(URI uri) {
 
         String[] params = uri.getRawQuery().split("&");
@@ -50,4 +50,7 @@ public class ResponseConstants {
             "\"message\":\"Successfully intercepted\", \"description\":\"Description\"}}";
     public static final String PER_APIRESPONSE_HEADER = "PerAPIResponse_Header";
     public static final String PAYLOAD = "payload";
+    public static final String FAST_BACKEND_RESPONSE = "{\"backend\": \"fast\"}";
+    public static final String SLOW_BACKEND_RESPONSE = "{\"backend\": \"slow\"}";
+    public static final String DOWN_BACKEND_RESPONSE = "{\"backend\": \"down\"}";
 }
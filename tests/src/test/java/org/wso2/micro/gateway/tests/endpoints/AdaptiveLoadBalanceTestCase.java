@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.micro.gateway.tests.endpoints;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.micro.gateway.tests.common.BaseTestCase;
+import org.wso2.micro.gateway.tests.common.ResponseConstants;
+import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.util.HttpClientRequest;
+import org.wso2.micro.gateway.tests.util.HttpResponse;
+import org.wso2.micro.gateway.tests.util.TestConstant;
+import org.wso2.micro.gateway.tests.util.TokenUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the adaptive load balancing algorithm against a load balanced endpoint with one fast and one slow target.
+ * Round robin sends half of the requests to the slow target, while the adaptive algorithm should only send it the
+ * first requests and the occasional probe.
+ */
+public class AdaptiveLoadBalanceTestCase extends BaseTestCase {
+    private static final int REQUEST_COUNT = 40;
+    private String jwtTokenProd;
+
+    @BeforeClass
+    public void start() throws Exception {
+
+        String project = "adaptiveLoadBalanceProject";
+        //Define application info
+        ApplicationDTO application = new ApplicationDTO();
+        application.setName("jwtApp");
+        application.setTier("Unlimited");
+        application.setId((int) (Math.random() * 1000));
+
+        jwtTokenProd = TokenUtil.getBasicJWT(application, new JSONObject(), TestConstant.KEY_TYPE_PRODUCTION, 3600);
+        //generate apis with CLI and start the micro gateway server
+        super.init(project, new String[]{"endpoints/adaptive_load_balance.yaml"});
+    }
+
+    @Test(description = "Test that the adaptive algorithm sends fewer requests to the slow target than round robin")
+    public void testAdaptiveLoadBalancing() throws Exception {
+        int roundRobinSlowRequests = countSlowRequests("balancer/v1/roundRobin");
+        int adaptiveSlowRequests = countSlowRequests("balancer/v1/adaptive");
+
+        Assert.assertEquals(roundRobinSlowRequests, REQUEST_COUNT / 2,
+                "Round robin should send every second request to the slow target");
+        Assert.assertTrue(adaptiveSlowRequests < REQUEST_COUNT / 4,
+                "Adaptive load balancing sent " + adaptiveSlowRequests + " of " + REQUEST_COUNT
+                        + " requests to the slow target");
+    }
+
+    private int countSlowRequests(String path) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Bearer " + jwtTokenProd);
+        int slowRequests = 0;
+        for (int i = 0; i < REQUEST_COUNT; i++) {
+            HttpResponse response = HttpClientRequest.doGet(getServiceURLHttp(path), headers);
+            Assert.assertNotNull(response);
+            Assert.assertEquals(response.getResponseCode(), 200, "Response code mismatched");
+            if (ResponseConstants.SLOW_BACKEND_RESPONSE.equals(response.getData())) {
+                slowRequests++;
+            } else {
+                Assert.assertEquals(response.getData(), ResponseConstants.FAST_BACKEND_RESPONSE);
+            }
+        }
+        return slowRequests;
+    }
+
+    @AfterClass
+    public void stop() throws Exception {
+        //Stop all the mock servers
+        super.finalize();
+    }
+}
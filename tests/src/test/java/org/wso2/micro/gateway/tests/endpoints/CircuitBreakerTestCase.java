@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.wso2.micro.gateway.tests.endpoints;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.json.JSONObject;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.micro.gateway.tests.common.BaseTestCase;
+import org.wso2.micro.gateway.tests.common.MockBackEndServer;
+import org.wso2.micro.gateway.tests.common.ResponseConstants;
+import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.util.HttpClientRequest;
+import org.wso2.micro.gateway.tests.util.HttpResponse;
+import org.wso2.micro.gateway.tests.util.TestConstant;
+import org.wso2.micro.gateway.tests.util.TokenUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the circuit breakers of the endpoints against the mock back end server. A circuit opens once the failed or
+ * timed out requests of its rolling window exceed the failure threshold, and then fails the requests without calling
+ * the back end until the reset time is over and a probe succeeds. Load balanced endpoints have a circuit per target,
+ * so a target which is down is ejected while the others keep serving.
+ */
+public class CircuitBreakerTestCase extends BaseTestCase {
+    private static final int REQUEST_VOLUME_THRESHOLD = 3;
+    private static final int MAX_REQUESTS_TO_OPEN = 10;
+    private static final long FLAKY_RESET_TIME_MILLIS = 3000;
+    private static final int CIRCUIT_OPEN_ERROR_CODE = 303001;
+    private String jwtTokenProd;
+
+    @BeforeClass
+    public void start() throws Exception {
+
+        String project = "circuitBreakerProject";
+        //Define application info
+        ApplicationDTO application = new ApplicationDTO();
+        application.setName("jwtApp");
+        application.setTier("Unlimited");
+        application.setId((int) (Math.random() * 1000));
+
+        jwtTokenProd = TokenUtil.getBasicJWT(application, new JSONObject(), TestConstant.KEY_TYPE_PRODUCTION, 3600);
+        //generate apis with CLI and start the micro gateway server
+        super.init(project, new String[]{"endpoints/circuit_breaker.yaml"});
+    }
+
+    @Test(description = "Test that the circuit opens on errors and closes again after a successful probe")
+    public void testCircuitOpensAndRecovers() throws Exception {
+        MockBackEndServer.setFlakyBackendHealthy(false);
+        try {
+            for (int i = 0; i < REQUEST_VOLUME_THRESHOLD; i++) {
+                Assert.assertEquals(invoke("breaker/v1/flaky").getResponseCode(), 500, "Response code mismatched");
+            }
+            openCircuit("breaker/v1/flaky");
+            int hits = MockBackEndServer.getFlakyBackendHits();
+            for (int i = 0; i < 5; i++) {
+                assertCircuitOpen(invoke("breaker/v1/flaky"));
+            }
+            Assert.assertEquals(MockBackEndServer.getFlakyBackendHits(), hits,
+                    "Back end was called while the circuit was open");
+
+            MockBackEndServer.setFlakyBackendHealthy(true);
+            Thread.sleep(FLAKY_RESET_TIME_MILLIS + 500);
+            HttpResponse response = invoke("breaker/v1/flaky");
+            Assert.assertEquals(response.getResponseCode(), 200, "Probe was not let through after the reset time");
+            Assert.assertEquals(response.getData(), ResponseConstants.FAST_BACKEND_RESPONSE);
+            Assert.assertEquals(MockBackEndServer.getFlakyBackendHits(), hits + 1);
+            for (int i = 0; i < 5; i++) {
+                Assert.assertEquals(invoke("breaker/v1/flaky").getResponseCode(), 200,
+                        "Circuit did not close after a successful probe");
+            }
+        } finally {
+            MockBackEndServer.setFlakyBackendHealthy(true);
+        }
+    }
+
+    @Test(description = "Test that the circuit opens on responses slower than the timeout")
+    public void testCircuitOpensOnSlowResponses() throws Exception {
+        openCircuit("breaker/v1/slow");
+        for (int i = 0; i < 5; i++) {
+            long start = System.currentTimeMillis();
+            assertCircuitOpen(invoke("breaker/v1/slow"));
+            Assert.assertTrue(System.currentTimeMillis() - start < MockBackEndServer.SLOW_BACKEND_DELAY_MILLIS,
+                    "Request waited for the slow back end while the circuit was open");
+        }
+    }
+
+    @Test(description = "Test that a load balanced target which is down is ejected")
+    public void testFailingTargetEjected() throws Exception {
+        for (int i = 0; i < MAX_REQUESTS_TO_OPEN; i++) {
+            invoke("breaker/v1/balanced");
+        }
+        int hits = MockBackEndServer.getDownBackendHits();
+        Assert.assertTrue(hits <= REQUEST_VOLUME_THRESHOLD + 1, "Target which is down was called " + hits + " times");
+        for (int i = 0; i < 10; i++) {
+            HttpResponse response = invoke("breaker/v1/balanced");
+            Assert.assertEquals(response.getResponseCode(), 200, "Response code mismatched");
+            Assert.assertEquals(response.getData(), ResponseConstants.FAST_BACKEND_RESPONSE);
+        }
+        Assert.assertEquals(MockBackEndServer.getDownBackendHits(), hits,
+                "Target which is down was called after it was ejected");
+    }
+
+    @Test(description = "Test that a load balanced endpoint is answered with 503 once the circuits of all its targets "
+            + "are open")
+    public void testAllTargetsEjected() throws Exception {
+        openCircuit("breaker/v1/allDown");
+        int hits = MockBackEndServer.getDownBackendHits();
+        for (int i = 0; i < 5; i++) {
+            assertCircuitOpen(invoke("breaker/v1/allDown"));
+        }
+        Assert.assertEquals(MockBackEndServer.getDownBackendHits(), hits,
+                "Targets were called while their circuits were open");
+    }
+
+    /**
+     * Invokes the resource until its circuit reports that it is open.
+     */
+    private void openCircuit(String path) throws Exception {
+        for (int i = 0; i < MAX_REQUESTS_TO_OPEN; i++) {
+            if (isCircuitOpen(invoke(path))) {
+                return;
+            }
+        }
+        Assert.fail("Circuit of " + path + " did not open");
+    }
+
+    private boolean isCircuitOpen(HttpResponse response) {
+        if (response.getResponseCode() != 503) {
+            return false;
+        }
+        // A back end which is down answers with 503 as well, but without a fault.
+        JSONObject fault = new JSONObject(response.getData()).optJSONObject("fault");
+        return fault != null && fault.getInt("code") == CIRCUIT_OPEN_ERROR_CODE;
+    }
+
+    private void assertCircuitOpen(HttpResponse response) {
+        Assert.assertNotNull(response);
+        Assert.assertEquals(response.getResponseCode(), 503, "Response code mismatched");
+        Assert.assertEquals(new JSONObject(response.getData()).getJSONObject("fault").getInt("code"),
+                CIRCUIT_OPEN_ERROR_CODE);
+    }
+
+    private HttpResponse invoke(String path) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Bearer " + jwtTokenProd);
+        HttpResponse response = HttpClientRequest.doGet(getServiceURLHttp(path), headers);
+        Assert.assertNotNull(response);
+        return response;
+    }
+
+    @AfterClass
+    public void stop() throws Exception {
+        //Stop all the mock servers
+        super.finalize();
+    }
+}
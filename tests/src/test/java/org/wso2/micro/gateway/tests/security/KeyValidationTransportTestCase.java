@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2019, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.wso2.micro.gateway.tests.security;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+import org.wso2.micro.gateway.tests.common.BaseTestCase;
+import org.wso2.micro.gateway.tests.common.KeyValidationInfo;
+import org.wso2.micro.gateway.tests.common.MockAPIPublisher;
+import org.wso2.micro.gateway.tests.common.MockHttpServer;
+import org.wso2.micro.gateway.tests.common.model.API;
+import org.wso2.micro.gateway.tests.common.model.ApplicationDTO;
+import org.wso2.micro.gateway.tests.util.HttpClientRequest;
+import org.wso2.micro.gateway.tests.util.HttpResponse;
+import org.wso2.micro.gateway.tests.util.TestConstant;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Test the SOAP and JSON key validation transports against the mock key manager. Token caching is disabled in
+ * both configurations so that every request results in a key validation call. The project is generated and the
+ * tokens are registered once, and the gateway is restarted with the configuration of each transport. The achieved
+ * validations per second are logged for each transport, for comparison only, as they depend on the build machine.
+ */
+public class KeyValidationTransportTestCase extends BaseTestCase {
+    private static final Logger log = LoggerFactory.getLogger(KeyValidationTransportTestCase.class);
+    private static final int REQUESTS = 50;
+    private static final String LABEL = "keyValidationLabel";
+    private static final String PROJECT = "keyValidationProject";
+    private String prodToken, sandToken;
+
+    @BeforeClass
+    public void start() throws Exception {
+        registerApiAndTokens();
+        super.init(LABEL, PROJECT, "confs/key-validation-soap.conf");
+    }
+
+    @Test(description = "Test key validation over the SOAP transport")
+    public void testSoapTransport() throws Exception {
+        assertKeyValidation(MockHttpServer.KEY_VALIDATION_SOAP, MockHttpServer.KEY_VALIDATION_JSON);
+    }
+
+    @Test(description = "Test key validation over the JSON transport", dependsOnMethods = "testSoapTransport")
+    public void testJsonTransport() throws Exception {
+        restartMicroGWServer(PROJECT, "confs/key-validation-json.conf");
+        assertKeyValidation(MockHttpServer.KEY_VALIDATION_JSON, MockHttpServer.KEY_VALIDATION_SOAP);
+    }
+
+    @AfterClass
+    public void stop() throws Exception {
+        super.finalize();
+    }
+
+    /**
+     * Invokes the API with valid and invalid tokens, and checks that every token was validated over the expected
+     * transport, through connections reused across the requests. The throughput is logged and not asserted.
+     */
+    private void assertKeyValidation(String transport, String otherTransport) throws Exception {
+        int validations = mockHttpServer.getKeyValidationRequests(transport);
+        int connections = mockHttpServer.getKeyValidationConnections(transport);
+        int otherValidations = mockHttpServer.getKeyValidationRequests(otherTransport);
+
+        invoke(sandToken, MockHttpServer.SAND_ENDPOINT_RESPONSE, 200);
+        invoke("invalidToken", null, 401);
+        // The first requests open the key validation connections, hence the following ones are timed.
+        long startTime = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            invoke(prodToken, MockHttpServer.PROD_ENDPOINT_RESPONSE, 200);
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+        log.info("Key validation throughput over the {} transport : {} validations/s", transport,
+                String.format("%.1f", REQUESTS * 1_000_000_000d / elapsedNanos));
+
+        Assert.assertTrue(mockHttpServer.getKeyValidationRequests(transport) - validations >= REQUESTS + 1,
+                "Tokens were not validated over the " + transport + " transport");
+        Assert.assertEquals(mockHttpServer.getKeyValidationRequests(otherTransport), otherValidations,
+                "Tokens were validated over the " + otherTransport + " transport");
+        int newConnections = mockHttpServer.getKeyValidationConnections(transport) - connections;
+        Assert.assertTrue(newConnections > 0 && newConnections < REQUESTS / 10,
+                "Key validation used " + newConnections + " connections for " + (REQUESTS + 2) + " requests");
+    }
+
+    private void registerApiAndTokens() throws Exception {
+        MockAPIPublisher pub = MockAPIPublisher.getInstance();
+        API api = new API();
+        api.setName("PizzaShackAPI");
+        api.setContext("/pizzashack");
+        api.setProdEndpoint(getMockServiceURLHttp("/echo/prod"));
+        api.setSandEndpoint(getMockServiceURLHttp("/echo/sand"));
+        api.setVersion("1.0.0");
+        api.setProvider("admin");
+        pub.addApi(LABEL, api);
+
+        ApplicationDTO application = new ApplicationDTO();
+        application.setName("keyValidationApp");
+        application.setTier("Unlimited");
+        application.setId((int) (Math.random() * 1000));
+
+        KeyValidationInfo info = new KeyValidationInfo();
+        info.setApi(api);
+        info.setApplication(application);
+        info.setAuthorized(true);
+        info.setKeyType(TestConstant.KEY_TYPE_PRODUCTION);
+        info.setSubscriptionTier("Unlimited");
+        prodToken = pub.getAndRegisterAccessToken(info);
+
+        KeyValidationInfo infoSand = new KeyValidationInfo();
+        infoSand.setApi(api);
+        infoSand.setApplication(application);
+        infoSand.setAuthorized(true);
+        infoSand.setKeyType(TestConstant.KEY_TYPE_SANDBOX);
+        infoSand.setSubscriptionTier("Unlimited");
+        sandToken = pub.getAndRegisterAccessToken(infoSand);
+    }
+
+    private void invoke(String token, String responseData, int responseCode) throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put(HttpHeaderNames.AUTHORIZATION.toString(), "Bearer " + token);
+        HttpResponse response = HttpClientRequest.doGet(getServiceURLHttp("/pizzashack/1.0.0/menu"), headers);
+        Assert.assertNotNull(response);
+        Assert.assertEquals(response.getResponseCode(), responseCode, "Response code mismatched");
+        if (responseData != null) {
+            Assert.assertEquals(response.getData(), responseData);
+        }
+    }
+}